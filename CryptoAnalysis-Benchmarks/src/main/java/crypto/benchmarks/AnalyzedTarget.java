@@ -0,0 +1,143 @@
+package crypto.benchmarks;
+
+import boomerang.scene.ControlFlowGraph;
+import boomerang.scene.DeclaredMethod;
+import boomerang.scene.Statement;
+import boomerang.scene.Val;
+import crypto.HeadlessCryptoScanner;
+import crypto.analysis.AnalysisSeedWithSpecification;
+import crypto.analysis.IAnalysisSeed;
+import crypto.analysis.errors.AbstractError;
+import crypto.listener.IAnalysisListener;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Analyzes a project from the CryptoAnalysisTargets once per trial and provides the analyzed seeds. The
+ * benchmarks for the single analysis steps (e.g. the constraint evaluation) use the seeds as input, such
+ * that they operate on the same data as the analysis does. The seeds release the calls on their objects
+ * after they have been executed, so the calls are copied when a seed finishes.
+ */
+@State(Scope.Benchmark)
+public class AnalyzedTarget {
+
+    @Param({"CryptoGuardExamples/ecbcrypto", "BragaCryptoBench/cryptomisuses/constantKey"})
+    public String target;
+
+    private final Map<AnalysisSeedWithSpecification, Map<ControlFlowGraph.Edge, DeclaredMethod>> seeds = new LinkedHashMap<>();
+
+    @Setup(Level.Trial)
+    public void analyze() {
+        seeds.clear();
+
+        HeadlessCryptoScanner scanner = BenchmarkUtils.createScanner(target, "JavaCryptographicArchitecture");
+        scanner.addAnalysisListener(new SeedCollector());
+        scanner.run();
+
+        if (seeds.isEmpty()) {
+            throw new RuntimeException("Could not find any seeds in " + target);
+        }
+    }
+
+    public Collection<AnalysisSeedWithSpecification> getSeeds() {
+        return seeds.keySet();
+    }
+
+    public Map<ControlFlowGraph.Edge, DeclaredMethod> getCallsOnObject(AnalysisSeedWithSpecification seed) {
+        return seeds.get(seed);
+    }
+
+    private class SeedCollector implements IAnalysisListener {
+
+        @Override
+        public void onSeedFinished(IAnalysisSeed analysisSeed) {
+            if (analysisSeed instanceof AnalysisSeedWithSpecification) {
+                AnalysisSeedWithSpecification seed = (AnalysisSeedWithSpecification) analysisSeed;
+                seeds.put(seed, new HashMap<>(seed.getAllCallsOnObject()));
+            }
+        }
+
+        @Override
+        public void beforeSootSetup() {}
+
+        @Override
+        public void afterSootSetup() {}
+
+        @Override
+        public void beforeCallGraphConstruction() {}
+
+        @Override
+        public void afterCallGraphConstruction() {}
+
+        @Override
+        public void beforeReadingRuleset() {}
+
+        @Override
+        public void afterReadingRuleset() {}
+
+        @Override
+        public void beforePreTransformation() {}
+
+        @Override
+        public void afterPreTransformation() {}
+
+        @Override
+        public void beforeAnalysis() {}
+
+        @Override
+        public void afterAnalysis() {}
+
+        @Override
+        public void beforeTypestateAnalysis() {}
+
+        @Override
+        public void afterTypestateAnalysis() {}
+
+        @Override
+        public void onDiscoveredSeeds(Collection<IAnalysisSeed> discoveredSeeds) {}
+
+        @Override
+        public void onSeedStarted(IAnalysisSeed analysisSeed) {}
+
+        @Override
+        public void onTypestateAnalysisFinished(IAnalysisSeed analysisSeed, long durationInNanos) {}
+
+        @Override
+        public void onTypestateAnalysisTimeout(IAnalysisSeed analysisSeed) {}
+
+        @Override
+        public void onExtractParameterAnalysisTimeout(IAnalysisSeed analysisSeed, Val parameter, Statement statement) {}
+
+        @Override
+        public void beforeExtractParameterAnalysis(IAnalysisSeed analysisSeed) {}
+
+        @Override
+        public void afterExtractParameterAnalysis(IAnalysisSeed analysisSeed) {}
+
+        @Override
+        public void beforeConstraintsCheck(IAnalysisSeed analysisSeed) {}
+
+        @Override
+        public void afterConstraintsCheck(IAnalysisSeed analysisSeed, int violatedConstraints) {}
+
+        @Override
+        public void beforePredicateCheck() {}
+
+        @Override
+        public void afterPredicateCheck() {}
+
+        @Override
+        public void onReportedError(IAnalysisSeed analysisSeed, AbstractError error) {}
+
+        @Override
+        public void addProgress(int current, int total) {}
+    }
+}
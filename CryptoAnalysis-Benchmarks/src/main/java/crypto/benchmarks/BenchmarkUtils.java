@@ -0,0 +1,57 @@
+package crypto.benchmarks;
+
+import crypto.HeadlessCryptoScanner;
+import crypto.cryslhandler.RulesetReader;
+import crypto.rules.CrySLRule;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+
+public class BenchmarkUtils {
+
+    /* The benchmarks are started from the directory of this module (see pom.xml) */
+    public static final String RULES_BASE_DIR = ".." + File.separator + "CryptoAnalysis" + File.separator + "src" + File.separator + "main" + File.separator + "resources" + File.separator;
+
+    public static final String TARGETS_BASE_DIR = ".." + File.separator + "CryptoAnalysisTargets" + File.separator;
+
+    public static String getRulesetPath(String ruleset) {
+        File rulesetDirectory = new File(RULES_BASE_DIR + ruleset);
+
+        if (!rulesetDirectory.isDirectory()) {
+            throw new RuntimeException("Could not find ruleset " + rulesetDirectory.getAbsolutePath() + ". Build the CryptoAnalysis module to unpack the rulesets");
+        }
+        return rulesetDirectory.getAbsolutePath();
+    }
+
+    public static Collection<CrySLRule> readRuleset(String ruleset) {
+        try {
+            RulesetReader reader = new RulesetReader();
+            return reader.readRulesFromPath(getRulesetPath(ruleset));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read rules: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Creates a scanner for a project from the CryptoAnalysisTargets. The benchmarks analyze the compiled
+     * classes of the project, i.e. the project has to be compiled with 'mvn compile' beforehand.
+     *
+     * @param target the path of the project relative to the CryptoAnalysisTargets directory
+     * @param ruleset the name of the ruleset
+     * @return the scanner for the project
+     */
+    public static HeadlessCryptoScanner createScanner(String target, String ruleset) {
+        File classesDirectory = new File(TARGETS_BASE_DIR + target + File.separator + "target" + File.separator + "classes");
+
+        if (!classesDirectory.isDirectory()) {
+            throw new RuntimeException("Could not find the classes of " + target + ". Compile the project with 'mvn compile' in " + new File(TARGETS_BASE_DIR + target).getAbsolutePath());
+        }
+
+        String applicationPath = classesDirectory.getAbsolutePath();
+        HeadlessCryptoScanner scanner = new HeadlessCryptoScanner(applicationPath, getRulesetPath(ruleset));
+        scanner.setSootClassPath(applicationPath);
+
+        return scanner;
+    }
+}
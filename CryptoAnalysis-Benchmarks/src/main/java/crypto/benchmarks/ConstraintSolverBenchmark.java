@@ -0,0 +1,42 @@
+package crypto.benchmarks;
+
+import crypto.analysis.AnalysisReporter;
+import crypto.analysis.AnalysisSeedWithSpecification;
+import crypto.constraints.ConstraintSolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates the constraints of all analyzed seeds. The solver reports the violated constraints to a
+ * reporter without listeners, i.e. the benchmark does not include the reporting of the errors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ConstraintSolverBenchmark {
+
+    private final AnalysisReporter analysisReporter = new AnalysisReporter();
+
+    @Benchmark
+    public int evaluateRelConstraints(AnalyzedTarget analyzedTarget) {
+        int violatedConstraints = 0;
+
+        for (AnalysisSeedWithSpecification seed : analyzedTarget.getSeeds()) {
+            ConstraintSolver solver = new ConstraintSolver(seed, analyzedTarget.getCallsOnObject(seed).keySet(), analysisReporter);
+            violatedConstraints += solver.evaluateRelConstraints();
+        }
+        return violatedConstraints;
+    }
+}
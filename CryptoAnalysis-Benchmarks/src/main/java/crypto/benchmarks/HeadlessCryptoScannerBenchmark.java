@@ -0,0 +1,47 @@
+package crypto.benchmarks;
+
+import boomerang.scene.Method;
+import boomerang.scene.WrappedClass;
+import com.google.common.collect.Table;
+import crypto.HeadlessCryptoScanner;
+import crypto.analysis.errors.AbstractError;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the complete analysis (Soot setup, reading the rules and analyzing the seeds) on projects from the
+ * CryptoAnalysisTargets. Each invocation is measured on its own because the analysis resets Soot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HeadlessCryptoScannerBenchmark {
+
+    @Param({"CryptoGuardExamples/ecbcrypto", "CryptoGuardExamples/pbeiteration", "BragaCryptoBench/cryptomisuses/constantKey", "BragaCryptoBench/cryptomisuses/paramsPBE"})
+    public String target;
+
+    @Param({"JavaCryptographicArchitecture"})
+    public String ruleset;
+
+    @Benchmark
+    public Table<WrappedClass, Method, Set<AbstractError>> run() {
+        HeadlessCryptoScanner scanner = BenchmarkUtils.createScanner(target, ruleset);
+        scanner.run();
+
+        return scanner.getErrorCollection();
+    }
+}
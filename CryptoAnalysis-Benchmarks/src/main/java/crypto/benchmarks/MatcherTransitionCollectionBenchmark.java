@@ -0,0 +1,49 @@
+package crypto.benchmarks;
+
+import crypto.rules.CrySLRule;
+import crypto.typestate.MatcherTransitionCollection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the transitions for the usage patterns of all rules in a ruleset.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MatcherTransitionCollectionBenchmark {
+
+    @Param({"JavaCryptographicArchitecture", "BouncyCastle", "Tink"})
+    public String ruleset;
+
+    private Collection<CrySLRule> rules;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        rules = BenchmarkUtils.readRuleset(ruleset);
+    }
+
+    @Benchmark
+    public void makeCollection(Blackhole blackhole) {
+        for (CrySLRule rule : rules) {
+            blackhole.consume(MatcherTransitionCollection.makeCollection(rule.getUsagePattern()));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package crypto.benchmarks;
+
+import boomerang.scene.DeclaredMethod;
+import crypto.analysis.AnalysisSeedWithSpecification;
+import crypto.rules.CrySLMethod;
+import crypto.utils.MatcherUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matches the events of the seeds' rules against the methods that are called on the seeds. This is the
+ * matching the typestate analysis performs for each call on a seed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MatcherUtilsBenchmark {
+
+    @Benchmark
+    public void matchCryslMethodAndDeclaredMethod(AnalyzedTarget analyzedTarget, Blackhole blackhole) {
+        for (AnalysisSeedWithSpecification seed : analyzedTarget.getSeeds()) {
+            for (DeclaredMethod declaredMethod : analyzedTarget.getCallsOnObject(seed).values()) {
+                for (CrySLMethod event : seed.getSpecification().getEvents()) {
+                    blackhole.consume(MatcherUtils.matchCryslMethodAndDeclaredMethod(event, declaredMethod));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void getMatchingCryslMethodsToDeclaredMethod(AnalyzedTarget analyzedTarget, Blackhole blackhole) {
+        for (AnalysisSeedWithSpecification seed : analyzedTarget.getSeeds()) {
+            for (DeclaredMethod declaredMethod : analyzedTarget.getCallsOnObject(seed).values()) {
+                blackhole.consume(MatcherUtils.getMatchingCryslMethodsToDeclaredMethod(seed.getSpecification(), declaredMethod));
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package crypto.benchmarks;
+
+import crypto.cryslhandler.RulesetReader;
+import crypto.rules.CrySLRule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the time to read the bundled rulesets. The benchmark 'readRulesFromPath' parses the CrySL files,
+ * the benchmark 'readRulesFromCache' reads the rules from a warmed up ruleset cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RulesetReaderBenchmark {
+
+    @Param({"JavaCryptographicArchitecture", "BouncyCastle", "Tink"})
+    public String ruleset;
+
+    private String rulesetPath;
+    private File cacheDirectory;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        rulesetPath = BenchmarkUtils.getRulesetPath(ruleset);
+        cacheDirectory = Files.createTempDirectory("rulesCache").toFile();
+
+        RulesetReader reader = new RulesetReader(cacheDirectory.getAbsolutePath());
+        reader.readRulesFromPath(rulesetPath);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(cacheDirectory.toPath())) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public Collection<CrySLRule> readRulesFromPath() throws IOException {
+        RulesetReader reader = new RulesetReader();
+        return reader.readRulesFromPath(rulesetPath);
+    }
+
+    @Benchmark
+    public Collection<CrySLRule> readRulesFromCache() throws IOException {
+        RulesetReader reader = new RulesetReader(cacheDirectory.getAbsolutePath());
+        return reader.readRulesFromPath(rulesetPath);
+    }
+}
@@ -32,6 +32,12 @@ public class AnalysisSettings implements Callable<Integer> {
 			required = true)
 	private String rulesDir = null;
 
+	@CommandLine.Option(
+			names = {"--rulesCacheDir"},
+			description = "The path to a directory where the parsed rules are stored. Later runs with the same ruleset "
+					+ "read the rules from this directory instead of parsing the CrySL files again")
+	private String rulesCacheDir = null;
+
 	@CommandLine.Option(
 			names = {"--cg"},
 			description = "The call graph to resolve method calls. Possible values are CHA, SPARK and SPARKLIB (default: CHA)")
@@ -55,10 +61,17 @@ public class AnalysisSettings implements Callable<Integer> {
 	@CommandLine.Option(
 			names = {"--reportFormat"},
 			split = ",",
-			description = "The format of the report. Possible values are CMD, TXT, SARIF, CSV and CSV_SUMMARY (default: CMD)."
+			description = "The format of the report. Possible values are CMD, TXT, SARIF, CSV, CSV_SUMMARY and JSONL (default: CMD)."
 					+ " Multiple formats should be split with a comma (e.g. CMD,TXT,CSV)")
 	private String[] reportFormat = null;
 
+	@CommandLine.Option(
+			names = {"--streamReports"},
+			description = "Write the CSV and SARIF reports while the analysis is running instead of at the end of the "
+					+ "analysis. The JSONL report is always written while the analysis is running. If only streamed formats "
+					+ "are selected, the errors are not kept in memory")
+	private boolean streamReports = false;
+
 	@CommandLine.Option(
 			names = {"--preanalysis"},
 			description = "Enable a preanalysis. @Deprecated since 3.2.0, not supported anymore")
@@ -97,6 +110,61 @@ public class AnalysisSettings implements Callable<Integer> {
 	)
 	private int timeout = 10000;
 
+	@CommandLine.Option(
+			names = {"--threads"},
+			description = "Number of threads used to discover and analyze the seeds. If the value is greater than 1, " +
+					"the reachable methods are scanned for seeds and the seeds are analyzed in parallel on a " +
+					"work-stealing pool. (default: 1)"
+	)
+	private int threads = 1;
+
+	@CommandLine.Option(
+			names = {"--metrics"},
+			description = "Record the time and allocated memory of the analysis phases and seeds. The metrics are written "
+					+ "to the files CryptoAnalysis-Metrics.json and CryptoAnalysis-Seed-Metrics.csv in the --reportPath directory"
+	)
+	private boolean metrics = false;
+
+	@CommandLine.Option(
+			names = {"--incrementalState"},
+			description = "The path to a file that stores the classes and findings of this run. If the file contains the "
+					+ "state of a previous run with the same ruleset and settings, only the seeds that are affected by "
+					+ "changed classes are analyzed again and the findings of all other seeds are taken from the previous run"
+	)
+	private String incrementalStateFile = null;
+
+	@CommandLine.Option(
+			names = {"--classFilterRadius"},
+			description = "Only load the application classes that reference a class with a rule and the classes within "
+					+ "this number of references to them. The references are read from the constant pools before Soot is "
+					+ "set up. Data flows through all other classes are not tracked. A negative value disables the "
+					+ "filter (default: -1)"
+	)
+	private int classFilterRadius = -1;
+
+	@CommandLine.Option(
+			names = {"--preloadClasses"},
+			description = "Read the application classes from directories and memory-mapped jar files with multiple threads "
+					+ "before Soot is set up. Soot takes the classes from memory instead of searching the application path"
+	)
+	private boolean preloadClasses = false;
+
+	@CommandLine.Option(
+			names = {"--batchQueries"},
+			description = "Collect the parameter queries of all seeds before the seeds are analyzed. Queries for a local "
+					+ "with a single definition in a method are solved once and the result is used for all uses of the local"
+	)
+	private boolean batchQueries = false;
+
+	@CommandLine.Option(
+			names = {"--libraryCacheDir"},
+			description = "The path to a directory where the indexes of the library classes are stored. Later runs look up "
+					+ "a library class in the index of its jar file or of the JDK instead of searching the classpath. Soot "
+					+ "still parses each resolved class, i.e. the index does not reduce the time to parse the classes or "
+					+ "to build the call graph. The application classes are always read fresh"
+	)
+	private String libraryCacheDir = null;
+
 	public enum AnalysisCallGraph {
 		CHA, SPARK, SPARK_LIB,
 	}
@@ -128,6 +196,11 @@ public class AnalysisSettings implements Callable<Integer> {
 			parseIgnoredSections(ignoreSectionsPath);
 		}
 
+		if (threads < 1) {
+			throw new CryptoAnalysisParserException("Incorrect value " + threads + " for --threads option. "
+					+ "The number of threads has to be at least 1.\n");
+		}
+
 		if (exitCode != ExitCode.OK) {
 			throw new CryptoAnalysisParserException("Error while parsing the CLI arguments");
 		}
@@ -178,9 +251,12 @@ public class AnalysisSettings implements Callable<Integer> {
 				case "github_annotation":
 					reportFormats.add(Reporter.ReportFormat.GITHUB_ANNOTATION);
 					break;
+				case "jsonl":
+					reportFormats.add(Reporter.ReportFormat.JSONL);
+					break;
 				default:
 					throw new CryptoAnalysisParserException("Incorrect value " + reportFormatValue + " for --reportFormat option. "
-							+ "Available options are: CMD, TXT, SARIF, CSV and CSV_SUMMARY.\n");
+							+ "Available options are: CMD, TXT, SARIF, CSV, CSV_SUMMARY and JSONL.\n");
 			}
 		}
 	}
@@ -216,6 +292,14 @@ public class AnalysisSettings implements Callable<Integer> {
 		this.rulesDir = rulesetPath;
 	}
 
+	public String getRulesetCacheDirectory() {
+		return rulesCacheDir;
+	}
+
+	public void setRulesetCacheDirectory(String rulesetCacheDirectory) {
+		this.rulesCacheDir = rulesetCacheDirectory;
+	}
+
 	public AnalysisCallGraph getCallGraph() {
 		return analysisCallGraph;
 	}
@@ -256,6 +340,14 @@ public class AnalysisSettings implements Callable<Integer> {
 		this.reportFormats = new HashSet<>(reportFormats);
 	}
 
+	public boolean isStreamReports() {
+		return streamReports;
+	}
+
+	public void setStreamReports(boolean streamReports) {
+		this.streamReports = streamReports;
+	}
+
 	public boolean isVisualization() {
 		return visualization;
 	}
@@ -288,6 +380,62 @@ public class AnalysisSettings implements Callable<Integer> {
 		this.timeout = timeout;
 	}
 
+	public int getThreadCount() {
+		return threads;
+	}
+
+	public void setThreadCount(int threadCount) {
+		this.threads = threadCount;
+	}
+
+	public boolean isCollectMetrics() {
+		return metrics;
+	}
+
+	public void setCollectMetrics(boolean collectMetrics) {
+		this.metrics = collectMetrics;
+	}
+
+	public String getIncrementalStateFile() {
+		return incrementalStateFile;
+	}
+
+	public void setIncrementalStateFile(String incrementalStateFile) {
+		this.incrementalStateFile = incrementalStateFile;
+	}
+
+	public int getClassFilterRadius() {
+		return classFilterRadius;
+	}
+
+	public void setClassFilterRadius(int classFilterRadius) {
+		this.classFilterRadius = classFilterRadius;
+	}
+
+	public boolean isPreloadClasses() {
+		return preloadClasses;
+	}
+
+	public void setPreloadClasses(boolean preloadClasses) {
+		this.preloadClasses = preloadClasses;
+	}
+
+	public boolean isBatchQueries() {
+		return batchQueries;
+	}
+
+	public void setBatchQueries(boolean batchQueries) {
+		this.batchQueries = batchQueries;
+	}
+
+	public String getLibraryCacheDirectory() {
+		return libraryCacheDir;
+	}
+
+	public void setLibraryCacheDirectory(String libraryCacheDirectory) {
+		this.libraryCacheDir = libraryCacheDirectory;
+	}
+
 	@Override
 	public Integer call() throws Exception {
 		return 0;
@@ -17,20 +17,30 @@ import crypto.analysis.errors.AbstractError;
 import crypto.cryslhandler.RulesetReader;
 import crypto.exceptions.CryptoAnalysisException;
 import crypto.exceptions.CryptoAnalysisParserException;
+import crypto.incremental.IncrementalAnalysis;
 import crypto.listener.IAnalysisListener;
 import crypto.listener.IErrorListener;
+import crypto.preanalysis.LibraryClassCache;
+import crypto.preanalysis.PreloadedClassProvider;
+import crypto.preanalysis.RuleReferenceFilter;
 import crypto.preanalysis.TransformerSetup;
+import crypto.reporting.MetricsReporter;
 import crypto.reporting.Reporter;
 import crypto.reporting.ReporterFactory;
+import crypto.reporting.StreamingReporter;
 import crypto.rules.CrySLRule;
 import ideal.IDEALSeedSolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import soot.ClassProvider;
 import soot.EntryPoints;
 import soot.G;
 import soot.PackManager;
 import soot.Scene;
 import soot.SootMethod;
+import soot.SourceLocator;
+import soot.asm.AsmClassProvider;
+import soot.asm.AsmJava9ClassProvider;
 import soot.options.Options;
 import typestate.TransitionFunction;
 
@@ -39,6 +49,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -51,6 +62,8 @@ public class HeadlessCryptoScanner {
 	private final Collection<IAnalysisListener> analysisListeners = new HashSet<>();
 	private final Collection<IErrorListener> errorListeners = new HashSet<>();
 	private final Table<WrappedClass, Method, Set<AbstractError>> errorCollection = HashBasedTable.create();
+	private Collection<CrySLRule> ruleset = null;
+	private LibraryClassCache libraryClassCache = null;
 
 	public static int exitCode = 0;
 
@@ -84,44 +97,99 @@ public class HeadlessCryptoScanner {
 	}
 
 	public void run() {
-		Stopwatch stopwatch = Stopwatch.createStarted();
-		LOGGER.info("Setup Soot...");
-		setupSoot();
-		LOGGER.info("Soot setup done in {} ", stopwatch);
+		MetricsReporter metricsReporter = null;
+		if (isCollectMetrics()) {
+			if (getReportDirectory() == null) {
+				throw new RuntimeException("Cannot collect metrics without directory (try using --reportPath or setReportDirectory)");
+			}
 
-		LOGGER.info("Starting analysis...");
-		analyze();
-		LOGGER.info("Analysis finished in {}", stopwatch);
-		stopwatch.stop();
-	}
+			metricsReporter = new MetricsReporter();
+			analysisListeners.add(metricsReporter);
+		}
 
-	private void setupSoot() {
 		try {
-			initializeSootWithEntryPointAllReachable();
-		} catch (CryptoAnalysisException e) {
-			throw new RuntimeException("Error happened while setting up Soot: " + e.getMessage());
+			Stopwatch stopwatch = Stopwatch.createStarted();
+			// The rules are read before Soot is set up, such that the application classes can be filtered
+			Collection<CrySLRule> ruleset = this.ruleset != null ? this.ruleset : readRuleset();
+
+			LOGGER.info("Setup Soot...");
+			setupSoot(ruleset);
+			LOGGER.info("Soot setup done in {} ", stopwatch);
+
+			LOGGER.info("Starting analysis...");
+			analyze(ruleset);
+			LOGGER.info("Analysis finished in {}", stopwatch);
+			stopwatch.stop();
+		} finally {
+			analysisListeners.remove(metricsReporter);
+
+			// Soot may resolve library classes until the analysis is finished
+			if (libraryClassCache != null) {
+				libraryClassCache.close();
+				libraryClassCache = null;
+			}
+		}
+
+		if (metricsReporter != null) {
+			metricsReporter.createMetricsReport(getReportDirectory());
 		}
-		PackManager.v().getPack("cg").apply();
 	}
 
-	private void analyze() {
-		// Create ruleset and reporter
+	private Collection<CrySLRule> readRuleset() {
 		LOGGER.info("Reading rules from {}", getRulesetDirectory());
+		analysisListeners.forEach(IAnalysisListener::beforeReadingRuleset);
 		Collection<CrySLRule> ruleset;
 		try {
-			RulesetReader reader = new RulesetReader();
+			RulesetReader reader = new RulesetReader(getRulesetCacheDirectory());
 			ruleset = reader.readRulesFromPath(getRulesetDirectory());
 		} catch (IOException e) {
 			throw new RuntimeException("Could not read rules: " + e.getMessage());
 		}
+		analysisListeners.forEach(IAnalysisListener::afterReadingRuleset);
 		LOGGER.info("Found {} rules in {}", ruleset.size(), getRulesetDirectory());
 
-		Collection<Reporter> reporters = ReporterFactory.createReporters(getReportFormats(), getReportDirectory(), ruleset);
+		return ruleset;
+	}
+
+	private void setupSoot(Collection<CrySLRule> ruleset) {
+		analysisListeners.forEach(IAnalysisListener::beforeSootSetup);
+		try {
+			initializeSootWithEntryPointAllReachable(ruleset);
+		} catch (CryptoAnalysisException e) {
+			throw new RuntimeException("Error happened while setting up Soot: " + e.getMessage());
+		}
+		analysisListeners.forEach(IAnalysisListener::afterSootSetup);
+
+		analysisListeners.forEach(IAnalysisListener::beforeCallGraphConstruction);
+		PackManager.v().getPack("cg").apply();
+		analysisListeners.forEach(IAnalysisListener::afterCallGraphConstruction);
+	}
+
+	private void analyze(Collection<CrySLRule> ruleset) {
+		// Create reporters
+		Collection<Reporter.ReportFormat> streamingFormats = ReporterFactory.getStreamingFormats(getReportFormats(), isStreamReports());
+		Collection<Reporter.ReportFormat> reportFormats = new HashSet<>(getReportFormats());
+		reportFormats.removeAll(streamingFormats);
+
+		Collection<Reporter> reporters = ReporterFactory.createReporters(reportFormats, getReportDirectory(), ruleset);
+		Collection<StreamingReporter> streamingReporters = ReporterFactory.createStreamingReporters(streamingFormats, getReportDirectory(), ruleset);
 
 		// Prepare for Boomerang
+		analysisListeners.forEach(IAnalysisListener::beforePreTransformation);
 		TransformerSetup.v().setupPreTransformer(ruleset);
+		analysisListeners.forEach(IAnalysisListener::afterPreTransformation);
 		CallGraph callGraph = new SootCallGraph();
 
+		IncrementalAnalysis incrementalAnalysis = createIncrementalAnalysis();
+		if (incrementalAnalysis != null) {
+			incrementalAnalysis.computeChanges(getApplicationPath());
+		}
+
+		/* The errors are only kept in memory if a reporter or the incremental analysis needs them after the
+		 * scan, or if no format is selected and the caller reads them with getErrorCollection()
+		 */
+		boolean collectErrors = !reporters.isEmpty() || streamingReporters.isEmpty() || incrementalAnalysis != null;
+
 		// Initialize scanner
 		CryptoScanner scanner = new CryptoScanner(ruleset) {
 
@@ -140,6 +208,26 @@ public class HeadlessCryptoScanner {
 				return HeadlessCryptoScanner.this.getTimeout();
 			}
 
+			@Override
+			public int getThreadCount() {
+				return HeadlessCryptoScanner.this.getThreadCount();
+			}
+
+			@Override
+			public boolean isBatchParameterQueries() {
+				return HeadlessCryptoScanner.this.isBatchQueries();
+			}
+
+			@Override
+			public boolean isSeedMethod(Method method) {
+				return incrementalAnalysis == null || incrementalAnalysis.isAnalyzedMethod(method);
+			}
+
+			@Override
+			public boolean isCollectErrors() {
+				return collectErrors;
+			}
+
 			@Override
 			public Debugger<TransitionFunction> debugger(IDEALSeedSolver<TransitionFunction> solver) {
 				if (!isVisualization()) {
@@ -171,19 +259,66 @@ public class HeadlessCryptoScanner {
 			scanner.addErrorListener(errorListener);
 		}
 
+		// The errors of the unaffected seeds are restored after the scan, so they cannot be streamed
+		boolean streamErrors = incrementalAnalysis == null || incrementalAnalysis.isFullAnalysis();
+		if (streamErrors) {
+			for (StreamingReporter streamingReporter : streamingReporters) {
+				scanner.addErrorListener(streamingReporter);
+			}
+		}
+
 		// Run scanner
-		scanner.scan();
+		try {
+			scanner.scan();
+		} finally {
+			if (streamErrors) {
+				streamingReporters.forEach(StreamingReporter::finishReport);
+			}
+		}
 
 		// Report the findings
 		Collection<IAnalysisSeed> discoveredSeeds = scanner.getDiscoveredSeeds();
 		Table<WrappedClass, Method, Set<AbstractError>> errors = scanner.getCollectedErrors();
+		if (incrementalAnalysis != null) {
+			errors = incrementalAnalysis.mergeFindings(errors, ruleset);
+			incrementalAnalysis.writeState(errors);
+		}
 		errorCollection.putAll(errors);
 
+		if (!streamErrors) {
+			for (StreamingReporter streamingReporter : streamingReporters) {
+				for (Set<AbstractError> methodErrors : errors.values()) {
+					methodErrors.forEach(streamingReporter::addError);
+				}
+				streamingReporter.finishReport();
+			}
+		}
+
 		for (Reporter reporter : reporters) {
 			reporter.createAnalysisReport(discoveredSeeds, errors);
 		}
 	}
 	
+	private IncrementalAnalysis createIncrementalAnalysis() {
+		if (getIncrementalStateFile() == null) {
+			return null;
+		}
+
+		// The findings of a previous run are only valid for the same settings
+		List<String> incrementalSettings = new ArrayList<>();
+		incrementalSettings.add(getCallGraphAlgorithm().toString());
+		incrementalSettings.add(getSootClassPath());
+		incrementalSettings.add(String.valueOf(getClassFilterRadius()));
+		incrementalSettings.add(String.valueOf(getTimeout()));
+		incrementalSettings.add(String.valueOf(isBatchQueries()));
+
+		List<String> ignoredSections = new ArrayList<>(getIgnoredSections());
+		Collections.sort(ignoredSections);
+		incrementalSettings.addAll(ignoredSections);
+
+		return new IncrementalAnalysis(getIncrementalStateFile(), getRulesetDirectory(), getSootClassPath(), getApplicationPath(), incrementalSettings);
+	}
+
 	public String toString() {
 		String s = "HeadlessCryptoScanner: \n";
 		s += "\tSoftwareIdentifier: " + getSoftwareIdentifier() + "\n";
@@ -192,7 +327,7 @@ public class HeadlessCryptoScanner {
 		return s;
 	}
 
-	private void initializeSootWithEntryPointAllReachable() throws CryptoAnalysisException {
+	private void initializeSootWithEntryPointAllReachable(Collection<CrySLRule> ruleset) throws CryptoAnalysisException {
 		G.reset();
 		Options.v().set_whole_program(true);
 
@@ -225,25 +360,84 @@ public class HeadlessCryptoScanner {
 		Options.v().setPhaseOption("jb.sils", "enabled:false");
 		// Options.v().setPhaseOption("jb", "use-original-names:true");
 
+		/* If the classes are preloaded, Soot reads the application classes from memory. Module path
+		 * projects are located by Soot's module locator, i.e. their classes are not preloaded
+		 */
+		PreloadedClassProvider classProvider = null;
+		if (isPreloadClasses() && !isModularProject()) {
+			classProvider = PreloadedClassProvider.load(getApplicationPath());
+		}
+
+		/* If the classes are filtered, Soot does not process the application path. Instead, it loads
+		 * only the selected classes as application classes and all other classes from the classpath
+		 */
+		boolean filterClasses = getClassFilterRadius() >= 0;
+		String sootClassPath = getSootClassPath();
+		if (filterClasses && classProvider == null) {
+			sootClassPath = getApplicationPath() + File.pathSeparator + sootClassPath;
+		}
+
 		// JAVA 8
 		if (getJavaVersion() < 9) {
 			Options.v().set_prepend_classpath(true);
-			Options.v().set_soot_classpath(getSootClassPath() + File.pathSeparator + pathToJCE());
+			Options.v().set_soot_classpath(sootClassPath + File.pathSeparator + pathToJCE());
 		}
 		// JAVA VERSION 9 && IS A CLASSPATH PROJECT
 		else if(getJavaVersion() >= 9 && !isModularProject()) {
-			Options.v().set_soot_classpath("VIRTUAL_FS_FOR_JDK" + File.pathSeparator + getSootClassPath());
+			Options.v().set_soot_classpath("VIRTUAL_FS_FOR_JDK" + File.pathSeparator + sootClassPath);
 		}
 		// JAVA VERSION 9 && IS A MODULEPATH PROJECT
 		else if(getJavaVersion() >= 9 && isModularProject()) {
 			Options.v().set_prepend_classpath(true);
-			Options.v().set_soot_modulepath(getSootClassPath());
+			Options.v().set_soot_modulepath(sootClassPath);
+		}
+
+		Collection<String> applicationClasses = null;
+		if (filterClasses) {
+			RuleReferenceFilter filter = new RuleReferenceFilter(ruleset);
+
+			if (classProvider == null) {
+				applicationClasses = filter.computeRelevantClasses(getApplicationPath(), getClassFilterRadius());
+			} else {
+				applicationClasses = filter.computeRelevantClasses(classProvider.getClassFiles().values(), getClassFilterRadius());
+			}
+		} else if (classProvider != null) {
+			applicationClasses = classProvider.getClassNames();
 		}
 
-		Options.v().set_process_dir(Arrays.asList(settings.getApplicationPath().split(File.pathSeparator)));
+		if (applicationClasses == null) {
+			Options.v().set_process_dir(Arrays.asList(settings.getApplicationPath().split(File.pathSeparator)));
+		} else {
+			Options.v().set_process_dir(new ArrayList<>());
+			Options.v().classes().addAll(applicationClasses);
+		}
 		Options.v().set_include(new ArrayList<>());
 		Options.v().set_exclude(new ArrayList<>());
 		Options.v().set_full_resolver(true);
+
+		/* With a library cache, the classes on the classpath and the JDK are located with the cached
+		 * indexes. Module path projects are located by Soot's module locator, i.e. they do not use the cache
+		 */
+		if (getLibraryCacheDirectory() != null && !isModularProject()) {
+			libraryClassCache = LibraryClassCache.create(Scene.v().getSootClassPath(), getApplicationPath(), getLibraryCacheDirectory());
+		}
+
+		if (classProvider != null || libraryClassCache != null) {
+			// The preloaded classes take precedence over the classes on the classpath and the JDK
+			List<ClassProvider> classProviders = Lists.newArrayList();
+			if (classProvider != null) {
+				classProviders.add(classProvider);
+			}
+			if (libraryClassCache != null) {
+				classProviders.add(libraryClassCache);
+			}
+
+			classProviders.add(new AsmClassProvider());
+			if (getJavaVersion() >= 9) {
+				classProviders.add(new AsmJava9ClassProvider());
+			}
+			SourceLocator.v().setClassProviders(classProviders);
+		}
 		Scene.v().loadNecessaryClasses();
 		Scene.v().setEntryPoints(getEntryPoints());
 
@@ -269,6 +463,23 @@ public class HeadlessCryptoScanner {
 		errorListeners.add(errorListener);
 	}
 
+	/**
+	 * Sets rules that have already been read, e.g. by a {@link ScanDaemon} that serves multiple
+	 * scans with the same ruleset. If the rules are set, the ruleset directory is not read.
+	 *
+	 * @param ruleset the rules for the analysis
+	 */
+	public void setRuleset(Collection<CrySLRule> ruleset) {
+		this.ruleset = ruleset;
+	}
+
+	/**
+	 * Returns the errors of the last run. If only streaming formats (e.g. JSONL) are selected, the errors
+	 * are written to the reports while the analysis is running and are not kept, i.e. the collection
+	 * is empty.
+	 *
+	 * @return the errors of the last run
+	 */
 	public Table<WrappedClass, Method, Set<AbstractError>> getErrorCollection() {
 		return errorCollection;
 	}
@@ -313,6 +524,22 @@ public class HeadlessCryptoScanner {
 		return settings.getRulesetPath();
 	}
 
+	public String getRulesetCacheDirectory() {
+		return settings.getRulesetCacheDirectory();
+	}
+
+	public void setRulesetCacheDirectory(String rulesetCacheDirectory) {
+		settings.setRulesetCacheDirectory(rulesetCacheDirectory);
+	}
+
+	public boolean isStreamReports() {
+		return settings.isStreamReports();
+	}
+
+	public void setStreamReports(boolean streamReports) {
+		settings.setStreamReports(streamReports);
+	}
+
 	public boolean isVisualization(){
 		return settings.isVisualization();
 	}
@@ -349,6 +576,62 @@ public class HeadlessCryptoScanner {
 		settings.setTimeout(timeout);
 	}
 
+	public int getThreadCount() {
+		return settings.getThreadCount();
+	}
+
+	public void setThreadCount(int threadCount) {
+		settings.setThreadCount(threadCount);
+	}
+
+	public boolean isCollectMetrics() {
+		return settings.isCollectMetrics();
+	}
+
+	public void setCollectMetrics(boolean collectMetrics) {
+		settings.setCollectMetrics(collectMetrics);
+	}
+
+	public String getIncrementalStateFile() {
+		return settings.getIncrementalStateFile();
+	}
+
+	public void setIncrementalStateFile(String incrementalStateFile) {
+		settings.setIncrementalStateFile(incrementalStateFile);
+	}
+
+	public boolean isPreloadClasses() {
+		return settings.isPreloadClasses();
+	}
+
+	public void setPreloadClasses(boolean preloadClasses) {
+		settings.setPreloadClasses(preloadClasses);
+	}
+
+	public boolean isBatchQueries() {
+		return settings.isBatchQueries();
+	}
+
+	public void setBatchQueries(boolean batchQueries) {
+		settings.setBatchQueries(batchQueries);
+	}
+
+	public String getLibraryCacheDirectory() {
+		return settings.getLibraryCacheDirectory();
+	}
+
+	public void setLibraryCacheDirectory(String libraryCacheDirectory) {
+		settings.setLibraryCacheDirectory(libraryCacheDirectory);
+	}
+
+	public int getClassFilterRadius() {
+		return settings.getClassFilterRadius();
+	}
+
+	public void setClassFilterRadius(int classFilterRadius) {
+		settings.setClassFilterRadius(classFilterRadius);
+	}
+
 	private static String pathToJCE() {
 		// When whole program mode is disabled, the classpath misses jce.jar
 		return System.getProperty("java.home") + File.separator + "lib" + File.separator + "jce.jar";
@@ -0,0 +1,391 @@
+package crypto;
+
+import com.google.common.base.Stopwatch;
+import crypto.analysis.errors.AbstractError;
+import crypto.cryslhandler.RulesetCache;
+import crypto.cryslhandler.RulesetReader;
+import crypto.exceptions.CryptoAnalysisParserException;
+import crypto.reporting.JSONLReporter;
+import crypto.reporting.StreamingReporter;
+import crypto.rules.CrySLRule;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Long-running process that serves scans over a local socket. The daemon keeps the parsed rules
+ * and the JIT-compiled analysis in memory, i.e. each scan only pays for setting up Soot, building
+ * the call graph and analyzing the application.
+ *
+ * <p>When the daemon starts, it writes a random token to a file that only its owner can read. A
+ * client connects to the daemon and sends the token on the first line, followed by the CLI arguments
+ * of the {@link HeadlessCryptoScanner} (e.g. --appPath, --reportFormat and --ignoreSections), one
+ * argument per line, and an empty line. The daemon streams each error as a JSON object on its own
+ * line (see {@link JSONLReporter}) while the scan is running. The last line is a JSON object with the
+ * status of the scan, i.e. {"status":"finished","errors":...,"exitCode":...,"time":...} or
+ * {"status":"failed","message":...}. The request --shutdown stops the daemon.</p>
+ *
+ * <p>Soot's Scene is a global singleton, so the daemon runs one scan at a time. Further clients wait
+ * until the current scan is finished.</p>
+ */
+public class ScanDaemon {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ScanDaemon.class);
+
+	private static final String SHUTDOWN_REQUEST = "--shutdown";
+	private static final int TOKEN_LENGTH = 32;
+
+	private final DaemonSettings settings;
+
+	/* Parsed rules indexed by the hash of their ruleset, such that changed rules are read again. The
+	 * least recently used ruleset is dropped once the daemon holds more than the maximum rulesets */
+	private final Map<String, Collection<CrySLRule>> rulesets;
+
+	private ServerSocket serverSocket;
+	private String token;
+	private volatile boolean running;
+
+	public ScanDaemon(int port, String tokenFile) {
+		this(new DaemonSettings());
+
+		this.settings.port = port;
+		this.settings.tokenFile = tokenFile;
+	}
+
+	private ScanDaemon(DaemonSettings settings) {
+		this.settings = settings;
+		this.rulesets = new LinkedHashMap<String, Collection<CrySLRule>>(16, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Collection<CrySLRule>> eldest) {
+				return size() > settings.maxRulesets;
+			}
+		};
+	}
+
+	public static void main(String[] args) {
+		DaemonSettings settings = new DaemonSettings();
+		try {
+			settings.parseSettingsFromCLI(args);
+		} catch (CryptoAnalysisParserException e) {
+			throw new RuntimeException("Error while parsing the CLI arguments: " + e.getMessage());
+		}
+
+		ScanDaemon daemon = new ScanDaemon(settings);
+		try {
+			daemon.start();
+			daemon.serve();
+		} catch (IOException e) {
+			throw new RuntimeException("Error while running the scan daemon: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Binds the daemon to its port on the loopback interface, writes the token file and reads the
+	 * rulesets that should be available before the first scan.
+	 *
+	 * @throws IOException If the port cannot be bound or the token file cannot be written
+	 */
+	public void start() throws IOException {
+		for (String rulesetPath : settings.rulesetPaths) {
+			getRuleset(rulesetPath);
+		}
+
+		// Only local clients can connect, and only clients of the same user can read the token
+		token = createToken();
+		writeTokenFile(Paths.get(settings.tokenFile), token);
+
+		serverSocket = new ServerSocket(settings.port, 50, InetAddress.getLoopbackAddress());
+		running = true;
+
+		LOGGER.info("Scan daemon listening on port {}, token stored in {}", getPort(), settings.tokenFile);
+	}
+
+	/**
+	 * Serves the scan requests until the daemon receives a shutdown request or is stopped.
+	 */
+	public void serve() {
+		while (running) {
+			try (Socket socket = serverSocket.accept()) {
+				// A client that does not send its request cannot block the daemon
+				socket.setSoTimeout(settings.requestTimeout);
+				handleRequest(socket);
+			} catch (SocketException e) {
+				// The socket is closed when the daemon is stopped
+				if (running) {
+					LOGGER.error("Error while serving a request: {}", e.getMessage());
+				}
+			} catch (IOException e) {
+				LOGGER.error("Error while serving a request: {}", e.getMessage());
+			}
+		}
+		LOGGER.info("Scan daemon stopped");
+	}
+
+	/**
+	 * Stops the daemon. A running scan is finished before the daemon stops.
+	 */
+	public void stop() {
+		running = false;
+
+		try {
+			if (serverSocket != null) {
+				serverSocket.close();
+			}
+		} catch (IOException e) {
+			LOGGER.error("Could not close the socket of the daemon: {}", e.getMessage());
+		}
+
+		try {
+			Files.deleteIfExists(Paths.get(settings.tokenFile));
+		} catch (IOException e) {
+			LOGGER.error("Could not delete the token file of the daemon: {}", e.getMessage());
+		}
+	}
+
+	public int getPort() {
+		return serverSocket == null ? settings.port : serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Sets the time in milliseconds that the daemon waits for a client to send its request.
+	 *
+	 * @param requestTimeout the timeout in milliseconds
+	 */
+	public void setRequestTimeout(int requestTimeout) {
+		settings.requestTimeout = requestTimeout;
+	}
+
+	private void handleRequest(Socket socket) throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+		Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+
+		List<String> arguments = new ArrayList<>();
+		try {
+			String line = reader.readLine();
+			if (line == null || !isValidToken(line)) {
+				LOGGER.warn("Rejected a request without a valid token");
+				writeStatus(writer, new JSONObject().put("status", "failed").put("message", "Invalid token"));
+				return;
+			}
+
+			while ((line = reader.readLine()) != null && !line.isEmpty()) {
+				arguments.add(line);
+			}
+		} catch (SocketTimeoutException e) {
+			LOGGER.warn("Client did not send its request within {} ms", settings.requestTimeout);
+			writeStatus(writer, new JSONObject().put("status", "failed").put("message", "Request timed out"));
+			return;
+		}
+
+		if (arguments.size() == 1 && arguments.get(0).equals(SHUTDOWN_REQUEST)) {
+			writeStatus(writer, new JSONObject().put("status", "stopped"));
+			stop();
+			return;
+		}
+
+		try {
+			scan(arguments.toArray(new String[0]), writer);
+		} catch (Throwable e) {
+			// Errors of a single scan (e.g. a StackOverflowError in Soot) should not stop the daemon
+			LOGGER.error("Scan failed: {}", e.toString());
+			writeStatus(writer, new JSONObject().put("status", "failed").put("message", String.valueOf(e)));
+		}
+	}
+
+	private boolean isValidToken(String line) {
+		return MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), line.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private void scan(String[] arguments, Writer writer) throws CryptoAnalysisParserException, IOException {
+		Stopwatch stopwatch = Stopwatch.createStarted();
+
+		// The exit code is static, i.e. it still holds the value of the previous scan
+		HeadlessCryptoScanner.exitCode = 0;
+
+		HeadlessCryptoScanner scanner = HeadlessCryptoScanner.createFromCLISettings(arguments);
+		Collection<CrySLRule> ruleset = getRuleset(scanner.getRulesetDirectory());
+		scanner.setRuleset(ruleset);
+
+		// The socket stays open after the report is finished, such that the status can be written
+		StreamingReporter reporter = new JSONLReporter(new NonClosingWriter(writer), "client", ruleset);
+
+		// The findings that are restored by an incremental scan are not reported to the listeners
+		boolean streamErrors = scanner.getIncrementalStateFile() == null;
+		if (streamErrors) {
+			scanner.addErrorListener(reporter);
+		}
+
+		try {
+			scanner.run();
+		} finally {
+			if (!streamErrors) {
+				for (Set<AbstractError> methodErrors : scanner.getErrorCollection().values()) {
+					methodErrors.forEach(reporter::addError);
+				}
+			}
+			reporter.finishReport();
+		}
+
+		// The scanner does not keep the errors if the client only requested streaming formats
+		writeStatus(writer, new JSONObject()
+				.put("status", "finished")
+				.put("errors", reporter.getErrorCount())
+				.put("exitCode", HeadlessCryptoScanner.exitCode)
+				.put("time", stopwatch.elapsed().toMillis()));
+	}
+
+	private synchronized Collection<CrySLRule> getRuleset(String rulesetPath) {
+		try {
+			String hash = RulesetReader.bytesToHex(RulesetCache.computeRulesetHash(new File(rulesetPath)));
+
+			Collection<CrySLRule> ruleset = rulesets.get(hash);
+			if (ruleset == null) {
+				LOGGER.info("Reading rules from {}", rulesetPath);
+
+				RulesetReader reader = new RulesetReader(settings.rulesetCacheDirectory);
+				ruleset = reader.readRulesFromPath(rulesetPath);
+				rulesets.put(hash, ruleset);
+			}
+			return ruleset;
+		} catch (IOException e) {
+			throw new RuntimeException("Could not read rules: " + e.getMessage());
+		}
+	}
+
+	private static String createToken() {
+		byte[] bytes = new byte[TOKEN_LENGTH];
+		new SecureRandom().nextBytes(bytes);
+
+		return RulesetReader.bytesToHex(bytes);
+	}
+
+	private static void writeTokenFile(Path tokenFile, String token) throws IOException {
+		Path directory = tokenFile.toAbsolutePath().getParent();
+		if (directory != null) {
+			Files.createDirectories(directory);
+		}
+
+		// The file is created with the restricted permissions, i.e. it is never readable by others
+		Files.deleteIfExists(tokenFile);
+		if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+			Set<PosixFilePermission> permissions = EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE);
+			Files.createFile(tokenFile, PosixFilePermissions.asFileAttribute(permissions));
+		} else {
+			File file = Files.createFile(tokenFile).toFile();
+
+			boolean restricted = file.setReadable(false, false) && file.setReadable(true, true)
+					&& file.setWritable(false, false) && file.setWritable(true, true);
+			if (!restricted) {
+				throw new IOException("Could not restrict the permissions of the token file " + tokenFile);
+			}
+		}
+
+		Files.write(tokenFile, token.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static void writeStatus(Writer writer, JSONObject status) throws IOException {
+		writer.write(status.toString());
+		writer.write("\n");
+		writer.flush();
+	}
+
+	/**
+	 * Writer that flushes instead of closing the underlying writer.
+	 */
+	private static class NonClosingWriter extends FilterWriter {
+
+		private NonClosingWriter(Writer writer) {
+			super(writer);
+		}
+
+		@Override
+		public void close() throws IOException {
+			flush();
+		}
+	}
+
+	@CommandLine.Command(mixinStandardHelpOptions = true)
+	static class DaemonSettings implements Callable<Integer> {
+
+		@CommandLine.Option(
+				names = {"--port"},
+				description = "The port on the loopback interface where the daemon accepts scan requests (default: 4567)")
+		private int port = 4567;
+
+		@CommandLine.Option(
+				names = {"--rulesDir"},
+				description = "The path to a ruleset that is read when the daemon starts. The option can be repeated. "
+						+ "Rulesets that are requested by a scan are read on demand and kept as well")
+		private List<String> rulesetPaths = new ArrayList<>();
+
+		@CommandLine.Option(
+				names = {"--rulesCacheDir"},
+				description = "The path to a directory where the parsed rules are stored")
+		private String rulesetCacheDirectory = null;
+
+		@CommandLine.Option(
+				names = {"--maxRulesets"},
+				description = "The maximum number of rulesets that the daemon keeps in memory. The least recently "
+						+ "used ruleset is dropped first (default: 4)")
+		private int maxRulesets = 4;
+
+		@CommandLine.Option(
+				names = {"--tokenFile"},
+				description = "The file where the daemon stores the token that clients have to send with each request. "
+						+ "Only the owner can read the file (default: ~/.cryptoanalysis/daemon.token)")
+		private String tokenFile = Paths.get(System.getProperty("user.home"), ".cryptoanalysis", "daemon.token").toString();
+
+		@CommandLine.Option(
+				names = {"--requestTimeout"},
+				description = "The time in milliseconds that the daemon waits for a client to send its request (default: 30000)")
+		private int requestTimeout = 30000;
+
+		private void parseSettingsFromCLI(String[] settings) throws CryptoAnalysisParserException {
+			CommandLine parser = new CommandLine(this);
+			parser.setOptionsCaseInsensitive(true);
+			int exitCode = parser.execute(settings);
+
+			if (exitCode != CommandLine.ExitCode.OK) {
+				throw new CryptoAnalysisParserException("Error while parsing the CLI arguments");
+			}
+		}
+
+		@Override
+		public Integer call() {
+			return CommandLine.ExitCode.OK;
+		}
+	}
+}
@@ -13,6 +13,46 @@ public class AnalysisPrinter implements IAnalysisListener {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AnalysisPrinter.class);
 
+    @Override
+    public void beforeSootSetup() {
+        LOGGER.debug("Setting up Soot");
+    }
+
+    @Override
+    public void afterSootSetup() {
+        LOGGER.debug("Soot setup finished");
+    }
+
+    @Override
+    public void beforeCallGraphConstruction() {
+        LOGGER.debug("Constructing call graph");
+    }
+
+    @Override
+    public void afterCallGraphConstruction() {
+        LOGGER.debug("Call graph construction finished");
+    }
+
+    @Override
+    public void beforeReadingRuleset() {
+        LOGGER.debug("Reading ruleset");
+    }
+
+    @Override
+    public void afterReadingRuleset() {
+        LOGGER.debug("Finished reading ruleset");
+    }
+
+    @Override
+    public void beforePreTransformation() {
+        LOGGER.debug("Applying pre-transformers");
+    }
+
+    @Override
+    public void afterPreTransformation() {
+        LOGGER.debug("Pre-transformers applied");
+    }
+
     @Override
     public void beforeAnalysis() {
         LOGGER.debug("Starting Scan...");
@@ -48,6 +88,11 @@ public class AnalysisPrinter implements IAnalysisListener {
         LOGGER.debug("Finished analyzing {}", analysisSeed);
     }
 
+    @Override
+    public void onTypestateAnalysisFinished(IAnalysisSeed analysisSeed, long durationInNanos) {
+        LOGGER.debug("Typestate analysis for {} took {} ms", analysisSeed, durationInNanos / 1_000_000);
+    }
+
     @Override
     public void onTypestateAnalysisTimeout(IAnalysisSeed analysisSeed) {
         LOGGER.warn("Seed {} timed out while typestate analysis. Consider increasing the timeout with '--timeout' or 'setTimeout'", analysisSeed);
@@ -58,6 +103,16 @@ public class AnalysisPrinter implements IAnalysisListener {
         LOGGER.warn("Seed {} timed out while extracting parameter {} @ {}. Consider increasing the timeout with '--timeout' or 'setTimeout'", analysisSeed, param, statement);
     }
 
+    @Override
+    public void beforeExtractParameterAnalysis(IAnalysisSeed analysisSeed) {
+        LOGGER.debug("Starting extract parameter analysis for {}", analysisSeed);
+    }
+
+    @Override
+    public void afterExtractParameterAnalysis(IAnalysisSeed analysisSeed) {
+        LOGGER.debug("Finished extract parameter analysis for {}", analysisSeed);
+    }
+
     @Override
     public void beforeConstraintsCheck(IAnalysisSeed analysisSeed) {
         LOGGER.debug("Starting constraints check for {}", analysisSeed);
@@ -31,6 +31,10 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
+/**
+ * Forwards the analysis events to the registered listeners. The listeners are notified one at a time,
+ * even if the seeds are analyzed in parallel.
+ */
 public class AnalysisReporter {
 
     private final Collection<IAnalysisListener> analysisListeners;
@@ -43,127 +47,145 @@ public class AnalysisReporter {
         resultsListeners = new HashSet<>();
     }
 
-    public void addAnalysisListener(IAnalysisListener analysisListener) {
+    public synchronized void addAnalysisListener(IAnalysisListener analysisListener) {
         analysisListeners.add(analysisListener);
     }
 
-    public void addErrorListener(IErrorListener errorListener) {
+    public synchronized void addErrorListener(IErrorListener errorListener) {
         errorListeners.add(errorListener);
     }
 
-    public void addResultsListener(IResultsListener resultsListener) {
+    public synchronized void addResultsListener(IResultsListener resultsListener) {
         resultsListeners.add(resultsListener);
     }
 
-    public void beforeAnalysis() {
+    public synchronized void beforeAnalysis() {
         for (IAnalysisListener analysisListener : analysisListeners) {
             analysisListener.beforeAnalysis();
         }
     }
 
-    public void afterAnalysis() {
+    public synchronized void afterAnalysis() {
         for (IAnalysisListener analysisListener : analysisListeners) {
             analysisListener.afterAnalysis();
         }
     }
 
-    public void beforeTypestateAnalysis() {
+    public synchronized void beforeTypestateAnalysis() {
         for (IAnalysisListener analysisListener : analysisListeners) {
             analysisListener.beforeTypestateAnalysis();
         }
     }
 
-    public void afterTypestateAnalysis() {
+    public synchronized void afterTypestateAnalysis() {
         for (IAnalysisListener analysisListener : analysisListeners) {
             analysisListener.afterTypestateAnalysis();
         }
     }
 
-    public void onDiscoveredSeeds(Collection<IAnalysisSeed> discoveredSeeds) {
+    public synchronized void onDiscoveredSeeds(Collection<IAnalysisSeed> discoveredSeeds) {
         for (IAnalysisListener analysisListener : analysisListeners) {
             analysisListener.onDiscoveredSeeds(discoveredSeeds);
         }
     }
 
-    public void onSeedStarted(IAnalysisSeed analysisSeed) {
+    public synchronized void onSeedStarted(IAnalysisSeed analysisSeed) {
         for (IAnalysisListener analysisListener : analysisListeners) {
             analysisListener.onSeedStarted(analysisSeed);
         }
     }
 
-    public void onSeedFinished(IAnalysisSeed analysisSeed) {
+    public synchronized void onSeedFinished(IAnalysisSeed analysisSeed) {
         for (IAnalysisListener analysisListener : analysisListeners) {
             analysisListener.onSeedFinished(analysisSeed);
         }
     }
 
-    public void onTypestateAnalysisTimeout(IAnalysisSeed analysisSeed) {
+    public synchronized void onTypestateAnalysisFinished(IAnalysisSeed analysisSeed, long durationInNanos) {
+        for (IAnalysisListener analysisListener : analysisListeners) {
+            analysisListener.onTypestateAnalysisFinished(analysisSeed, durationInNanos);
+        }
+    }
+
+    public synchronized void onTypestateAnalysisTimeout(IAnalysisSeed analysisSeed) {
         for (IAnalysisListener analysisListener : analysisListeners) {
             analysisListener.onTypestateAnalysisTimeout(analysisSeed);
         }
     }
 
-    public void onExtractParameterAnalysisTimeout(IAnalysisSeed analysisSeed, Val parameter, Statement statement) {
+    public synchronized void onExtractParameterAnalysisTimeout(IAnalysisSeed analysisSeed, Val parameter, Statement statement) {
         for (IAnalysisListener analysisListener : analysisListeners) {
             analysisListener.onExtractParameterAnalysisTimeout(analysisSeed, parameter, statement);
         }
     }
 
-    public void beforeConstraintsCheck(IAnalysisSeed analysisSeed) {
+    public synchronized void beforeExtractParameterAnalysis(IAnalysisSeed analysisSeed) {
+        for (IAnalysisListener analysisListener : analysisListeners) {
+            analysisListener.beforeExtractParameterAnalysis(analysisSeed);
+        }
+    }
+
+    public synchronized void afterExtractParameterAnalysis(IAnalysisSeed analysisSeed) {
+        for (IAnalysisListener analysisListener : analysisListeners) {
+            analysisListener.afterExtractParameterAnalysis(analysisSeed);
+        }
+    }
+
+    public synchronized void beforeConstraintsCheck(IAnalysisSeed analysisSeed) {
         for (IAnalysisListener analysisListener : analysisListeners) {
             analysisListener.beforeConstraintsCheck(analysisSeed);
         }
     }
 
-    public void afterConstraintsCheck(IAnalysisSeed analysisSeed, int violatedConstraints) {
+    public synchronized void afterConstraintsCheck(IAnalysisSeed analysisSeed, int violatedConstraints) {
         for (IAnalysisListener analysisListener : analysisListeners) {
             analysisListener.afterConstraintsCheck(analysisSeed, violatedConstraints);
         }
     }
 
-    public void beforePredicateCheck() {
+    public synchronized void beforePredicateCheck() {
         for (IAnalysisListener analysisListener : analysisListeners) {
             analysisListener.beforePredicateCheck();
         }
     }
 
-    public void afterPredicateCheck() {
+    public synchronized void afterPredicateCheck() {
         for (IAnalysisListener analysisListener : analysisListeners) {
             analysisListener.afterPredicateCheck();
         }
     }
 
-    public void addProgress(int current, int total) {
+    public synchronized void addProgress(int current, int total) {
         for (IAnalysisListener analysisListener : analysisListeners) {
             analysisListener.addProgress(current, total);
         }
     }
 
-    public void typestateAnalysisResults(IAnalysisSeed seed, ForwardBoomerangResults<TransitionFunction> results) {
+    public synchronized void typestateAnalysisResults(IAnalysisSeed seed, ForwardBoomerangResults<TransitionFunction> results) {
         for (IResultsListener resultsListener : resultsListeners) {
             resultsListener.typestateAnalysisResults(seed, results);
         }
     }
 
-    public void collectedValues(IAnalysisSeed seed, Multimap<CallSiteWithParamIndex, ExtractedValue> collectedValues) {
+    public synchronized void collectedValues(IAnalysisSeed seed, Multimap<CallSiteWithParamIndex, ExtractedValue> collectedValues) {
         for (IResultsListener resultsListener : resultsListeners) {
             resultsListener.collectedValues(seed, collectedValues);
         }
     }
 
-    public void checkedConstraints(IAnalysisSeed seed, Collection<ISLConstraint> constraints) {
+    public synchronized void checkedConstraints(IAnalysisSeed seed, Collection<ISLConstraint> constraints) {
         for (IResultsListener resultsListener : resultsListeners) {
             resultsListener.checkedConstraints(seed, constraints);
         }
     }
 
-    public void ensuredPredicates(Table<Statement, Val, Set<EnsuredCrySLPredicate>> existingPredicates) {
+    public synchronized void ensuredPredicates(Table<Statement, Val, Set<EnsuredCrySLPredicate>> existingPredicates) {
         for (IResultsListener resultsListener : resultsListeners) {
             resultsListener.ensuredPredicates(existingPredicates);
         }
     }
 
-    public void reportError(IAnalysisSeed seed, AbstractError error) {
+    public synchronized void reportError(IAnalysisSeed seed, AbstractError error) {
         seed.setSecure(false);
 
         for (IAnalysisListener analysisListener : analysisListeners) {
@@ -1,12 +1,12 @@
 package crypto.analysis;
 
 import boomerang.results.ForwardBoomerangResults;
-import boomerang.scene.ControlFlowGraph;
 import boomerang.scene.Statement;
 import boomerang.scene.Val;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Table.Cell;
 import typestate.TransitionFunction;
+import typestate.finiteautomata.State;
 
 import java.util.Collection;
 
@@ -29,11 +29,14 @@ public class AnalysisSeedWithEnsuredPredicate extends IAnalysisSeed {
 		}
 		scanner.getAnalysisReporter().onSeedStarted(this);
 
-		for (EnsuredCrySLPredicate pred : ensuredPredicates) {
-			ensurePredicates(pred);
+		synchronized (predicateHandler) {
+			for (EnsuredCrySLPredicate pred : ensuredPredicates) {
+				ensurePredicates(pred);
+			}
 		}
 
 		scanner.getAnalysisReporter().onSeedFinished(this);
+		releaseAnalysisResults();
 	}
 
 	public void addEnsuredPredicate(EnsuredCrySLPredicate pred) {
@@ -43,8 +46,8 @@ public class AnalysisSeedWithEnsuredPredicate extends IAnalysisSeed {
 	}
 
 	private void ensurePredicates(EnsuredCrySLPredicate pred) {
-		for (Cell<ControlFlowGraph.Edge, Val, TransitionFunction> c : analysisResults.asStatementValWeightTable().cellSet()) {
-			predicateHandler.addNewPred(this, c.getRowKey().getStart(), c.getColumnKey(), pred);
+		for (Cell<Statement, Val, Collection<State>> c : getStatesAtStatements().cellSet()) {
+			predicateHandler.addNewPred(this, c.getRowKey(), c.getColumnKey(), pred);
 		}
 	}
 
@@ -30,8 +30,10 @@ import crypto.rules.CrySLPredicate;
 import crypto.rules.CrySLRule;
 import crypto.rules.ICrySLPredicateParameter;
 import crypto.rules.ISLConstraint;
+import crypto.rules.StateMachineGraph;
 import crypto.rules.StateNode;
 import crypto.rules.TransitionEdge;
+import crypto.typestate.MatcherTransitionCollection;
 import crypto.typestate.ReportingErrorStateNode;
 import crypto.typestate.WrappedState;
 import crypto.utils.MatcherUtils;
@@ -57,6 +59,7 @@ public class AnalysisSeedWithSpecification extends IAnalysisSeed {
 	private ExtractParameterAnalysis parameterAnalysis;
 	private ConstraintSolver constraintSolver;
 	private boolean internalConstraintsSatisfied;
+	private boolean readyForPredicateChecks;
 
 	private final Multimap<Statement, State> typeStateChange = HashMultimap.create();
 	private Map<ControlFlowGraph.Edge, DeclaredMethod> allCallsOnObject;
@@ -65,7 +68,14 @@ public class AnalysisSeedWithSpecification extends IAnalysisSeed {
 	private final Collection<EnsuredCrySLPredicate> indirectlyEnsuredPredicates = Sets.newHashSet();
 	private final Collection<HiddenPredicate> hiddenPredicates = Sets.newHashSet();
 
-	private final Collection<ResultsHandler> resultHandlers = Sets.newHashSet();
+	/* Memoized results of the REQUIRES section and the predicate conditions. The conditions only depend
+	 * on the collected values, the missing predicates are computed again once the ensured predicates change
+	 */
+	private final Map<CrySLPredicate, Boolean> predConditionResults = new HashMap<>();
+	private Collection<ISLConstraint> requiredPredicates;
+	private Collection<ISLConstraint> missingPredicates;
+	private boolean predicatesEnsured;
+	private boolean predicatesEnsuredWithSatisfiedConstraints;
 
 	public AnalysisSeedWithSpecification(CryptoScanner scanner, Statement statement, Val fact, ForwardBoomerangResults<TransitionFunction> results, CrySLRule specification) {
 		super(scanner, statement, fact, results);
@@ -90,7 +100,6 @@ public class AnalysisSeedWithSpecification extends IAnalysisSeed {
 		scanner.getAnalysisReporter().onSeedStarted(this);
 
 		this.allCallsOnObject = analysisResults.getInvokedMethodOnInstance();
-		notifyResultsHandler();
 		runExtractParameterAnalysis();
 
 		// Check the CONSTRAINTS section
@@ -103,25 +112,19 @@ public class AnalysisSeedWithSpecification extends IAnalysisSeed {
 		evaluateTypestateOrder();
 		evaluateIncompleteOperations();
 
-		// Check the REQUIRES section and ensure predicates in ENSURES section
-		activateIndirectlyEnsuredPredicates();
-		checkConstraintsAndEnsurePredicates();
-
-		scanner.getAnalysisReporter().onSeedFinished(this);
-	}
+		/* Predicates are exchanged between seeds. Hence, the REQUIRES and ENSURES sections are
+		 * evaluated while holding the predicate handler's monitor, even if the seeds run in parallel
+		 */
+		synchronized (predicateHandler) {
+			this.readyForPredicateChecks = true;
 
-	public void registerResultsHandler(ResultsHandler handler) {
-		if (analysisResults != null) {
-			handler.done(analysisResults);
-		} else {
-			resultHandlers.add(handler);
+			// Check the REQUIRES section and ensure predicates in ENSURES section
+			activateIndirectlyEnsuredPredicates();
+			checkConstraintsAndEnsurePredicates();
 		}
-	}
 
-	private void notifyResultsHandler() {
-		for (ResultsHandler handler : Lists.newArrayList(resultHandlers)) {
-			handler.done(analysisResults);
-		}
+		scanner.getAnalysisReporter().onSeedFinished(this);
+		releaseAnalysisResults();
 	}
 
 	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
@@ -130,8 +133,10 @@ public class AnalysisSeedWithSpecification extends IAnalysisSeed {
 
 
 	private void runExtractParameterAnalysis() {
+		scanner.getAnalysisReporter().beforeExtractParameterAnalysis(this);
 		this.parameterAnalysis = new ExtractParameterAnalysis(this);
 		this.parameterAnalysis.run();
+		scanner.getAnalysisReporter().afterExtractParameterAnalysis(this);
 		scanner.getAnalysisReporter().collectedValues(this, parameterAnalysis.getCollectedValues());
 	}
 
@@ -215,6 +220,8 @@ public class AnalysisSeedWithSpecification extends IAnalysisSeed {
 		Table<ControlFlowGraph.Edge, Val, TransitionFunction> endPathOfPropagation = analysisResults.getObjectDestructingStatements();
 		Map<ControlFlowGraph.Edge, Collection<CrySLMethod>> incompleteOperations = new HashMap<>();
 
+		MatcherTransitionCollection automaton = scanner.getRuleTransitions(specification).getMatcherTransitions();
+
 		for (Table.Cell<ControlFlowGraph.Edge, Val, TransitionFunction> c : endPathOfPropagation.cellSet()) {
 			Collection<CrySLMethod> expectedMethodsToBeCalled = new HashSet<>();
 
@@ -232,12 +239,7 @@ public class AnalysisSeedWithSpecification extends IAnalysisSeed {
 				}
 
 				WrappedState wrappedState = (WrappedState) n.to();
-				for (TransitionEdge t : specification.getUsagePattern().getAllTransitions()) {
-					if (t.getLeft().equals(wrappedState.delegate()) && !t.from().equals(t.to())) {
-						Collection<CrySLMethod> labels = t.getLabel();
-						expectedMethodsToBeCalled.addAll(labels);
-					}
-				}
+				expectedMethodsToBeCalled.addAll(automaton.getExpectedMethods(wrappedState));
 			}
 
 			if (!expectedMethodsToBeCalled.isEmpty()) {
@@ -299,17 +301,16 @@ public class AnalysisSeedWithSpecification extends IAnalysisSeed {
 	}
 
 	private boolean isMethodToAcceptingState(DeclaredMethod method) {
-		Collection<TransitionEdge> transitions = specification.getUsagePattern().getAllTransitions();
-
-		for (TransitionEdge edge : transitions) {
-            if (edge.getLabel().stream().noneMatch(e -> MatcherUtils.matchCryslMethodAndDeclaredMethod(e, method))) {
-                continue;
-            }
+		StateMachineGraph usagePattern = specification.getUsagePattern();
 
-            if (edge.to().getAccepting()) {
-                return true;
-            }
-        }
+		// Only the edges that end in an accepting state are relevant
+		for (StateNode acceptingState : usagePattern.getAcceptingStates()) {
+			for (TransitionEdge edge : usagePattern.getAllIncomingEdges(acceptingState)) {
+				if (edge.getLabel().stream().anyMatch(e -> MatcherUtils.matchCryslMethodAndDeclaredMethod(e, method))) {
+					return true;
+				}
+			}
+		}
 
 		return false;
 	}
@@ -334,13 +335,31 @@ public class AnalysisSeedWithSpecification extends IAnalysisSeed {
 
 		// If the predicate was not ensured before, ensure it and check the constraints
 		if (ensuredPredicates.add(ensPred)) {
+			missingPredicates = null;
 			checkConstraintsAndEnsurePredicates();
 		}
 	}
 
 	private void checkConstraintsAndEnsurePredicates() {
+		/* Predicates from other seeds may arrive before this seed has been executed. They are stored
+		 * and evaluated once the typestate and constraint results are available
+		 */
+		if (!readyForPredicateChecks) {
+			return;
+		}
+
 		boolean satisfiesConstraintSystem = isConstraintSystemSatisfied();
 
+		/* The ensured predicates only depend on the result of the constraint system (the typestate changes,
+		 * collected values and conditions do not change anymore). If the result did not change, the same
+		 * predicates have already been ensured
+		 */
+		if (predicatesEnsured && predicatesEnsuredWithSatisfiedConstraints == satisfiesConstraintSystem) {
+			return;
+		}
+		predicatesEnsured = true;
+		predicatesEnsuredWithSatisfiedConstraints = satisfiesConstraintSystem;
+
 		for (CrySLPredicate predToBeEnsured : specification.getPredicates()) {
 			boolean isPredicateGeneratingStateAvailable = false;
 			for (Map.Entry<Statement, State> entry : typeStateChange.entries()) {
@@ -458,17 +477,13 @@ public class AnalysisSeedWithSpecification extends IAnalysisSeed {
 	private void expectPredicateWhenThisObjectIsInState(EnsuredCrySLPredicate ensuredPred, State stateNode, Statement statement) {
 		predicateHandler.expectPredicate(this, statement, ensuredPred.getPredicate());
 
-		for (Table.Cell<ControlFlowGraph.Edge, Val, TransitionFunction> e : analysisResults.asStatementValWeightTable().cellSet()) {
-			if (containsTargetState(e.getValue(), stateNode)) {
-				predicateHandler.addNewPred(this, e.getRowKey().getStart(), e.getColumnKey(), ensuredPred);
+		for (Table.Cell<Statement, Val, Collection<State>> e : getStatesAtStatements().cellSet()) {
+			if (e.getValue().contains(stateNode)) {
+				predicateHandler.addNewPred(this, e.getRowKey(), e.getColumnKey(), ensuredPred);
 			}
 		}
 	}
 
-	private boolean containsTargetState(TransitionFunction value, State stateNode) {
-		return getTargetStates(value).contains(stateNode);
-	}
-
 	private Collection<? extends State> getTargetStates(TransitionFunction value) {
 		Collection<State> res = Sets.newHashSet();
 		for (ITransition t : value.values()) {
@@ -528,10 +543,6 @@ public class AnalysisSeedWithSpecification extends IAnalysisSeed {
 
 	private void addEnsuredPredicateFromOtherRule(EnsuredCrySLPredicate ensuredCrySLPredicate) {
 		indirectlyEnsuredPredicates.add(ensuredCrySLPredicate);
-		if (analysisResults == null) {
-			return;
-		}
-
 		activateIndirectlyEnsuredPredicates();
 	}
 
@@ -570,15 +581,13 @@ public class AnalysisSeedWithSpecification extends IAnalysisSeed {
 			 * and ensure it in all accepting states that do not negate it
 			 */
 			addEnsuredPredicate(predWithThis);
-			for (Table.Cell<ControlFlowGraph.Edge, Val, TransitionFunction> c : analysisResults.asStatementValWeightTable().cellSet()) {
-				Collection<? extends State> states = getTargetStates(c.getValue());
-
-				for (State state : states) {
+			for (Table.Cell<Statement, Val, Collection<State>> c : getStatesAtStatements().cellSet()) {
+				for (State state : c.getValue()) {
 					if (isPredicateNegatingState(predWithThis.getPredicate(), state)) {
 						continue;
 					}
 
-					Statement statement = c.getRowKey().getStart();
+					Statement statement = c.getRowKey();
 					Val val = c.getColumnKey();
 					if (state.isAccepting()) {
 						predicateHandler.addNewPred(this, statement, val, predWithThis);
@@ -678,6 +687,9 @@ public class AnalysisSeedWithSpecification extends IAnalysisSeed {
 		scanner.getAnalysisReporter().beforeConstraintsCheck(this);
 
 		constraintSolver = new ConstraintSolver(this, allCallsOnObject.keySet(), scanner.getAnalysisReporter());
+		predConditionResults.clear();
+		requiredPredicates = null;
+		missingPredicates = null;
 		int violatedConstraints = constraintSolver.evaluateRelConstraints();
 
 		scanner.getAnalysisReporter().checkedConstraints(this, constraintSolver.getRelConstraints());
@@ -701,18 +713,35 @@ public class AnalysisSeedWithSpecification extends IAnalysisSeed {
 
 	/**
 	 * Check, whether all required predicates are satisfied, and return a set with all predicates that are not
-	 * satisfied. If the set is empty, all required predicate constraints are satisfied.
+	 * satisfied. If the set is empty, all required predicate constraints are satisfied. The result is
+	 * memoized until the ensured predicates of this seed change.
 	 *
 	 * @return remainingPredicates predicates that are not satisfied
 	 */
 	public Collection<ISLConstraint> checkPredicates() {
-		Collection<ISLConstraint> requiredPredicates = Lists.newArrayList();
+		if (missingPredicates == null) {
+			missingPredicates = Collections.unmodifiableCollection(computeMissingPredicates());
+		}
+		return missingPredicates;
+	}
+
+	private Collection<ISLConstraint> getRequiredPredicates() {
+		if (requiredPredicates != null) {
+			return requiredPredicates;
+		}
+
+		requiredPredicates = Lists.newArrayList();
 		for (ISLConstraint con : constraintSolver.getRequiredPredicates()) {
 			if (!ConstraintSolver.predefinedPreds.contains((con instanceof RequiredCrySLPredicate) ? ((RequiredCrySLPredicate) con).getPred().getPredName()
 					: ((AlternativeReqPredicate) con).getAlternatives().get(0).getPredName())) {
 				requiredPredicates.add(con);
 			}
 		}
+		return requiredPredicates;
+	}
+
+	private Collection<ISLConstraint> computeMissingPredicates() {
+		Collection<ISLConstraint> requiredPredicates = getRequiredPredicates();
 		Collection<ISLConstraint> remainingPredicates = Sets.newHashSet(requiredPredicates);
 
 		for (ISLConstraint pred : requiredPredicates) {
@@ -772,7 +801,7 @@ public class AnalysisSeedWithSpecification extends IAnalysisSeed {
 				}
 			} else if (rem instanceof AlternativeReqPredicate) {
 				Collection<CrySLPredicate> altPred = ((AlternativeReqPredicate) rem).getAlternatives();
-				if (altPred.parallelStream().anyMatch(this::isPredConditionSatisfied)) {
+				if (altPred.stream().anyMatch(this::isPredConditionSatisfied)) {
 					remainingPredicates.remove(rem);
 				}
 			}
@@ -781,17 +810,25 @@ public class AnalysisSeedWithSpecification extends IAnalysisSeed {
 	}
 
 	/**
-	 * Check for a predicate A =&gt; B, whether the condition A of B is satisfied
+	 * Check for a predicate A =&gt; B, whether the condition A of B is satisfied. The condition only
+	 * depends on the collected values, so it is evaluated once per predicate.
 	 *
 	 * @param pred the predicate to be checked
 	 * @return true if the condition is satisfied
 	 */
 	private boolean isPredConditionSatisfied(CrySLPredicate pred) {
-		return pred.getConstraint().map(conditional -> {
+		Boolean result = predConditionResults.get(pred);
+		if (result != null) {
+			return result;
+		}
+
+		result = pred.getConstraint().map(conditional -> {
 			EvaluableConstraint evalCons = EvaluableConstraint.getInstance(conditional, constraintSolver);
 			evalCons.evaluate();
 			return evalCons.hasErrors();
 		}).orElse(false);
+		predConditionResults.put(pred, result);
+		return result;
 	}
 
 	public Collection<AbstractError> retrieveErrorsForPredCondition(CrySLPredicate pred) {
@@ -926,10 +963,26 @@ public class AnalysisSeedWithSpecification extends IAnalysisSeed {
 		return parameterAnalysis;
 	}
 
+	/**
+	 * Returns the calls on the seed's object. The calls are only required to execute the seed, i.e.
+	 * they are released with the typestate results once the seed has been executed.
+	 *
+	 * @return the calls on the object or null, if the seed has not been executed yet or has finished
+	 */
 	public Map<ControlFlowGraph.Edge, DeclaredMethod> getAllCallsOnObject() {
 		return allCallsOnObject;
 	}
 
+	@Override
+	protected synchronized void releaseAnalysisResults() {
+		super.releaseAnalysisResults();
+
+		allCallsOnObject = null;
+		if (parameterAnalysis != null) {
+			parameterAnalysis.releaseQueries();
+		}
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
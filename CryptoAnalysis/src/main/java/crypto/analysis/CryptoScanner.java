@@ -1,16 +1,23 @@
 package crypto.analysis;
 
+import boomerang.BackwardQuery;
 import boomerang.debugger.Debugger;
 import boomerang.scene.CallGraph;
 import boomerang.scene.DataFlowScope;
 import boomerang.scene.Method;
 import boomerang.scene.WrappedClass;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Multimap;
 import com.google.common.collect.Table;
 import crypto.analysis.errors.AbstractError;
+import crypto.constraints.ArrayContentsCache;
+import crypto.extractparameter.AllocationSiteCache;
+import crypto.extractparameter.ExtractParameterAnalysis;
 import crypto.listener.IAnalysisListener;
 import crypto.listener.IErrorListener;
 import crypto.listener.IResultsListener;
 import crypto.rules.CrySLRule;
+import crypto.typestate.RuleTransitions;
 import ideal.IDEALSeedSolver;
 import typestate.TransitionFunction;
 
@@ -22,15 +29,24 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class CryptoScanner {
 
 	private final AnalysisReporter analysisReporter;
 	private final ErrorCollector errorCollector;
 	private final Collection<CrySLRule> ruleset;
+	private final Map<String, RuleTransitions> ruleTransitions;
 	private final DataFlowScope dataFlowScope;
-	private final Map<IAnalysisSeed, IAnalysisSeed> discoveredSeeds = new HashMap<>();
+	private final Map<IAnalysisSeed, IAnalysisSeed> discoveredSeeds = new ConcurrentHashMap<>();
 	private final PredicateHandler predicateHandler = new PredicateHandler(this);
+	private final AllocationSiteCache allocationSiteCache = new AllocationSiteCache(this);
+	private final ArrayContentsCache arrayContentsCache = new ArrayContentsCache(this);
 
 	public CryptoScanner(Collection<CrySLRule> rules) {
 		analysisReporter = new AnalysisReporter();
@@ -39,16 +55,24 @@ public abstract class CryptoScanner {
 		addAnalysisListener(analysisPrinter);
 
 		errorCollector = new ErrorCollector();
-		addErrorListener(errorCollector);
 
 		ruleset = new HashSet<>(rules);
+		ruleTransitions = new HashMap<>();
+		for (CrySLRule rule : ruleset) {
+			ruleTransitions.put(rule.getClassName(), RuleTransitions.of(rule));
+		}
+
 		dataFlowScope = new CryptoAnalysisDataFlowScope(rules, getIgnoredSections());
 	}
 
 	public void scan() {
+		if (isCollectErrors()) {
+			addErrorListener(errorCollector);
+		}
+
 		this.getAnalysisReporter().beforeAnalysis();
 
-		SeedGenerator generator = new SeedGenerator(this, ruleset);
+		SeedGenerator generator = new SeedGenerator(this, ruleTransitions.values());
 		List<IAnalysisSeed> seeds = new ArrayList<>(generator.computeSeeds());
 		this.getAnalysisReporter().onDiscoveredSeeds(seeds);
 
@@ -56,10 +80,18 @@ public abstract class CryptoScanner {
 			discoveredSeeds.put(seed, seed);
 		}
 
+		if (isBatchParameterQueries()) {
+			solveParameterQueries(seeds);
+		}
+
 		this.getAnalysisReporter().addProgress(0, seeds.size());
-		for (int i = 0; i < seeds.size(); i++) {
-			seeds.get(i).execute();
-			this.getAnalysisReporter().addProgress(i + 1, seeds.size());
+		if (getThreadCount() > 1) {
+			executeSeedsInParallel(seeds);
+		} else {
+			for (int i = 0; i < seeds.size(); i++) {
+				seeds.get(i).execute();
+				this.getAnalysisReporter().addProgress(i + 1, seeds.size());
+			}
 		}
 
 		this.getAnalysisReporter().beforePredicateCheck();
@@ -67,6 +99,70 @@ public abstract class CryptoScanner {
 		this.getAnalysisReporter().afterPredicateCheck();
 
 		this.getAnalysisReporter().afterAnalysis();
+
+		// The cached results refer to the call graph of this scan
+		allocationSiteCache.clear();
+		arrayContentsCache.clear();
+	}
+
+	/**
+	 * Execute the seeds on a work-stealing pool with {@link #getThreadCount()} workers. The seeds
+	 * propagate their predicates while holding the monitor of the {@link PredicateHandler}, so the
+	 * cross-seed predicate propagation is serialized and ends in the same state as a sequential run.
+	 *
+	 * @param seeds the seeds to execute
+	 */
+	private void executeSeedsInParallel(List<IAnalysisSeed> seeds) {
+		AtomicInteger finishedSeeds = new AtomicInteger(0);
+		Collection<Callable<Void>> tasks = new ArrayList<>();
+
+		for (IAnalysisSeed seed : seeds) {
+			tasks.add(() -> {
+				seed.execute();
+				this.getAnalysisReporter().addProgress(finishedSeeds.incrementAndGet(), seeds.size());
+				return null;
+			});
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(getThreadCount());
+		try {
+			for (Future<Void> future : pool.invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while analyzing the seeds: " + e.getMessage());
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Error while analyzing the seeds: " + e.getCause().getMessage(), e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Collect the parameter queries of all seeds with specification and solve the queries from the same
+	 * method together (see {@link AllocationSiteCache#solveBatch(Method, Collection)}). When the seeds are
+	 * executed, their extract parameter analyses take the results from the {@link AllocationSiteCache}.
+	 *
+	 * @param seeds the discovered seeds
+	 */
+	private void solveParameterQueries(Collection<IAnalysisSeed> seeds) {
+		Multimap<Method, BackwardQuery> queriesPerMethod = LinkedHashMultimap.create();
+
+		for (IAnalysisSeed seed : seeds) {
+			if (!(seed instanceof AnalysisSeedWithSpecification) || seed.getAnalysisResults() == null) {
+				continue;
+			}
+
+			ExtractParameterAnalysis parameterAnalysis = new ExtractParameterAnalysis((AnalysisSeedWithSpecification) seed);
+			for (BackwardQuery query : parameterAnalysis.getQueries(seed.getAnalysisResults().getInvokedMethodOnInstance())) {
+				queriesPerMethod.put(query.cfgEdge().getStart().getMethod(), query);
+			}
+		}
+
+		for (Map.Entry<Method, Collection<BackwardQuery>> entry : queriesPerMethod.asMap().entrySet()) {
+			allocationSiteCache.solveBatch(entry.getKey(), entry.getValue());
+		}
 	}
 
 	public abstract CallGraph callGraph();
@@ -103,6 +199,21 @@ public abstract class CryptoScanner {
 		return ruleset;
 	}
 
+	/**
+	 * Returns the compiled typestate automaton of a rule. The automaton is compiled once when the
+	 * scanner is created and is shared by all seeds of the rule.
+	 *
+	 * @param rule a rule from the ruleset
+	 * @return the compiled automaton of the rule
+	 */
+	public RuleTransitions getRuleTransitions(CrySLRule rule) {
+		RuleTransitions transitions = ruleTransitions.get(rule.getClassName());
+		if (transitions == null) {
+			throw new IllegalArgumentException("Rule " + rule.getClassName() + " is not part of the ruleset");
+		}
+		return transitions;
+	}
+
 	public Collection<IAnalysisSeed> getDiscoveredSeeds() {
 		return discoveredSeeds.keySet();
 	}
@@ -138,6 +249,14 @@ public abstract class CryptoScanner {
 		return predicateHandler;
 	}
 
+	public AllocationSiteCache getAllocationSiteCache() {
+		return allocationSiteCache;
+	}
+
+	public ArrayContentsCache getArrayContentsCache() {
+		return arrayContentsCache;
+	}
+
 	public Collection<String> getIgnoredSections() {
 		return new ArrayList<>();
 	}
@@ -145,4 +264,40 @@ public abstract class CryptoScanner {
 	public int getTimeout() {
 		return 10000;
 	}
+
+	public int getThreadCount() {
+		return 1;
+	}
+
+	/**
+	 * Returns whether the reported errors are kept for {@link #getCollectedErrors()}. Scans whose errors
+	 * are only processed by error listeners (e.g. streaming reporters) do not need to keep them.
+	 *
+	 * @return true if the errors are collected
+	 */
+	public boolean isCollectErrors() {
+		return true;
+	}
+
+	/**
+	 * Returns whether the parameter queries of all seeds are collected and solved together before the
+	 * seeds are executed. By default, each seed solves its queries on its own.
+	 *
+	 * @return true if the parameter queries are solved together
+	 */
+	public boolean isBatchParameterQueries() {
+		return false;
+	}
+
+	/**
+	 * Decides whether the seeds in a method are analyzed. By default, the seeds in all methods are
+	 * analyzed. Subclasses may restrict the analysis to a part of the program, e.g. to re-analyze
+	 * only the methods that are affected by a change.
+	 *
+	 * @param method the method that contains the seeds
+	 * @return true if the seeds in the method should be analyzed
+	 */
+	public boolean isSeedMethod(Method method) {
+		return true;
+	}
 }
@@ -27,11 +27,11 @@ public class ErrorCollector implements IErrorListener {
 
     private final Table<WrappedClass, Method, Set<AbstractError>> errorCollection = HashBasedTable.create();
 
-    public Table<WrappedClass, Method, Set<AbstractError>> getErrorCollection() {
+    public synchronized Table<WrappedClass, Method, Set<AbstractError>> getErrorCollection() {
         return errorCollection;
     }
 
-    private void addErrorToCollection(AbstractError error) {
+    private synchronized void addErrorToCollection(AbstractError error) {
         Method method = error.getErrorStatement().getMethod();
         WrappedClass wrappedClass = method.getDeclaringClass();
 
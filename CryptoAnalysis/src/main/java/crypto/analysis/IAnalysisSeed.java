@@ -1,20 +1,30 @@
 package crypto.analysis;
 
 import boomerang.results.ForwardBoomerangResults;
+import boomerang.scene.ControlFlowGraph;
 import boomerang.scene.Method;
 import boomerang.scene.Statement;
 import boomerang.scene.Type;
 import boomerang.scene.Val;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Table;
 import crypto.analysis.errors.AbstractError;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import typestate.TransitionFunction;
+import typestate.finiteautomata.ITransition;
+import typestate.finiteautomata.State;
 
 import java.math.BigInteger;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 public abstract class IAnalysisSeed {
 
@@ -23,12 +33,13 @@ public abstract class IAnalysisSeed {
 	protected final CryptoScanner scanner;
 	protected final PredicateHandler predicateHandler;
 	protected final Collection<AbstractError> errorCollection;
-	protected final ForwardBoomerangResults<TransitionFunction> analysisResults;
+	protected ForwardBoomerangResults<TransitionFunction> analysisResults;
 
 	private final Statement origin;
 	private final Val fact;
 	private String objectId;
 	private boolean secure = true;
+	private Table<Statement, Val, Collection<State>> statesAtStatements;
 
 	public IAnalysisSeed(CryptoScanner scanner, Statement origin, Val fact, ForwardBoomerangResults<TransitionFunction> results) {
 		this.scanner = scanner;
@@ -65,10 +76,105 @@ public abstract class IAnalysisSeed {
 		this.secure = secure;
 	}
 
+	/**
+	 * Returns the results of the typestate analysis for this seed. The results are released once
+	 * the seed has been executed, i.e. afterward, this method returns null.
+	 *
+	 * @return the results of the typestate analysis or null, if the results have been released
+	 */
 	public ForwardBoomerangResults<TransitionFunction> getAnalysisResults() {
 		return analysisResults;
 	}
 
+	/**
+	 * Returns the states that the facts of this seed may be in after the statements of the typestate
+	 * analysis. The summary is computed from the results of the typestate analysis once the seed
+	 * requires it, at the latest when the results are released, and remains available afterward.
+	 * The states of all edges that start at the same statement are merged and equal collections of
+	 * states are shared, because the predicate checks only distinguish the statements.
+	 *
+	 * @return the target states for each statement and fact
+	 */
+	public synchronized Table<Statement, Val, Collection<State>> getStatesAtStatements() {
+		if (statesAtStatements != null) {
+			return statesAtStatements;
+		}
+
+		if (analysisResults == null) {
+			statesAtStatements = ImmutableTable.of();
+			return statesAtStatements;
+		}
+
+		Table<Statement, Val, Set<State>> states = HashBasedTable.create();
+		for (Table.Cell<ControlFlowGraph.Edge, Val, TransitionFunction> cell : analysisResults.asStatementValWeightTable().cellSet()) {
+			Statement statement = cell.getRowKey().getStart();
+
+			Set<State> statesAtStatement = states.get(statement, cell.getColumnKey());
+			if (statesAtStatement == null) {
+				statesAtStatement = new HashSet<>();
+				states.put(statement, cell.getColumnKey(), statesAtStatement);
+			}
+
+			for (ITransition transition : cell.getValue().values()) {
+				if (transition.to() != null) {
+					statesAtStatement.add(transition.to());
+				}
+			}
+		}
+
+		Map<Set<State>, Collection<State>> sharedStates = new HashMap<>();
+		ImmutableTable.Builder<Statement, Val, Collection<State>> builder = ImmutableTable.builder();
+		for (Table.Cell<Statement, Val, Set<State>> cell : states.cellSet()) {
+			builder.put(cell.getRowKey(), cell.getColumnKey(), sharedStates.computeIfAbsent(cell.getValue(), ImmutableSet::copyOf));
+		}
+		statesAtStatements = builder.build();
+		return statesAtStatements;
+	}
+
+	/**
+	 * Returns the instance invoke statements whose base is a fact of this seed. Other than
+	 * {@link #getStatesAtStatements()}, this method does not keep a summary of the typestate results,
+	 * i.e. the seeds can be indexed before they are executed without holding the results twice.
+	 *
+	 * @return the statements that invoke a method on a fact of this seed
+	 */
+	public synchronized Collection<Statement> getInvokeStatementsOnFacts() {
+		Collection<Statement> result = new HashSet<>();
+
+		if (statesAtStatements != null) {
+			for (Table.Cell<Statement, Val, Collection<State>> cell : statesAtStatements.cellSet()) {
+				if (isInstanceInvokeOn(cell.getRowKey(), cell.getColumnKey())) {
+					result.add(cell.getRowKey());
+				}
+			}
+		} else if (analysisResults != null) {
+			for (Table.Cell<ControlFlowGraph.Edge, Val, TransitionFunction> cell : analysisResults.asStatementValWeightTable().cellSet()) {
+				if (isInstanceInvokeOn(cell.getRowKey().getStart(), cell.getColumnKey())) {
+					result.add(cell.getRowKey().getStart());
+				}
+			}
+		}
+		return result;
+	}
+
+	private static boolean isInstanceInvokeOn(Statement statement, Val fact) {
+		if (!statement.containsInvokeExpr() || !statement.getInvokeExpr().isInstanceInvokeExpr()) {
+			return false;
+		}
+		return statement.getInvokeExpr().getBase().equals(fact);
+	}
+
+	/**
+	 * Drops the results of the typestate analysis after the seed has been executed. The results
+	 * keep the complete state of the IDEal solvers, while the later predicate checks only require
+	 * the summary from {@link #getStatesAtStatements()}, which is computed here if the seed did not
+	 * require it yet.
+	 */
+	protected synchronized void releaseAnalysisResults() {
+		getStatesAtStatements();
+		analysisResults = null;
+	}
+
 	public void addError(AbstractError e) {
 		this.errorCollection.add(e);
 	}
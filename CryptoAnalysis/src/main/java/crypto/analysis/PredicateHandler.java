@@ -1,13 +1,11 @@
 package crypto.analysis;
 
-import boomerang.results.ForwardBoomerangResults;
-import boomerang.scene.ControlFlowGraph;
 import boomerang.scene.InvokeExpr;
-import boomerang.scene.Method;
 import boomerang.scene.Statement;
 import boomerang.scene.Val;
 import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Sets;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
 import com.google.common.collect.Table;
 import com.google.common.collect.Table.Cell;
 import crypto.analysis.errors.RequiredPredicateError;
@@ -17,7 +15,6 @@ import crypto.rules.CrySLObject;
 import crypto.rules.CrySLPredicate;
 import crypto.rules.CrySLRule;
 import crypto.rules.ISLConstraint;
-import typestate.TransitionFunction;
 
 import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
@@ -29,125 +26,53 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+/**
+ * Stores the predicates that are ensured and expected during the analysis. The handler is shared by
+ * all seeds; its monitor guards the predicate state and the propagation of predicates between seeds.
+ * The predicates are kept in {@link PredicateStore}s, listeners receive an immutable copy of the
+ * ensured predicates.
+ */
 public class PredicateHandler {
 
-	private final class AddPredicateToOtherSeed implements ResultsHandler {
-		private final Statement statement;
-		private final Val base;
-		private final Method callerMethod;
-		private final EnsuredCrySLPredicate ensPred;
-		private final AnalysisSeedWithSpecification secondSeed;
-
-		private AddPredicateToOtherSeed(Statement statement, Val base, Method callerMethod, EnsuredCrySLPredicate ensPred, AnalysisSeedWithSpecification secondSeed) {
-			this.statement = statement;
-			this.base = base;
-			this.callerMethod = callerMethod;
-			this.ensPred = ensPred;
-			this.secondSeed = secondSeed;
-		}
-
-		@Override
-		public void done(ForwardBoomerangResults<TransitionFunction> results) {
-			for (Map.Entry<ControlFlowGraph.Edge, Map<Val, TransitionFunction>> row : results.asStatementValWeightTable().rowMap().entrySet()) {
-				if (row.getKey().getStart().equals(statement)) {
-					Map<Val, TransitionFunction> entry = row.getValue();
-
-					if (entry.containsKey(base)) {
-						secondSeed.addEnsuredPredicate(ensPred);
-					}
-				}
-			}
-		}
-
-		@Override
-		public int hashCode() {
-			final int prime = 31;
-			int result = 1;
-			result = prime * result + getOuterType().hashCode();
-			result = prime * result + ((base == null) ? 0 : base.hashCode());
-			result = prime * result + ((callerMethod == null) ? 0 : callerMethod.hashCode());
-			result = prime * result + ((ensPred == null) ? 0 : ensPred.hashCode());
-			result = prime * result + ((secondSeed == null) ? 0 : secondSeed.hashCode());
-			result = prime * result + ((statement == null) ? 0 : statement.hashCode());
-			return result;
-		}
+	/* Statements and ensured predicates are interned once and shared by the stores */
+	private final PredicateStore.Interner<Statement> statements = new PredicateStore.Interner<>();
+	private final PredicateStore.Interner<EnsuredCrySLPredicate> ensuredPredicates = new PredicateStore.Interner<>();
 
-		@Override
-		public boolean equals(Object obj) {
-			if (this == obj)
-				return true;
-			if (obj == null)
-				return false;
-			if (getClass() != obj.getClass())
-				return false;
-			AddPredicateToOtherSeed other = (AddPredicateToOtherSeed) obj;
-			if (!getOuterType().equals(other.getOuterType()))
-				return false;
-			if (base == null) {
-				if (other.base != null)
-					return false;
-			} else if (!base.equals(other.base))
-				return false;
-			if (callerMethod == null) {
-				if (other.callerMethod != null)
-					return false;
-			} else if (!callerMethod.equals(other.callerMethod))
-				return false;
-			if (ensPred == null) {
-				if (other.ensPred != null)
-					return false;
-			} else if (!ensPred.equals(other.ensPred))
-				return false;
-			if (secondSeed == null) {
-				if (other.secondSeed != null)
-					return false;
-			} else if (!secondSeed.equals(other.secondSeed))
-				return false;
-			if (statement == null) {
-                return other.statement == null;
-			} else return statement.equals(other.statement);
-        }
-
-		private PredicateHandler getOuterType() {
-			return PredicateHandler.this;
-		}
-
-	}
-
-	private final Table<Statement, Val, Set<EnsuredCrySLPredicate>> existingPredicates = HashBasedTable.create();
-	private final Table<Statement, IAnalysisSeed, Set<EnsuredCrySLPredicate>> existingPredicatesObjectBased = HashBasedTable.create();
-	private final Table<Statement, IAnalysisSeed, Set<CrySLPredicate>> expectedPredicateObjectBased = HashBasedTable.create();
+	private final PredicateStore<Statement, Val, EnsuredCrySLPredicate> existingPredicates = new PredicateStore<>(statements, ensuredPredicates);
+	private final PredicateStore<Statement, IAnalysisSeed, EnsuredCrySLPredicate> existingPredicatesObjectBased = new PredicateStore<>(statements, ensuredPredicates);
+	private final PredicateStore<Statement, IAnalysisSeed, CrySLPredicate> expectedPredicateObjectBased = new PredicateStore<>(statements, new PredicateStore.Interner<>());
 	private final CryptoScanner cryptoScanner;
 	private final Map<AnalysisSeedWithSpecification, List<RequiredPredicateError>> requiredPredicateErrors;
 
+	/* Index of the seeds, computed once all seeds are discovered (see indexSeeds()) */
+	private Table<Statement, Val, Set<AnalysisSeedWithSpecification>> seedsAtInstanceInvokes;
+	private Multimap<Statement, AnalysisSeedWithSpecification> seedsByOrigin;
+
 	public PredicateHandler(CryptoScanner cryptoScanner) {
 		this.cryptoScanner = cryptoScanner;
 		this.requiredPredicateErrors = new HashMap<>();
 	}
 
-	public boolean addNewPred(IAnalysisSeed seedObj, Statement statement, Val variable, EnsuredCrySLPredicate ensPred) {
-		Set<EnsuredCrySLPredicate> set = getExistingPredicates(statement, variable);
-		boolean added = set.add(ensPred);
+	public synchronized boolean addNewPred(IAnalysisSeed seedObj, Statement statement, Val variable, EnsuredCrySLPredicate ensPred) {
+		boolean added = existingPredicates.add(statement, variable, ensPred);
 
 		if (added) {
 			onPredicateAdded(seedObj, statement, variable, ensPred);
 		}
 
-		Set<EnsuredCrySLPredicate> predsObjBased = existingPredicatesObjectBased.get(statement, seedObj);
-		if (predsObjBased == null)
-			predsObjBased = Sets.newHashSet();
-		predsObjBased.add(ensPred);
-		existingPredicatesObjectBased.put(statement, seedObj, predsObjBased);
+		existingPredicatesObjectBased.add(statement, seedObj, ensPred);
 		return added;
 	}
-	
-	public Set<EnsuredCrySLPredicate> getExistingPredicates(Statement stmt, Val seed) {
-		Set<EnsuredCrySLPredicate> set = existingPredicates.get(stmt, seed);
-		if (set == null) {
-			set = Sets.newHashSet();
-			existingPredicates.put(stmt, seed, set);
-		}
-		return set;
+
+	/**
+	 * Returns the predicates that are ensured on a variable at a statement.
+	 *
+	 * @param stmt the statement
+	 * @param seed the variable
+	 * @return a read-only view of the ensured predicates
+	 */
+	public synchronized Set<EnsuredCrySLPredicate> getExistingPredicates(Statement stmt, Val seed) {
+		return existingPredicates.get(stmt, seed);
 	}
 
 	private void onPredicateAdded(IAnalysisSeed seedObj, Statement statement, Val seed, EnsuredCrySLPredicate ensPred) {
@@ -155,7 +80,6 @@ public class PredicateHandler {
 			InvokeExpr invokeExpr = statement.getInvokeExpr();
 
 			if (invokeExpr.isInstanceInvokeExpr()) {
-				Method callerMethod = statement.getMethod();
 				Val base = invokeExpr.getBase();
 				boolean paramMatch = false;
 				for (Val arg : invokeExpr.getArgs()) {
@@ -164,8 +88,8 @@ public class PredicateHandler {
 					}
 				}
 				if (paramMatch) {
-					for (AnalysisSeedWithSpecification secondSeed : cryptoScanner.getAnalysisSeedsWithSpec()) {
-						secondSeed.registerResultsHandler(new AddPredicateToOtherSeed(statement, base, callerMethod, ensPred, secondSeed));
+					for (AnalysisSeedWithSpecification secondSeed : getSeedsWithFactAt(statement, base)) {
+						secondSeed.addEnsuredPredicate(ensPred);
 					}
 				}
 			}
@@ -177,10 +101,10 @@ public class PredicateHandler {
 						paramMatch = true;
 				}
 				if (paramMatch) {
-					for (AnalysisSeedWithSpecification spec : cryptoScanner.getAnalysisSeedsWithSpec()) {
-						if (spec.getOrigin().equals(statement)) {
-							spec.addEnsuredPredicate(ensPred);
-						}
+					indexSeeds();
+
+					for (AnalysisSeedWithSpecification spec : seedsByOrigin.get(statement)) {
+						spec.addEnsuredPredicate(ensPred);
 					}
 				}
 			}
@@ -188,21 +112,70 @@ public class PredicateHandler {
 		}
 	}
 
-	public void expectPredicate(IAnalysisSeed object, Statement stmt, CrySLPredicate predToBeEnsured) {
+	private Collection<AnalysisSeedWithSpecification> getSeedsWithFactAt(Statement statement, Val base) {
+		indexSeeds();
+
+		Set<AnalysisSeedWithSpecification> seeds = seedsAtInstanceInvokes.get(statement, base);
+		if (seeds == null) {
+			return Collections.emptySet();
+		}
+		return seeds;
+	}
+
+	/**
+	 * Indexes the seeds with specification by their origin and by the instance invoke statements whose
+	 * base is a fact in the seed's typestate results. A predicate that is ensured on a parameter of an
+	 * instance invoke statement is only passed to the seeds in the index for this statement and base,
+	 * instead of checking the results of every seed for each predicate. The index is computed once; all
+	 * seeds are discovered before the first seed is executed. It only stores the statements of each
+	 * seed, i.e. the seeds that have not been executed yet do not compute their summary here.
+	 */
+	private void indexSeeds() {
+		if (seedsAtInstanceInvokes != null) {
+			return;
+		}
+
+		seedsAtInstanceInvokes = HashBasedTable.create();
+		seedsByOrigin = HashMultimap.create();
+
+		for (AnalysisSeedWithSpecification seed : cryptoScanner.getAnalysisSeedsWithSpec()) {
+			seedsByOrigin.put(seed.getOrigin(), seed);
+
+			for (Statement statement : seed.getInvokeStatementsOnFacts()) {
+				Val base = statement.getInvokeExpr().getBase();
+
+				Set<AnalysisSeedWithSpecification> seeds = seedsAtInstanceInvokes.get(statement, base);
+				if (seeds == null) {
+					seeds = new HashSet<>();
+					seedsAtInstanceInvokes.put(statement, base, seeds);
+				}
+				seeds.add(seed);
+			}
+		}
+	}
+
+	/**
+	 * Expects a predicate for a seed after a statement. The cell of the statement is replaced with the
+	 * expected predicates of its successors plus the new predicate. Previously, the cell shared its set
+	 * with an existing successor cell, so the predicate was also added to that successor. This aliasing
+	 * is not kept: it never adds or removes a statement with expected predicates, and the statements
+	 * are the only part of the expected predicates that is read (see PredicateStoreTest).
+	 *
+	 * @param object the seed that expects the predicate
+	 * @param stmt the statement after which the predicate is expected
+	 * @param predToBeEnsured the expected predicate
+	 */
+	public synchronized void expectPredicate(IAnalysisSeed object, Statement stmt, CrySLPredicate predToBeEnsured) {
 		for (Statement successor : stmt.getMethod().getControlFlowGraph().getSuccsOf(stmt)) {
-			Set<CrySLPredicate> set = expectedPredicateObjectBased.get(successor, object);
-			if (set == null)
-				set = Sets.newHashSet();
-			set.add(predToBeEnsured);
-			expectedPredicateObjectBased.put(stmt, object, set);
+			expectedPredicateObjectBased.replace(stmt, object, successor, predToBeEnsured);
 		}
 	}
 
-	public void checkPredicates() {
+	public synchronized void checkPredicates() {
 		collectMissingRequiredPredicates();
 		reportRequiredPredicateErrors();
 		checkForContradictions();
-		cryptoScanner.getAnalysisReporter().ensuredPredicates(existingPredicates);
+		cryptoScanner.getAnalysisReporter().ensuredPredicates(existingPredicates.toImmutableTable());
 	}
 
 	private void collectMissingRequiredPredicates() {
@@ -284,8 +257,8 @@ public class PredicateHandler {
 				}
 			}
 		}
-		for (Statement generatingPredicateStmt : expectedPredicateObjectBased.rowKeySet()) {
-			for (Map.Entry<Val, Set<EnsuredCrySLPredicate>> exPredCell : existingPredicates.row(generatingPredicateStmt).entrySet()) {
+		for (Statement generatingPredicateStmt : expectedPredicateObjectBased.getStatements()) {
+			for (Map.Entry<Val, Set<EnsuredCrySLPredicate>> exPredCell : existingPredicates.getRow(generatingPredicateStmt).entrySet()) {
 				Set<String> preds = new HashSet<String>();
 				for (EnsuredCrySLPredicate exPred : exPredCell.getValue()) {
 					preds.add(exPred.getPredicate().getPredName());
@@ -302,14 +275,9 @@ public class PredicateHandler {
 
 	private Table<Statement, IAnalysisSeed, Set<CrySLPredicate>> computeMissingPredicates() {
 		Table<Statement, IAnalysisSeed, Set<CrySLPredicate>> res = HashBasedTable.create();
-		for (Cell<Statement, IAnalysisSeed, Set<CrySLPredicate>> c : expectedPredicateObjectBased.cellSet()) {
+		for (Cell<Statement, IAnalysisSeed, Set<CrySLPredicate>> c : expectedPredicateObjectBased.toImmutableTable().cellSet()) {
 			Set<EnsuredCrySLPredicate> exPreds = existingPredicatesObjectBased.get(c.getRowKey(), c.getColumnKey());
-			if (c.getValue() == null)
-				continue;
 			HashSet<CrySLPredicate> expectedPreds = new HashSet<>(c.getValue());
-			if (exPreds == null) {
-				exPreds = Sets.newHashSet();
-			}
 			for (EnsuredCrySLPredicate p : exPreds) {
 				expectedPreds.remove(p.getPredicate());
 			}
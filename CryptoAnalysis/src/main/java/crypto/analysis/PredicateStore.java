@@ -0,0 +1,285 @@
+package crypto.analysis;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Table;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Compact store for predicates that are associated with a statement and a column (e.g. a variable
+ * or a seed). Statements, columns and predicates are interned to int ids, and each cell stores the
+ * ids of its predicates in a sorted int array. Lookups do not allocate any cells and return
+ * read-only views. The store is not thread-safe; the {@link PredicateHandler} guards it.
+ *
+ * @param <S> the type of the statements
+ * @param <C> the type of the columns
+ * @param <P> the type of the predicates
+ */
+final class PredicateStore<S, C, P> {
+
+	private static final int[] EMPTY = new int[0];
+
+	private final Interner<S> statements;
+	private final Interner<C> columns;
+	private final Interner<P> predicates;
+
+	/* Cells of the store, indexed by the statement id and mapped by the column id */
+	private final List<Map<Integer, int[]>> rows;
+
+	PredicateStore(Interner<S> statements, Interner<P> predicates) {
+		this.statements = statements;
+		this.columns = new Interner<>();
+		this.predicates = predicates;
+		this.rows = new ArrayList<>();
+	}
+
+	/**
+	 * Adds a predicate to the cell of a statement and a column.
+	 *
+	 * @param statement the statement
+	 * @param column the column
+	 * @param predicate the predicate
+	 * @return true if the cell did not contain the predicate
+	 */
+	boolean add(S statement, C column, P predicate) {
+		Map<Integer, int[]> row = getOrCreateRow(statement);
+		int columnId = columns.getId(column);
+		int[] cell = row.getOrDefault(columnId, EMPTY);
+
+		int[] updatedCell = insert(cell, predicates.getId(predicate));
+		if (updatedCell == cell) {
+			return false;
+		}
+		row.put(columnId, updatedCell);
+		return true;
+	}
+
+	/**
+	 * Replaces the cell of a statement and a column with the predicates from the cell of another
+	 * statement and the same column, extended by the given predicate. Predicates that were in the
+	 * replaced cell before are dropped. The cell of the source statement is not modified.
+	 *
+	 * @param statement the statement whose cell is replaced
+	 * @param column the column
+	 * @param source the statement whose predicates are copied
+	 * @param predicate the additional predicate
+	 */
+	void replace(S statement, C column, S source, P predicate) {
+		int[] sourceCell = getCell(source, column);
+		int[] updatedCell = insert(sourceCell, predicates.getId(predicate));
+
+		getOrCreateRow(statement).put(columns.getId(column), updatedCell);
+	}
+
+	/**
+	 * Returns a read-only view of the predicates in the cell of a statement and a column. The view
+	 * does not reflect predicates that are added afterward.
+	 *
+	 * @param statement the statement
+	 * @param column the column
+	 * @return the predicates in the cell or an empty set if there are none
+	 */
+	Set<P> get(S statement, C column) {
+		int[] cell = getCell(statement, column);
+		if (cell.length == 0) {
+			return Collections.emptySet();
+		}
+		return new CellView<>(cell, predicates);
+	}
+
+	/**
+	 * Returns the statements that have at least one non-empty cell.
+	 *
+	 * @return the statements with predicates
+	 */
+	Collection<S> getStatements() {
+		Collection<S> result = new ArrayList<>();
+
+		for (int i = 0; i < rows.size(); i++) {
+			Map<Integer, int[]> row = rows.get(i);
+
+			if (row != null && !row.isEmpty()) {
+				result.add(statements.get(i));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the non-empty cells of a statement, mapped by their columns.
+	 *
+	 * @param statement the statement
+	 * @return the read-only predicates of the statement's cells
+	 */
+	Map<C, Set<P>> getRow(S statement) {
+		int statementId = statements.findId(statement);
+		if (statementId < 0 || statementId >= rows.size() || rows.get(statementId) == null) {
+			return Collections.emptyMap();
+		}
+
+		Map<C, Set<P>> result = new LinkedHashMap<>();
+		for (Map.Entry<Integer, int[]> entry : rows.get(statementId).entrySet()) {
+			result.put(columns.get(entry.getKey()), new CellView<>(entry.getValue(), predicates));
+		}
+		return result;
+	}
+
+	/**
+	 * Copies the store into an immutable table. Other than the store, the table can be handed to
+	 * listeners without exposing the internal representation.
+	 *
+	 * @return an immutable table with the non-empty cells of the store
+	 */
+	Table<S, C, Set<P>> toImmutableTable() {
+		ImmutableTable.Builder<S, C, Set<P>> builder = ImmutableTable.builder();
+
+		for (int i = 0; i < rows.size(); i++) {
+			Map<Integer, int[]> row = rows.get(i);
+			if (row == null) {
+				continue;
+			}
+
+			for (Map.Entry<Integer, int[]> entry : row.entrySet()) {
+				builder.put(statements.get(i), columns.get(entry.getKey()), ImmutableSet.copyOf(new CellView<>(entry.getValue(), predicates)));
+			}
+		}
+		return builder.build();
+	}
+
+	private int[] getCell(S statement, C column) {
+		int statementId = statements.findId(statement);
+		if (statementId < 0 || statementId >= rows.size()) {
+			return EMPTY;
+		}
+
+		Map<Integer, int[]> row = rows.get(statementId);
+		int columnId = columns.findId(column);
+		if (row == null || columnId < 0) {
+			return EMPTY;
+		}
+		return row.getOrDefault(columnId, EMPTY);
+	}
+
+	private Map<Integer, int[]> getOrCreateRow(S statement) {
+		int statementId = statements.getId(statement);
+		while (rows.size() <= statementId) {
+			rows.add(null);
+		}
+
+		Map<Integer, int[]> row = rows.get(statementId);
+		if (row == null) {
+			row = new HashMap<>(4);
+			rows.set(statementId, row);
+		}
+		return row;
+	}
+
+	/**
+	 * Inserts an id into a sorted cell. Cells are never modified in place, so views on a cell
+	 * remain valid.
+	 *
+	 * @return the cell itself if it already contains the id, otherwise a new cell
+	 */
+	private static int[] insert(int[] cell, int id) {
+		int index = Arrays.binarySearch(cell, id);
+		if (index >= 0) {
+			return cell;
+		}
+
+		int insertionPoint = -index - 1;
+		int[] result = new int[cell.length + 1];
+		System.arraycopy(cell, 0, result, 0, insertionPoint);
+		result[insertionPoint] = id;
+		System.arraycopy(cell, insertionPoint, result, insertionPoint + 1, cell.length - insertionPoint);
+		return result;
+	}
+
+	/**
+	 * Maps objects to consecutive int ids. An interner can be shared by multiple stores such that
+	 * the same object is assigned the same id in each store.
+	 *
+	 * @param <T> the type of the interned objects
+	 */
+	static final class Interner<T> {
+
+		private final Map<T, Integer> ids = new HashMap<>();
+		private final List<T> objects = new ArrayList<>();
+
+		int getId(T object) {
+			Integer id = ids.get(object);
+			if (id != null) {
+				return id;
+			}
+
+			int newId = objects.size();
+			ids.put(object, newId);
+			objects.add(object);
+			return newId;
+		}
+
+		int findId(T object) {
+			Integer id = ids.get(object);
+			return id == null ? -1 : id;
+		}
+
+		T get(int id) {
+			return objects.get(id);
+		}
+	}
+
+	private static final class CellView<P> extends AbstractSet<P> {
+
+		private final int[] cell;
+		private final Interner<P> predicates;
+
+		private CellView(int[] cell, Interner<P> predicates) {
+			this.cell = cell;
+			this.predicates = predicates;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			@SuppressWarnings("unchecked")
+			int id = predicates.findId((P) o);
+			return id >= 0 && Arrays.binarySearch(cell, id) >= 0;
+		}
+
+		@Override
+		public Iterator<P> iterator() {
+			return new Iterator<P>() {
+
+				private int index = 0;
+
+				@Override
+				public boolean hasNext() {
+					return index < cell.length;
+				}
+
+				@Override
+				public P next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					return predicates.get(cell[index++]);
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return cell.length;
+		}
+	}
+}
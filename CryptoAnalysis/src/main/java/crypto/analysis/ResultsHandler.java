@@ -1,8 +0,0 @@
-package crypto.analysis;
-
-import boomerang.results.ForwardBoomerangResults;
-import typestate.TransitionFunction;
-
-public interface ResultsHandler {
-	void done(ForwardBoomerangResults<TransitionFunction> results);
-}
\ No newline at end of file
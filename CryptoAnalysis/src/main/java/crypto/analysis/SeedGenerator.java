@@ -4,17 +4,19 @@ import boomerang.debugger.Debugger;
 import boomerang.results.ForwardBoomerangResults;
 import boomerang.scene.CallGraph;
 import boomerang.scene.DataFlowScope;
+import boomerang.scene.Method;
 import boomerang.scene.Statement;
 import boomerang.scene.Val;
 import crypto.rules.CrySLRule;
 import crypto.typestate.ForwardSeedQuery;
+import crypto.typestate.RuleTransitions;
 import crypto.typestate.TypestateAnalysis;
 import ideal.IDEALSeedSolver;
 import typestate.TransitionFunction;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 
 public class SeedGenerator {
@@ -22,10 +24,10 @@ public class SeedGenerator {
     private final CryptoScanner scanner;
     private final TypestateAnalysis typestateAnalysis;
 
-    public SeedGenerator(CryptoScanner scanner, Collection<CrySLRule> rules) {
+    public SeedGenerator(CryptoScanner scanner, Collection<RuleTransitions> ruleTransitions) {
         this.scanner = scanner;
 
-        typestateAnalysis = new TypestateAnalysis(rules) {
+        typestateAnalysis = new TypestateAnalysis(ruleTransitions) {
             @Override
             public CallGraph callGraph() {
                 return scanner.callGraph();
@@ -41,10 +43,20 @@ public class SeedGenerator {
                 return scanner.getTimeout();
             }
 
+            @Override
+            public int getThreadCount() {
+                return scanner.getThreadCount();
+            }
+
             @Override
             public Debugger<TransitionFunction> debugger(IDEALSeedSolver<TransitionFunction> idealSeedSolver) {
                 return scanner.debugger(idealSeedSolver);
             }
+
+            @Override
+            public boolean isSeedMethod(Method method) {
+                return scanner.isSeedMethod(method);
+            }
         };
     }
 
@@ -63,7 +75,7 @@ public class SeedGenerator {
             return Collections.emptySet();
         }
 
-        Collection<IAnalysisSeed> seeds = new HashSet<>();
+        Collection<IAnalysisSeed> seeds = new LinkedHashSet<>();
 
         for (Map.Entry<ForwardSeedQuery, ForwardBoomerangResults<TransitionFunction>> entry : results.entrySet()) {
             if (entry.getValue() == null) {
@@ -83,6 +95,7 @@ public class SeedGenerator {
                 seed = new AnalysisSeedWithEnsuredPredicate(scanner, stmt, fact, entry.getValue());
             }
             seeds.add(seed);
+            scanner.getAnalysisReporter().onTypestateAnalysisFinished(seed, typestateAnalysis.getAnalysisTime(forwardQuery));
 
             if (entry.getValue().isTimedout()) {
                 scanner.getAnalysisReporter().onTypestateAnalysisTimeout(seed);
@@ -31,6 +31,16 @@ public abstract class AbstractError {
 
 	public abstract String toErrorMarkerString();
 
+	/**
+	 * Returns the name of the error type that is shown in the reports, i.e. the simple name of
+	 * the error class.
+	 *
+	 * @return the name of the error type
+	 */
+	public String getErrorType() {
+		return getClass().getSimpleName();
+	}
+
 	public IAnalysisSeed getSeed() {
 		return seed;
 	}
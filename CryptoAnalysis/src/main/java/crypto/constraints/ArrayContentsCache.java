@@ -0,0 +1,159 @@
+package crypto.constraints;
+
+import boomerang.BackwardQuery;
+import boomerang.Boomerang;
+import boomerang.ForwardQuery;
+import boomerang.results.BackwardBoomerangResults;
+import boomerang.results.ForwardBoomerangResults;
+import boomerang.scene.AllocVal;
+import boomerang.scene.ControlFlowGraph;
+import boomerang.scene.Method;
+import boomerang.scene.Statement;
+import boomerang.scene.Val;
+import boomerang.scene.jimple.IntAndStringBoomerangOptions;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Table;
+import crypto.analysis.CryptoScanner;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Scan-wide cache for the contents of arrays. The contents of an array only depend on its
+ * allocation statement. Hence, each allocation is resolved once, no matter how many seeds and
+ * constraints refer to it (e.g. the same key array in multiple notHardCoded constraints).
+ * Additionally, the cache indexes the assignments of each method by their left operands, such that
+ * large methods (e.g. static initializers with array literals) are only scanned once.
+ */
+public class ArrayContentsCache {
+
+	private final CryptoScanner scanner;
+	private final Map<Statement, Map<Integer, Val>> cache = new ConcurrentHashMap<>();
+	private final Map<Method, ListMultimap<Val, Val>> assignmentsPerMethod = new ConcurrentHashMap<>();
+
+	public ArrayContentsCache(CryptoScanner scanner) {
+		this.scanner = scanner;
+	}
+
+	/**
+	 * Returns the values that are stored in an array. If the statement does not allocate an array,
+	 * the result is empty.
+	 *
+	 * @param allocationStatement the statement that allocates the array
+	 * @return a read-only map from the indices to the stored values
+	 */
+	public Map<Integer, Val> getArrayContents(Statement allocationStatement) {
+		Map<Integer, Val> contents = cache.get(allocationStatement);
+		if (contents != null) {
+			return contents;
+		}
+
+		Map<Integer, Val> extracted = Collections.unmodifiableMap(extractArray(allocationStatement));
+		contents = cache.putIfAbsent(allocationStatement, extracted);
+		return contents == null ? extracted : contents;
+	}
+
+	/**
+	 * Returns the values that are assigned to a local in a method, except for array allocations. The
+	 * assignments of a method are indexed when the method is queried for the first time.
+	 *
+	 * @param method the method that contains the assignments
+	 * @param local the local on the left side of the assignments
+	 * @return the right operands of the assignments
+	 */
+	public Collection<Val> getAssignedValues(Method method, Val local) {
+		return assignmentsPerMethod.computeIfAbsent(method, ArrayContentsCache::indexAssignments).get(local);
+	}
+
+	/**
+	 * Removes all array contents and indexed assignments from the cache. The {@link CryptoScanner}
+	 * clears the cache after each scan.
+	 */
+	public void clear() {
+		cache.clear();
+		assignmentsPerMethod.clear();
+	}
+
+	private static ListMultimap<Val, Val> indexAssignments(Method method) {
+		ImmutableListMultimap.Builder<Val, Val> assignments = ImmutableListMultimap.builder();
+
+		for (Statement statement : method.getStatements()) {
+			if (!statement.isAssign()) {
+				continue;
+			}
+
+			Val rightVal = statement.getRightOp();
+			if (rightVal.toString().contains("newarray")) {
+				continue;
+			}
+			assignments.put(statement.getLeftOp(), rightVal);
+		}
+		return assignments.build();
+	}
+
+	private Map<Integer, Val> extractArray(Statement statement) {
+		Map<Integer, Val> result = new HashMap<>();
+
+		if (!statement.isAssign()) {
+			return result;
+		}
+
+		Val leftOp = statement.getLeftOp();
+		Val rightOp = statement.getRightOp();
+		if (!rightOp.isArrayAllocationVal()) {
+			return result;
+		}
+
+		AllocVal allocVal = new AllocVal(leftOp, statement, rightOp);
+		for (Statement successor : statement.getMethod().getControlFlowGraph().getSuccsOf(statement)) {
+			ForwardQuery forwardQuery = new ForwardQuery(new ControlFlowGraph.Edge(statement, successor), allocVal);
+
+			Boomerang solver = new Boomerang(scanner.callGraph(), scanner.getDataFlowScope());
+			ForwardBoomerangResults<?> results = solver.solve(forwardQuery);
+
+			for (Table.Cell<ControlFlowGraph.Edge, Val, ?> entry : results.asStatementValWeightTable().cellSet()) {
+				Statement stmt = entry.getRowKey().getStart();
+				if (!stmt.isArrayStore()) {
+					continue;
+				}
+
+				Val arrayBase = stmt.getLeftOp().getArrayBase().getX();
+				Integer index = stmt.getLeftOp().getArrayBase().getY();
+				if (!arrayBase.equals(allocVal.getDelegate())) {
+					continue;
+				}
+
+				/* Stores from array initializers have a single predecessor. For other stores, the value is
+				 * only resolved along the first predecessor, and stores without a predecessor are skipped
+				 */
+				Optional<Statement> predecessor = stmt.getMethod().getControlFlowGraph().getPredsOf(stmt).stream().findFirst();
+				if (!predecessor.isPresent()) {
+					continue;
+				}
+
+				ControlFlowGraph.Edge edge = new ControlFlowGraph.Edge(predecessor.get(), stmt);
+				BackwardQuery backwardQuery = BackwardQuery.make(edge, stmt.getRightOp());
+
+				Boomerang indexSolver = new Boomerang(scanner.callGraph(), scanner.getDataFlowScope(), new IntAndStringBoomerangOptions());
+				BackwardBoomerangResults<?> indexValue = indexSolver.solve(backwardQuery);
+
+				for (ForwardQuery allocSite : indexValue.getAllocationSites().keySet()) {
+					Statement allocStmt = allocSite.cfgEdge().getStart();
+
+					if (!allocStmt.isAssign()) {
+						continue;
+					}
+
+					result.put(index, allocStmt.getRightOp());
+				}
+			}
+		}
+
+		return result;
+	}
+}
@@ -1,20 +1,11 @@
 package crypto.constraints;
 
-import boomerang.BackwardQuery;
-import boomerang.Boomerang;
-import boomerang.ForwardQuery;
-import boomerang.results.BackwardBoomerangResults;
-import boomerang.results.ForwardBoomerangResults;
-import boomerang.scene.AllocVal;
-import boomerang.scene.ControlFlowGraph;
 import boomerang.scene.InvokeExpr;
 import boomerang.scene.Method;
 import boomerang.scene.Statement;
 import boomerang.scene.Val;
-import boomerang.scene.jimple.IntAndStringBoomerangOptions;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
-import com.google.common.collect.Table;
 import crypto.analysis.errors.AbstractError;
 import crypto.analysis.errors.ImpreciseValueExtractionError;
 import crypto.extractparameter.CallSiteWithExtractedValue;
@@ -31,7 +22,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
 
 public abstract class EvaluableConstraint {
@@ -118,7 +108,8 @@ public abstract class EvaluableConstraint {
 	}
 
 	/***
-	 * Function that finds the values assigned to a soot array.
+	 * Function that finds the values assigned to a soot array. The assignments are looked up in the
+	 * per-method index of the {@link ArrayContentsCache}.
 	 * 
 	 * @param callSite   call site at which sootValue is involved
 	 * @param allocSite  allocation site at which sootValue is involved
@@ -131,17 +122,8 @@ public abstract class EvaluableConstraint {
 
 		Map<String, CallSiteWithExtractedValue> arrVal = Maps.newHashMap();
 
-		for (Statement statement : method.getStatements()) {
-			if (!statement.isAssign()) {
-				continue;
-			}
-
-			Val leftVal = statement.getLeftOp();
-			Val rightVal = statement.getRightOp();
-
-			if (leftVal.equals(arrayLocal) && !rightVal.toString().contains("newarray")) {
-				arrVal.put(retrieveConstantFromValue(rightVal), new CallSiteWithExtractedValue(callSite, allocSite));
-			}
+		for (Val rightVal : context.getObject().getScanner().getArrayContentsCache().getAssignedValues(method, arrayLocal)) {
+			arrVal.put(retrieveConstantFromValue(rightVal), new CallSiteWithExtractedValue(callSite, allocSite));
 		}
 
 		/*Body methodBody = allocSite.stmt().getMethod().getActiveBody();
@@ -176,59 +158,15 @@ public abstract class EvaluableConstraint {
 		}
 	}
 
+	/**
+	 * Extracts the values that are stored in an array. The contents are shared between all seeds and
+	 * constraints, see {@link ArrayContentsCache}.
+	 *
+	 * @param extractedValue the value whose statement allocates the array
+	 * @return a read-only map from the indices to the stored values
+	 */
 	protected Map<Integer, Val> extractArray(ExtractedValue extractedValue) {
-		Map<Integer, Val> result = new HashMap<>();
-
-		Statement statement = extractedValue.stmt();
-		if (!statement.isAssign()) {
-			return result;
-		}
-
-		Val leftOp = statement.getLeftOp();
-		Val rightOp = statement.getRightOp();
-		if (!rightOp.isArrayAllocationVal()) {
-			return result;
-		}
-
-		AllocVal allocVal = new AllocVal(leftOp, statement, rightOp);
-		for (Statement successor : statement.getMethod().getControlFlowGraph().getSuccsOf(statement)) {
-			ForwardQuery forwardQuery = new ForwardQuery(new ControlFlowGraph.Edge(statement, successor), allocVal);
-
-			Boomerang solver = new Boomerang(context.getObject().getScanner().callGraph(), context.getObject().getScanner().getDataFlowScope());
-			ForwardBoomerangResults<?> results = solver.solve(forwardQuery);
-
-			for (Table.Cell<ControlFlowGraph.Edge, Val, ?> entry : results.asStatementValWeightTable().cellSet()) {
-				Statement stmt = entry.getRowKey().getStart();
-				if (!stmt.isArrayStore()) {
-					continue;
-				}
-
-				Val arrayBase = stmt.getLeftOp().getArrayBase().getX();
-				Integer index = stmt.getLeftOp().getArrayBase().getY();
-				if (!arrayBase.equals(allocVal.getDelegate())) {
-					continue;
-				}
-
-				// TODO
-				ControlFlowGraph.Edge edge = new ControlFlowGraph.Edge(stmt.getMethod().getControlFlowGraph().getPredsOf(stmt).stream().findFirst().get(), stmt);
-				BackwardQuery backwardQuery = BackwardQuery.make(edge, stmt.getRightOp());
-
-				Boomerang indexSolver = new Boomerang(context.getObject().getScanner().callGraph(), context.getObject().getScanner().getDataFlowScope(), new IntAndStringBoomerangOptions());
-				BackwardBoomerangResults<?> indexValue = indexSolver.solve(backwardQuery);
-
-				for (ForwardQuery allocSite : indexValue.getAllocationSites().keySet()) {
-					Statement allocStmt = allocSite.cfgEdge().getStart();
-
-					if (!allocStmt.isAssign()) {
-						continue;
-					}
-
-					result.put(index, allocStmt.getRightOp());
-				}
-			}
-		}
-
-		return result;
+		return context.getObject().getScanner().getArrayContentsCache().getArrayContents(extractedValue.stmt());
 	}
 
 	/**
@@ -92,8 +92,8 @@ public class CrySLModelReader {
 
 	private StateMachineGraph smg = null;
 	private JvmTypeReference currentClass;
-	private final XtextResourceSet resourceSet;
 	private final Injector injector;
+	private final URLClassLoader classLoader;
 	public static final String cryslFileEnding = ".crysl";
 
 	private static final String THIS = "this";
@@ -115,11 +115,24 @@ public class CrySLModelReader {
 	public CrySLModelReader(CrySLModelReaderClassPath classPath) {
 		CrySLStandaloneSetup crySLStandaloneSetup = new CrySLStandaloneSetup();
 		this.injector = crySLStandaloneSetup.createInjectorAndDoEMFRegistration();
-		this.resourceSet = injector.getInstance(XtextResourceSet.class);
 		URL[] classpath = classPath.getClassPath();
-		URLClassLoader ucl = new URLClassLoader(classpath);
-		this.resourceSet.setClasspathURIContext(new URLClassLoader(classpath));
-		new ClasspathTypeProvider(ucl, this.resourceSet, null, null);
+		this.classLoader = new URLClassLoader(classpath);
+	}
+
+	/**
+	 * Creates a new resource set that uses the reader's injector and class loader. Creating the injector is
+	 * expensive, so it is shared by all rules read with this reader. However, each rule is read into its own
+	 * resource set: Xtext links references against all resources in a set (i.e. a rule could refer to events
+	 * of another rule) and creating a rule modifies the declaring types of the referenced JVM operations.
+	 *
+	 * @return the new resource set
+	 */
+	private XtextResourceSet createResourceSet() {
+		XtextResourceSet resourceSet = injector.getInstance(XtextResourceSet.class);
+		resourceSet.setClasspathURIContext(classLoader);
+		new ClasspathTypeProvider(classLoader, resourceSet, null, null);
+
+		return resourceSet;
 	}
 	
 	/**
@@ -130,7 +143,8 @@ public class CrySLModelReader {
 	 */
 	public Collection<CrySLRule> readRulesFromFiles(Collection<File> files) {
 		Map<String, CrySLRule> ruleMap = new HashMap<String, CrySLRule>();
-		
+		XtextResourceSet resourceSet = createResourceSet();
+
 		for (File file : files) {
 			resourceSet.getResource(URI.createFileURI(file.getAbsolutePath()), true);
 		}
@@ -178,12 +192,8 @@ public class CrySLModelReader {
 		}
 
 		URI uri = URI.createURI(virtualFileName);
-		Resource resource = resourceSet.getURIResourceMap().get(uri);
-		
-		if (resource == null) {
-			resource = resourceSet.createResource(uri);
-			resource.load(stream, Collections.EMPTY_MAP);
-		}
+		Resource resource = createResourceSet().createResource(uri);
+		resource.load(stream, Collections.EMPTY_MAP);
 
 		return createRuleFromResource(resource);
 	}
@@ -196,7 +206,7 @@ public class CrySLModelReader {
 	 * @throws CryptoAnalysisException If the file is not a .crysl file
 	 */
 	public CrySLRule readRule(File ruleFile) throws CryptoAnalysisException {
-		Resource resource = resourceSet.getResource(URI.createFileURI(ruleFile.getAbsolutePath()), true);
+		Resource resource = createResourceSet().getResource(URI.createFileURI(ruleFile.getAbsolutePath()), true);
 
 		return createRuleFromResource(resource);
 	}
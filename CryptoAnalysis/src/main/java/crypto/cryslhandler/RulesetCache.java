@@ -0,0 +1,201 @@
+package crypto.cryslhandler;
+
+import crypto.rules.CrySLRule;
+import de.darmstadt.tu.crossing.CrySLStandaloneSetup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+
+/**
+ * Stores the rules of a ruleset in a binary file, such that later runs do not have to parse and validate
+ * the CrySL files with Xtext again. The cache files are named by the SHA-256 hash of the ruleset's content,
+ * i.e. a modified ruleset is read again from its CrySL files. The hash also covers the versions of
+ * CryptoAnalysis and the CrySL parser, such that an upgraded parser never reads rules that were created by
+ * an older one. Cache files that cannot be deserialized (e.g. because the rule classes changed in the meantime)
+ * are ignored and overwritten.
+ */
+public class RulesetCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RulesetCache.class);
+    private static final String CACHE_FILE_ENDING = ".rules";
+
+    /* Only the classes of the rule model are allowed to be deserialized from a cache file */
+    private static final ObjectInputFilter RULE_CLASSES_FILTER = ObjectInputFilter.Config.createFilter(
+            "crypto.rules.**;java.util.*;java.lang.*;com.google.common.collect.*;!*");
+
+    /* The versions of the rule model and the parser that created the cached rules */
+    private static final String CACHE_VERSION = getVersion(CrySLRule.class) + ";" + getVersion(CrySLStandaloneSetup.class);
+
+    private final File cacheDirectory;
+
+    public RulesetCache(String cacheDirectory) {
+        this.cacheDirectory = new File(cacheDirectory);
+    }
+
+    /**
+     * Reads the rules for a ruleset from the cache.
+     *
+     * @param rulesetPath the path to the ruleset (a directory or a ZIP file)
+     * @return the cached rules or null, if there are no (valid) rules in the cache
+     */
+    public Collection<CrySLRule> readRules(String rulesetPath) {
+        File cacheFile;
+        try {
+            cacheFile = getCacheFile(rulesetPath);
+        } catch (IOException e) {
+            return null;
+        }
+
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+
+        try (ObjectInputStream inputStream = new ObjectInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            inputStream.setObjectInputFilter(RULE_CLASSES_FILTER);
+            Object cachedObject = inputStream.readObject();
+
+            if (!(cachedObject instanceof Collection)) {
+                LOGGER.warn("Cache file {} does not contain any rules", cacheFile);
+                return null;
+            }
+
+            Collection<CrySLRule> rules = new HashSet<>();
+            for (Object rule : (Collection<?>) cachedObject) {
+                if (!(rule instanceof CrySLRule)) {
+                    LOGGER.warn("Cache file {} does not contain any rules", cacheFile);
+                    return null;
+                }
+                rules.add((CrySLRule) rule);
+            }
+            return rules;
+        } catch (IOException | ClassNotFoundException e) {
+            LOGGER.warn("Could not read rules from cache file {}: {}", cacheFile, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes the rules of a ruleset to the cache. The rules are written to a temporary file first, so
+     * scans running at the same time never read a partially written cache file.
+     *
+     * @param rulesetPath the path to the ruleset (a directory or a ZIP file)
+     * @param rules the rules that were read from the ruleset
+     */
+    public void writeRules(String rulesetPath, Collection<CrySLRule> rules) {
+        try {
+            File cacheFile = getCacheFile(rulesetPath);
+
+            if (!cacheDirectory.isDirectory() && !cacheDirectory.mkdirs()) {
+                throw new IOException("Could not create directory " + cacheDirectory);
+            }
+
+            File tempFile = File.createTempFile(cacheFile.getName(), null, cacheDirectory);
+            try (ObjectOutputStream outputStream = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                outputStream.writeObject(new ArrayList<>(rules));
+            }
+
+            Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Could not write rules to cache directory {}: {}", cacheDirectory, e.getMessage());
+        }
+    }
+
+    private File getCacheFile(String rulesetPath) throws IOException {
+        MessageDigest messageDigest = createMessageDigest();
+        messageDigest.update(CACHE_VERSION.getBytes(StandardCharsets.UTF_8));
+        messageDigest.update(computeRulesetHash(new File(rulesetPath)));
+
+        String hash = RulesetReader.bytesToHex(messageDigest.digest());
+        return new File(cacheDirectory, hash + CACHE_FILE_ENDING);
+    }
+
+    /**
+     * Returns the implementation version of the JAR file that contains a class. Development builds (e.g.
+     * classes from a build directory) and JAR files without a version in their manifest fall back to the
+     * location and the modification time of the class file, such that every rebuild invalidates the cache.
+     *
+     * @param clazz the class
+     * @return the version of the class' code
+     */
+    static String getVersion(Class<?> clazz) {
+        String version = clazz.getPackage() == null ? null : clazz.getPackage().getImplementationVersion();
+        if (version != null) {
+            return version;
+        }
+
+        URL classFile = clazz.getResource(clazz.getSimpleName() + ".class");
+        if (classFile == null) {
+            return clazz.getName();
+        }
+
+        try {
+            URLConnection connection = classFile.openConnection();
+            connection.setUseCaches(false);
+            return classFile + "@" + connection.getLastModified();
+        } catch (IOException e) {
+            return classFile.toString();
+        }
+    }
+
+    /**
+     * Computes the SHA-256 hash of a ruleset. For a ZIP file, the hash covers the content of the file. For
+     * a directory, the hash covers the names and contents of the files in the directory.
+     *
+     * @param ruleset the ZIP file or directory
+     * @return the hash of the ruleset
+     * @throws IOException If the ruleset cannot be read
+     */
+    public static byte[] computeRulesetHash(File ruleset) throws IOException {
+        MessageDigest messageDigest = createMessageDigest();
+
+        if (ruleset.isFile()) {
+            messageDigest.update(Files.readAllBytes(ruleset.toPath()));
+            return messageDigest.digest();
+        }
+
+        File[] files = ruleset.listFiles();
+        if (files == null) {
+            throw new IOException(ruleset + " is not a file or directory");
+        }
+
+        Arrays.sort(files, Comparator.comparing(File::getName));
+        for (File file : files) {
+            if (!file.isFile()) {
+                continue;
+            }
+
+            messageDigest.update(file.getName().getBytes());
+            messageDigest.update(Files.readAllBytes(file.toPath()));
+        }
+        return messageDigest.digest();
+    }
+
+    private static MessageDigest createMessageDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -12,6 +12,7 @@ import java.io.InputStream;
 import java.io.RandomAccessFile;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Enumeration;
@@ -24,15 +25,53 @@ public class RulesetReader {
     private static final Logger LOGGER = LoggerFactory.getLogger(RulesetReader.class);
     private static final String CRYSL_FILE_ENDING = ".crysl";
 
+    private final RulesetCache rulesetCache;
+
+    public RulesetReader() {
+        this(null);
+    }
+
+    /**
+     * Creates a reader that stores the rules from {@link #readRulesFromPath(String)} in a binary cache.
+     * Later reads of the same ruleset are served from the cache instead of parsing the CrySL files again.
+     *
+     * @param cacheDirectory the directory for the cached rules or null, if no cache should be used
+     */
+    public RulesetReader(String cacheDirectory) {
+        this.rulesetCache = cacheDirectory == null ? null : new RulesetCache(cacheDirectory);
+    }
+
     public Collection<CrySLRule> readRulesFromPath(String path) throws IOException {
+        if (rulesetCache != null) {
+            Collection<CrySLRule> cachedRules = rulesetCache.readRules(path);
+
+            if (cachedRules != null) {
+                LOGGER.info("Read {} rules for {} from cache", cachedRules.size(), path);
+                return cachedRules;
+            }
+        }
+
+        Collection<String> errors = new ArrayList<>();
+        Collection<CrySLRule> rules;
         if (isZipFile(path)) {
-            return readRulesFromZipArchive(path);
+            rules = readRulesFromZipArchive(path, errors);
+        } else {
+            rules = readRulesFromDirectory(path, errors);
         }
 
-        return readRulesFromDirectory(path);
+        // Rulesets with invalid rules are parsed again in later runs, so the errors are reported each time
+        if (rulesetCache != null && errors.isEmpty()) {
+            rulesetCache.writeRules(path, rules);
+        }
+        return rules;
     }
 
     public Collection<CrySLRule> readRulesFromDirectory(String path) throws IOException {
+        return readRulesFromDirectory(path, new ArrayList<>());
+    }
+
+    /* Collects the errors of CrySL files that could not be parsed. Other files are skipped without an error */
+    private Collection<CrySLRule> readRulesFromDirectory(String path, Collection<String> errors) throws IOException {
         File directory = new File(path);
         if (!directory.exists()) {
             throw new FileNotFoundException("Directory " + path + " does not exist");
@@ -43,15 +82,20 @@ public class RulesetReader {
         }
 
         Collection<File> files = Arrays.asList(directory.listFiles());
-        return readRulesFromFiles(files);
+        return readRulesFromFiles(files, errors);
     }
 
     public Collection<CrySLRule> readRulesFromFiles(Collection<File> files) {
+        return readRulesFromFiles(files, new ArrayList<>());
+    }
+
+    private Collection<CrySLRule> readRulesFromFiles(Collection<File> files, Collection<String> errors) {
         Collection<CrySLRule> result = new HashSet<>();
+        CrySLModelReader modelReader = new CrySLModelReader();
 
         for (File file : files) {
             try {
-                CrySLRule rule = readRuleFromFile(file);
+                CrySLRule rule = readRuleFromFile(file, modelReader);
 
                 if (result.contains(rule)) {
                     LOGGER.warn("Rule for class {} appears multiple times", rule.getClassName());
@@ -61,18 +105,35 @@ public class RulesetReader {
                 result.add(rule);
             } catch (CryptoAnalysisException e) {
                 LOGGER.error(e.getMessage());
+
+                if (file.getName().endsWith(CRYSL_FILE_ENDING)) {
+                    errors.add(e.getMessage());
+                }
             }
         }
         return result;
     }
 
     public CrySLRule readRuleFromFile(File file) throws CryptoAnalysisException {
+        return readRuleFromFile(file, new CrySLModelReader());
+    }
+
+    /**
+     * Reads a rule with an existing {@link CrySLModelReader}. Setting up a reader creates a new Xtext
+     * injector and resource set, which is much more expensive than reading a single rule. Hence, all rules
+     * from a ruleset are read with the same reader.
+     *
+     * @param file the CrySL file
+     * @param modelReader the reader that parses and validates the file
+     * @return the {@link CrySLRule} from the file
+     * @throws CryptoAnalysisException If the file is not a .crysl file or contains errors
+     */
+    private CrySLRule readRuleFromFile(File file, CrySLModelReader modelReader) throws CryptoAnalysisException {
         String fileName = file.getName();
         if (!fileName.endsWith(CRYSL_FILE_ENDING)) {
             throw new CryptoAnalysisException("The extension of " + fileName + " does not match " + CRYSL_FILE_ENDING);
         }
 
-        CrySLModelReader modelReader = new CrySLModelReader();
         return modelReader.readRule(file);
     }
 
@@ -91,8 +152,13 @@ public class RulesetReader {
     }
 
     public Collection<CrySLRule> readRulesFromZipArchive(String path) throws IOException {
+        return readRulesFromZipArchive(path, new ArrayList<>());
+    }
+
+    private Collection<CrySLRule> readRulesFromZipArchive(String path, Collection<String> errors) throws IOException {
         Collection<CrySLRule> result = new HashSet<>();
         File file = new File(path);
+        CrySLModelReader modelReader = new CrySLModelReader();
 
         try (ZipFile zipFile = new ZipFile(file)) {
             Enumeration<? extends ZipEntry> entries = zipFile.entries();
@@ -105,10 +171,14 @@ public class RulesetReader {
                 }
 
                 try {
-                    CrySLRule rule = readRuleFromZipEntry(entry, zipFile, file);
+                    CrySLRule rule = readRuleFromZipEntry(entry, zipFile, file, modelReader);
                     result.add(rule);
                 } catch (CryptoAnalysisException e) {
                     LOGGER.error(e.getMessage());
+
+                    if (entry.getName().endsWith(CRYSL_FILE_ENDING)) {
+                        errors.add(e.getMessage());
+                    }
                 }
             }
         }
@@ -116,7 +186,7 @@ public class RulesetReader {
     }
 
 
-    private CrySLRule readRuleFromZipEntry(ZipEntry entry, ZipFile zipFile, File file) throws CryptoAnalysisException {
+    private CrySLRule readRuleFromZipEntry(ZipEntry entry, ZipFile zipFile, File file, CrySLModelReader modelReader) throws CryptoAnalysisException {
         String entryName = entry.getName();
         if (entry.isDirectory() || !entryName.endsWith(CRYSL_FILE_ENDING)) {
             throw new CryptoAnalysisException("ZIP entry " + entryName + " not a CrySL file");
@@ -124,10 +194,9 @@ public class RulesetReader {
 
         try {
             String name = createUniqueZipEntryName(file, entry);
-            CrySLModelReader reader = new CrySLModelReader();
 
             InputStream inputStream = zipFile.getInputStream(entry);
-            CrySLRule rule = reader.readRule(inputStream, name);
+            CrySLRule rule = modelReader.readRule(inputStream, name);
             inputStream.close();
 
             return rule;
@@ -169,7 +238,7 @@ public class RulesetReader {
         return sb.toString();
     }
 
-    private static String bytesToHex(byte[] bytes) {
+    public static String bytesToHex(byte[] bytes) {
         StringBuilder sb = new StringBuilder();
         for (byte b : bytes)
             sb.append(String.format("%02x", b));
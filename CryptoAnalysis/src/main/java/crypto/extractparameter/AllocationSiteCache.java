@@ -0,0 +1,169 @@
+package crypto.extractparameter;
+
+import boomerang.BackwardQuery;
+import boomerang.Boomerang;
+import boomerang.ForwardQuery;
+import boomerang.results.BackwardBoomerangResults;
+import boomerang.scene.ControlFlowGraph;
+import boomerang.scene.Method;
+import boomerang.scene.Statement;
+import boomerang.scene.Type;
+import boomerang.scene.Val;
+import boomerang.scene.jimple.JimpleStatement;
+import boomerang.scene.jimple.JimpleVal;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multiset;
+import crypto.analysis.CryptoScanner;
+import soot.jimple.IdentityStmt;
+import wpds.impl.Weight.NoWeight;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Scan-wide cache for the allocation sites of parameters. Seeds of different rules often query the
+ * same parameter locals (e.g. the same algorithm String or key array). The backward query for a
+ * control flow edge and a value is solved once, all {@link ExtractParameterAnalysis} instances share
+ * the result. Only the allocation sites and propagated types are kept; the Boomerang solver is
+ * discarded after each query.
+ */
+public class AllocationSiteCache {
+
+	private final CryptoScanner scanner;
+	private final Map<BackwardQuery, AllocationSites> cache = new ConcurrentHashMap<>();
+
+	public AllocationSiteCache(CryptoScanner scanner) {
+		this.scanner = scanner;
+	}
+
+	/**
+	 * Returns the allocation sites of a value at a control flow edge. If the corresponding backward
+	 * query has not been solved yet, it is solved and its result is stored. Seeds that run in parallel
+	 * may solve the same query concurrently; in this case, the first result is kept.
+	 *
+	 * @param edge the edge whose start statement uses the value
+	 * @param val the value
+	 * @return the allocation sites and propagated types of the value
+	 */
+	public AllocationSites getAllocationSites(ControlFlowGraph.Edge edge, Val val) {
+		BackwardQuery query = BackwardQuery.make(edge, val);
+
+		AllocationSites allocationSites = cache.get(query);
+		if (allocationSites != null) {
+			return allocationSites;
+		}
+
+		AllocationSites solved = solve(query);
+		allocationSites = cache.putIfAbsent(query, solved);
+		return allocationSites == null ? solved : allocationSites;
+	}
+
+	/**
+	 * Solves the queries from the same method together. Queries for a local with a single
+	 * definition in the method have the same allocation sites, no matter at which use of the local
+	 * they start (e.g. the same key in multiple calls to Cipher.init). Hence, such queries are
+	 * solved once and the result is stored for all of them. All other queries are solved on demand.
+	 * The {@link CryptoScanner} passes the queries of all seeds if
+	 * {@link CryptoScanner#isBatchParameterQueries()} is enabled.
+	 *
+	 * @param method the method that contains the edges of the queries
+	 * @param queries the queries to solve together
+	 */
+	public void solveBatch(Method method, Collection<BackwardQuery> queries) {
+		Multimap<Val, BackwardQuery> queriesPerVal = LinkedHashMultimap.create();
+		for (BackwardQuery query : queries) {
+			if (!cache.containsKey(query)) {
+				queriesPerVal.put(query.var(), query);
+			}
+		}
+
+		Multiset<Val> definitions = null;
+		for (Map.Entry<Val, Collection<BackwardQuery>> entry : queriesPerVal.asMap().entrySet()) {
+			if (entry.getValue().size() < 2) {
+				continue;
+			}
+
+			if (definitions == null) {
+				definitions = countDefinitions(method);
+			}
+
+			if (definitions.count(entry.getKey()) != 1) {
+				continue;
+			}
+
+			Iterator<BackwardQuery> iterator = entry.getValue().iterator();
+			BackwardQuery representative = iterator.next();
+			AllocationSites allocationSites = getAllocationSites(representative.cfgEdge(), representative.var());
+
+			while (iterator.hasNext()) {
+				cache.putIfAbsent(iterator.next(), allocationSites);
+			}
+		}
+	}
+
+	/**
+	 * Removes all results from the cache. The {@link CryptoScanner} clears the cache after each scan,
+	 * such that the results do not outlive the call graph they were computed for.
+	 */
+	public void clear() {
+		cache.clear();
+	}
+
+	private static Multiset<Val> countDefinitions(Method method) {
+		Multiset<Val> definitions = HashMultiset.create();
+
+		for (Statement statement : method.getStatements()) {
+			if (statement.isAssign()) {
+				definitions.add(statement.getLeftOp());
+			} else if (statement.isIdentityStmt() && statement instanceof JimpleStatement) {
+				IdentityStmt identityStmt = (IdentityStmt) ((JimpleStatement) statement).getDelegate();
+				definitions.add(new JimpleVal(identityStmt.getLeftOp(), method));
+			}
+		}
+		return definitions;
+	}
+
+	private AllocationSites solve(BackwardQuery query) {
+		ExtractParameterOptions options = new ExtractParameterOptions(scanner.getTimeout());
+		Boomerang boomerang = new Boomerang(scanner.callGraph(), scanner.getDataFlowScope(), options);
+
+		BackwardBoomerangResults<NoWeight> results = boomerang.solve(query);
+		AllocationSites allocationSites = new AllocationSites(results.getAllocationSites().keySet(), results.getPropagationType(), results.isTimedout());
+
+		boomerang.unregisterAllListeners();
+		return allocationSites;
+	}
+
+	/**
+	 * The result of a backward query for the allocation sites of a value.
+	 */
+	public static class AllocationSites {
+
+		private final Collection<ForwardQuery> sites;
+		private final Collection<Type> propagationTypes;
+		private final boolean timedOut;
+
+		private AllocationSites(Collection<ForwardQuery> sites, Collection<Type> propagationTypes, boolean timedOut) {
+			this.sites = ImmutableSet.copyOf(sites);
+			this.propagationTypes = ImmutableSet.copyOf(propagationTypes);
+			this.timedOut = timedOut;
+		}
+
+		public Collection<ForwardQuery> getSites() {
+			return sites;
+		}
+
+		public Collection<Type> getPropagationTypes() {
+			return propagationTypes;
+		}
+
+		public boolean isTimedOut() {
+			return timedOut;
+		}
+	}
+}
@@ -1,12 +1,11 @@
 package crypto.extractparameter;
 
 import boomerang.BackwardQuery;
-import boomerang.Boomerang;
 import boomerang.ForwardQuery;
-import boomerang.results.BackwardBoomerangResults;
 import boomerang.scene.AllocVal;
 import boomerang.scene.ControlFlowGraph;
 import boomerang.scene.DeclaredMethod;
+import boomerang.scene.Method;
 import boomerang.scene.Statement;
 import boomerang.scene.Type;
 import boomerang.scene.Val;
@@ -16,20 +15,20 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import crypto.analysis.AnalysisSeedWithSpecification;
+import crypto.extractparameter.AllocationSiteCache.AllocationSites;
 import crypto.rules.CrySLMethod;
 import crypto.typestate.LabeledMatcherTransition;
-import crypto.typestate.MatcherTransitionCollection;
 import heros.utilities.DefaultValueMap;
 import soot.Scene;
-import wpds.impl.Weight.NoWeight;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
 
 public class ExtractParameterAnalysis {
 
-	private final Collection<LabeledMatcherTransition> events = Sets.newHashSet();
+	private final Collection<LabeledMatcherTransition> events;
 	private final Multimap<CallSiteWithParamIndex, ExtractedValue> collectedValues = HashMultimap.create();
 	private final Collection<CallSiteWithParamIndex> querySites = Sets.newHashSet();
 	private final Multimap<CallSiteWithParamIndex, Type> propagatedTypes = HashMultimap.create();
@@ -45,12 +44,48 @@ public class ExtractParameterAnalysis {
 	public ExtractParameterAnalysis(AnalysisSeedWithSpecification seed) {
 		this.seed = seed;
 
-		MatcherTransitionCollection matcherTransitions = MatcherTransitionCollection.makeCollection(seed.getSpecification().getUsagePattern());
-		this.events.addAll(matcherTransitions.getAllTransitions());
+		// The transitions are compiled once per rule and shared by all seeds
+		this.events = seed.getScanner().getRuleTransitions(seed.getSpecification()).getAllTransitions();
 	}
 
 	public void run() {
-		for (Map.Entry<ControlFlowGraph.Edge, DeclaredMethod> stmt : seed.getAllCallsOnObject().entrySet()) {
+		for (CallSiteWithParamIndex callSite : getParameterCallSites(seed.getAllCallsOnObject())) {
+			addQueryAtCallSite(callSite.getVarName(), callSite.stmt(), callSite.getIndex());
+		}
+
+		for (AdditionalBoomerangQuery q : additionalBoomerangQuery.keySet()) {
+			q.solve();
+		}
+	}
+
+	/**
+	 * Returns the backward queries that {@link #run()} solves for the given calls on the seed's object.
+	 * The queries are not solved, i.e. they can be collected from all seeds and solved together (see
+	 * {@link AllocationSiteCache#solveBatch(Method, Collection)}).
+	 *
+	 * @param callsOnObject the calls on the seed's object
+	 * @return the backward queries for the parameters of the calls
+	 */
+	public Collection<BackwardQuery> getQueries(Map<ControlFlowGraph.Edge, DeclaredMethod> callsOnObject) {
+		Collection<BackwardQuery> queries = new ArrayList<>();
+
+		for (CallSiteWithParamIndex callSite : getParameterCallSites(callsOnObject)) {
+			if (!callSite.fact().isLocal()) {
+				continue;
+			}
+
+			Statement statement = callSite.stmt();
+			for (Statement pred : statement.getMethod().getControlFlowGraph().getPredsOf(statement)) {
+				queries.add(BackwardQuery.make(new ControlFlowGraph.Edge(pred, statement), callSite.fact()));
+			}
+		}
+		return queries;
+	}
+
+	private Collection<CallSiteWithParamIndex> getParameterCallSites(Map<ControlFlowGraph.Edge, DeclaredMethod> callsOnObject) {
+		Collection<CallSiteWithParamIndex> callSites = new ArrayList<>();
+
+		for (Map.Entry<ControlFlowGraph.Edge, DeclaredMethod> stmt : callsOnObject.entrySet()) {
 			Statement statement = stmt.getKey().getStart();
 
 			if (!statement.containsInvokeExpr()) {
@@ -60,14 +95,18 @@ public class ExtractParameterAnalysis {
 			DeclaredMethod declaredMethod = stmt.getValue();
 			for (LabeledMatcherTransition e : events) {
 				Optional<CrySLMethod> matchingMethod = e.getMatching(declaredMethod);
+				if (!matchingMethod.isPresent()) {
+					continue;
+				}
 
-                matchingMethod.ifPresent(crySLMethod -> injectQueryAtCallSite(crySLMethod, statement));
+				int index = 0;
+				for (Map.Entry<String, String> param : matchingMethod.get().getParameters()) {
+					callSites.add(new CallSiteWithParamIndex(statement, statement.getInvokeExpr().getArg(index), index, param.getKey()));
+					index++;
+				}
 			}
 		}
-
-		for (AdditionalBoomerangQuery q : additionalBoomerangQuery.keySet()) {
-			q.solve();
-		}
+		return callSites;
 	}
 
 	public Multimap<CallSiteWithParamIndex, ExtractedValue> getCollectedValues() {
@@ -82,10 +121,12 @@ public class ExtractParameterAnalysis {
 		return querySites;
 	}
 
-	private void injectQueryAtCallSite(CrySLMethod match, Statement callSite) {
-		int index = 0;
-		for (Map.Entry<String, String> param : match.getParameters())
-			addQueryAtCallSite(param.getKey(), callSite, index++);
+	/**
+	 * Drops the Boomerang queries and their results after the analysis has been run. The collected
+	 * values, query sites and propagated types remain available.
+	 */
+	public void releaseQueries() {
+		additionalBoomerangQuery.clear();
 	}
 
 	public void addQueryAtCallSite(String varNameInSpecification, Statement statement, int index) {
@@ -107,16 +148,16 @@ public class ExtractParameterAnalysis {
 			CallSiteWithParamIndex callSiteWithParamIndex = new CallSiteWithParamIndex(statement, parameter, index, varNameInSpecification);
 			querySites.add(callSiteWithParamIndex);
 			query.addListener((q, res) -> {
-                propagatedTypes.putAll(callSiteWithParamIndex, res.getPropagationType());
+                propagatedTypes.putAll(callSiteWithParamIndex, res.getPropagationTypes());
 
 				// If the allocation site could not be extracted, add the zero value for indication
-				if (res.getAllocationSites().keySet().isEmpty()) {
+				if (res.getSites().isEmpty()) {
 					ExtractedValue zeroValue = new ExtractedValue(callSiteWithParamIndex.stmt(), Val.zero());
 					collectedValues.put(callSiteWithParamIndex, zeroValue);
 					return;
 				}
 
-                for (ForwardQuery v : res.getAllocationSites().keySet()) {
+                for (ForwardQuery v : res.getSites()) {
 					ExtractedValue extractedValue;
                     if (v.var() instanceof AllocVal) {
                         AllocVal allocVal = (AllocVal) v.var();
@@ -145,7 +186,7 @@ public class ExtractParameterAnalysis {
 	private class AdditionalBoomerangQuery extends BackwardQuery {
 
 		private final Collection<QueryListener> listeners = Lists.newLinkedList();
-		private BackwardBoomerangResults<NoWeight> res;
+		private AllocationSites res;
 		private boolean solved;
 
 		public AdditionalBoomerangQuery(ControlFlowGraph.Edge stmt, Val variable) {
@@ -153,11 +194,10 @@ public class ExtractParameterAnalysis {
 		}
 
 		public void solve() {
-			ExtractParameterOptions options = new ExtractParameterOptions(seed.getScanner().getTimeout());
-			Boomerang boomerang = new Boomerang(seed.getScanner().callGraph(), seed.getScanner().getDataFlowScope(), options);
-			res = boomerang.solve(this);
+			// The allocation sites are shared by all seeds that query the same value at the same edge
+			res = seed.getScanner().getAllocationSiteCache().getAllocationSites(cfgEdge(), var());
 
-			if (res.isTimedout()) {
+			if (res.isTimedOut()) {
 				seed.getScanner().getAnalysisReporter().onExtractParameterAnalysisTimeout(seed, var(), cfgEdge().getTarget());
 			}
 
@@ -165,7 +205,6 @@ public class ExtractParameterAnalysis {
 				l.solved(this, res);
 			}
 			solved = true;
-			boomerang.unregisterAllListeners();
 		}
 
 		public void addListener(QueryListener q) {
@@ -179,7 +218,7 @@ public class ExtractParameterAnalysis {
 	}
 
 	private interface QueryListener {
-		void solved(AdditionalBoomerangQuery q, BackwardBoomerangResults<NoWeight> res);
+		void solved(AdditionalBoomerangQuery q, AllocationSites res);
 	}
 
 }
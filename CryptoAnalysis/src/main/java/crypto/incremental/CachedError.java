@@ -0,0 +1,48 @@
+package crypto.incremental;
+
+import boomerang.scene.Statement;
+import crypto.analysis.errors.AbstractError;
+import crypto.rules.CrySLRule;
+
+/**
+ * An error that has been reported in a previous run and is reported again without analyzing its
+ * seed. The error has no seed, its type and message are the ones of the original error.
+ */
+public class CachedError extends AbstractError {
+
+    private final CachedFinding finding;
+
+    public CachedError(Statement errorStmt, CrySLRule rule, CachedFinding finding) {
+        super(null, errorStmt, rule);
+
+        this.finding = finding;
+    }
+
+    public CachedFinding getFinding() {
+        return finding;
+    }
+
+    @Override
+    public String getErrorType() {
+        return finding.getErrorType();
+    }
+
+    @Override
+    public String toErrorMarkerString() {
+        return finding.getErrorMarker();
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + finding.getErrorMarker().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!super.equals(obj)) return false;
+
+        CachedError other = (CachedError) obj;
+        return finding.getErrorType().equals(other.getFinding().getErrorType())
+                && finding.getErrorMarker().equals(other.getFinding().getErrorMarker());
+    }
+}
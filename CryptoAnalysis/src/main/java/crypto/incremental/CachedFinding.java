@@ -0,0 +1,77 @@
+package crypto.incremental;
+
+import boomerang.scene.Method;
+import boomerang.scene.Statement;
+import crypto.analysis.errors.AbstractError;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Serializable representation of an error that has been reported in a previous run. The error
+ * statement is stored as index into the statements of its method, such that the statement can
+ * be located again as long as the class of the method did not change.
+ */
+public class CachedFinding implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String errorType;
+    private final String ruleClassName;
+    private final String methodSignature;
+    private final int statementIndex;
+    private final String seedMethodSignature;
+    private final String errorMarker;
+
+    public CachedFinding(String errorType, String ruleClassName, String methodSignature, int statementIndex, String seedMethodSignature, String errorMarker) {
+        this.errorType = errorType;
+        this.ruleClassName = ruleClassName;
+        this.methodSignature = methodSignature;
+        this.statementIndex = statementIndex;
+        this.seedMethodSignature = seedMethodSignature;
+        this.errorMarker = errorMarker;
+    }
+
+    /**
+     * Creates the representation of an error that has been reported in this run.
+     *
+     * @param error the reported error
+     * @return the finding or null, if the error statement cannot be located in its method
+     */
+    public static CachedFinding of(AbstractError error) {
+        Method method = error.getMethod();
+        List<Statement> statements = method.getStatements();
+        int statementIndex = statements.indexOf(error.getErrorStatement());
+
+        if (statementIndex < 0) {
+            return null;
+        }
+
+        String ruleClassName = error.getRule() == null ? null : error.getRule().getClassName();
+        return new CachedFinding(error.getErrorType(), ruleClassName, method.toString(), statementIndex, IncrementalAnalysis.getSeedMethod(error), error.toErrorMarkerString());
+    }
+
+    public String getErrorType() {
+        return errorType;
+    }
+
+    public String getRuleClassName() {
+        return ruleClassName;
+    }
+
+    public String getMethodSignature() {
+        return methodSignature;
+    }
+
+    public int getStatementIndex() {
+        return statementIndex;
+    }
+
+    public String getSeedMethodSignature() {
+        return seedMethodSignature;
+    }
+
+    public String getErrorMarker() {
+        return errorMarker;
+    }
+}
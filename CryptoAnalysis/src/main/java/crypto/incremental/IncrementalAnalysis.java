@@ -0,0 +1,537 @@
+package crypto.incremental;
+
+import boomerang.scene.Method;
+import boomerang.scene.Statement;
+import boomerang.scene.WrappedClass;
+import boomerang.scene.jimple.JimpleMethod;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
+import crypto.analysis.errors.AbstractError;
+import crypto.cryslhandler.RulesetCache;
+import crypto.cryslhandler.RulesetReader;
+import crypto.rules.CrySLRule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.Edge;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Restricts an analysis run to the parts of the application that changed since the previous run.
+ * The state of a run (hashes of the application classes, the calls between the application
+ * methods and the reported findings) is stored in a file. In the next run, the classes whose hash
+ * changed are compared against the stored state:
+ * <ul>
+ *     <li>The methods of changed, new and removed classes are changed methods</li>
+ *     <li>The changed methods and their transitive callers (in the previous and the current call
+ *     graph) are affected methods. The errors of seeds in affected methods are reported from the
+ *     current run</li>
+ *     <li>The seeds in the affected methods and their transitive callees are analyzed, such that
+ *     the affected seeds still receive the predicates from the methods they call</li>
+ *     <li>The errors of all other seeds are taken from the previous run</li>
+ * </ul>
+ * If there is no state, or the state was created with another ruleset, other settings or other
+ * library classes, all seeds are analyzed.
+ */
+public class IncrementalAnalysis {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IncrementalAnalysis.class);
+
+    private static final String CLASS_FILE_ENDING = ".class";
+
+    /* Only the classes of the stored state are allowed to be deserialized from a state file */
+    private static final ObjectInputFilter STATE_CLASSES_FILTER = ObjectInputFilter.Config.createFilter(
+            "crypto.incremental.*;java.util.*;java.lang.*;!*");
+
+    private final File stateFile;
+    private final String fingerprint;
+
+    private IncrementalAnalysisState previousState;
+    private Map<String, String> classHashes;
+    private Set<String> affectedMethods;
+    private Set<String> analyzedMethods;
+
+    /**
+     * Creates an incremental analysis that stores its state in the given file.
+     *
+     * @param stateFile the file that stores the state between the runs
+     * @param rulesetPath the path to the ruleset (a directory or a ZIP file)
+     * @param libraryPath the class path of the libraries (directories and JAR files). Entries that are
+     *                    also in the application path are ignored, their classes are compared one by one
+     * @param applicationPath the class path of the application
+     * @param settings further settings that influence the findings (e.g. the call graph algorithm)
+     */
+    public IncrementalAnalysis(String stateFile, String rulesetPath, String libraryPath, String applicationPath, Collection<String> settings) {
+        this.stateFile = new File(stateFile);
+        this.fingerprint = computeFingerprint(rulesetPath, libraryPath, applicationPath, settings);
+    }
+
+    /**
+     * Compares the application classes against the state of the previous run and computes the
+     * methods whose seeds have to be analyzed. The call graph has to be constructed before.
+     *
+     * @param applicationPath the class path of the application (directories and JAR files)
+     */
+    public void computeChanges(String applicationPath) {
+        classHashes = computeClassHashes(applicationPath);
+        previousState = readState();
+
+        if (previousState == null) {
+            LOGGER.info("No previous state in {}, analyzing all seeds", stateFile);
+            return;
+        }
+
+        if (!fingerprint.equals(previousState.getFingerprint())) {
+            LOGGER.info("Ruleset, settings or libraries changed since the previous run, analyzing all seeds");
+            previousState = null;
+            return;
+        }
+
+        Set<String> changedClasses = new HashSet<>();
+        for (Map.Entry<String, String> entry : classHashes.entrySet()) {
+            if (!entry.getValue().equals(previousState.getClassHashes().get(entry.getKey()))) {
+                changedClasses.add(entry.getKey());
+            }
+        }
+
+        for (String className : previousState.getClassHashes().keySet()) {
+            if (!classHashes.containsKey(className)) {
+                changedClasses.add(className);
+            }
+        }
+
+        Map<String, Collection<String>> currentCallees = computeApplicationCallees();
+        Set<String> changedMethods = new HashSet<>();
+
+        for (String method : previousState.getCallees().keySet()) {
+            if (changedClasses.contains(getDeclaringClassName(method))) {
+                changedMethods.add(method);
+            }
+        }
+
+        for (String method : currentCallees.keySet()) {
+            if (changedClasses.contains(getDeclaringClassName(method))) {
+                changedMethods.add(method);
+            }
+        }
+
+        Map<String, Collection<String>> callers = new HashMap<>();
+        addCallers(callers, previousState.getCallees());
+        addCallers(callers, currentCallees);
+
+        affectedMethods = computeReachableMethods(changedMethods, callers);
+        analyzedMethods = computeReachableMethods(affectedMethods, currentCallees);
+
+        LOGGER.info("{} classes changed since the previous run, analyzing the seeds in {} methods", changedClasses.size(), analyzedMethods.size());
+    }
+
+    public boolean isFullAnalysis() {
+        return affectedMethods == null;
+    }
+
+    public boolean isAnalyzedMethod(Method method) {
+        if (isFullAnalysis()) {
+            return true;
+        }
+
+        return analyzedMethods.contains(method.toString());
+    }
+
+    /**
+     * Merges the errors from this run with the errors from the previous run. Errors from this run
+     * are only kept if they belong to an affected method, all other errors are restored from the
+     * previous run.
+     *
+     * @param errors the errors that have been reported in this run
+     * @param ruleset the rules that were used in this run
+     * @return the errors for the complete application
+     */
+    public Table<WrappedClass, Method, Set<AbstractError>> mergeFindings(Table<WrappedClass, Method, Set<AbstractError>> errors, Collection<CrySLRule> ruleset) {
+        if (isFullAnalysis()) {
+            return errors;
+        }
+
+        Table<WrappedClass, Method, Set<AbstractError>> mergedErrors = HashBasedTable.create();
+        for (Table.Cell<WrappedClass, Method, Set<AbstractError>> cell : errors.cellSet()) {
+            for (AbstractError error : cell.getValue()) {
+                if (isAffected(error.getMethod().toString(), getSeedMethod(error))) {
+                    addError(mergedErrors, error);
+                }
+            }
+        }
+
+        Map<String, CrySLRule> rules = new HashMap<>();
+        for (CrySLRule rule : ruleset) {
+            rules.put(rule.getClassName(), rule);
+        }
+
+        int restoredErrors = 0;
+        for (CachedFinding finding : previousState.getFindings()) {
+            if (isAffected(finding.getMethodSignature(), finding.getSeedMethodSignature())) {
+                continue;
+            }
+
+            AbstractError error = restoreError(finding, rules);
+            if (error == null) {
+                continue;
+            }
+
+            addError(mergedErrors, error);
+            restoredErrors++;
+        }
+        LOGGER.info("Restored {} errors from the previous run", restoredErrors);
+
+        return mergedErrors;
+    }
+
+    /**
+     * Stores the state of this run, such that the next run can reuse its findings.
+     *
+     * @param errors the errors for the complete application
+     */
+    public void writeState(Table<WrappedClass, Method, Set<AbstractError>> errors) {
+        Collection<CachedFinding> findings = new ArrayList<>();
+
+        for (Table.Cell<WrappedClass, Method, Set<AbstractError>> cell : errors.cellSet()) {
+            for (AbstractError error : cell.getValue()) {
+                CachedFinding finding;
+                if (error instanceof CachedError) {
+                    finding = ((CachedError) error).getFinding();
+                } else {
+                    finding = CachedFinding.of(error);
+                }
+
+                if (finding != null) {
+                    findings.add(finding);
+                }
+            }
+        }
+
+        IncrementalAnalysisState state = new IncrementalAnalysisState(fingerprint, new HashMap<>(classHashes), computeApplicationCallees(), findings);
+        try {
+            File directory = stateFile.getAbsoluteFile().getParentFile();
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Could not create directory " + directory);
+            }
+
+            File tempFile = File.createTempFile(stateFile.getName(), null, directory);
+            try (ObjectOutputStream outputStream = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                outputStream.writeObject(state);
+            }
+
+            Files.move(tempFile.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Could not write state to {}: {}", stateFile, e.getMessage());
+        }
+    }
+
+    static String getSeedMethod(AbstractError error) {
+        if (error.getSeed() == null) {
+            return error.getMethod().toString();
+        }
+        return error.getSeed().getMethod().toString();
+    }
+
+    private boolean isAffected(String errorMethod, String seedMethod) {
+        return affectedMethods.contains(errorMethod) || affectedMethods.contains(seedMethod);
+    }
+
+    private AbstractError restoreError(CachedFinding finding, Map<String, CrySLRule> rules) {
+        SootMethod sootMethod = Scene.v().grabMethod(finding.getMethodSignature());
+        if (sootMethod == null || !sootMethod.isConcrete()) {
+            return null;
+        }
+
+        List<Statement> statements = JimpleMethod.of(sootMethod).getStatements();
+        if (finding.getStatementIndex() >= statements.size()) {
+            return null;
+        }
+
+        CrySLRule rule = null;
+        if (finding.getRuleClassName() != null) {
+            rule = rules.get(finding.getRuleClassName());
+
+            if (rule == null) {
+                return null;
+            }
+        }
+
+        return new CachedError(statements.get(finding.getStatementIndex()), rule, finding);
+    }
+
+    private static void addError(Table<WrappedClass, Method, Set<AbstractError>> errors, AbstractError error) {
+        WrappedClass wrappedClass = error.getMethod().getDeclaringClass();
+        Method method = error.getMethod();
+
+        Set<AbstractError> methodErrors = errors.get(wrappedClass, method);
+        if (methodErrors == null) {
+            methodErrors = new HashSet<>();
+            errors.put(wrappedClass, method, methodErrors);
+        }
+        methodErrors.add(error);
+    }
+
+    private IncrementalAnalysisState readState() {
+        if (!stateFile.isFile()) {
+            return null;
+        }
+
+        try (ObjectInputStream inputStream = new ObjectInputStream(new BufferedInputStream(new FileInputStream(stateFile)))) {
+            inputStream.setObjectInputFilter(STATE_CLASSES_FILTER);
+            Object state = inputStream.readObject();
+
+            if (!(state instanceof IncrementalAnalysisState)) {
+                LOGGER.warn("File {} does not contain a state of a previous run", stateFile);
+                return null;
+            }
+            return (IncrementalAnalysisState) state;
+        } catch (IOException | ClassNotFoundException e) {
+            LOGGER.warn("Could not read state from {}: {}", stateFile, e.getMessage());
+            return null;
+        }
+    }
+
+    private static Map<String, Collection<String>> computeApplicationCallees() {
+        Map<String, Collection<String>> callees = new HashMap<>();
+        CallGraph callGraph = Scene.v().getCallGraph();
+
+        for (SootClass sootClass : Scene.v().getApplicationClasses()) {
+            for (SootMethod sootMethod : sootClass.getMethods()) {
+                Collection<String> methodCallees = new HashSet<>();
+
+                Iterator<Edge> edges = callGraph.edgesOutOf(sootMethod);
+                while (edges.hasNext()) {
+                    SootMethod callee = edges.next().tgt();
+
+                    if (callee.getDeclaringClass().isApplicationClass()) {
+                        methodCallees.add(callee.getSignature());
+                    }
+                }
+                callees.put(sootMethod.getSignature(), methodCallees);
+            }
+        }
+        return callees;
+    }
+
+    private static void addCallers(Map<String, Collection<String>> callers, Map<String, Collection<String>> callees) {
+        for (Map.Entry<String, Collection<String>> entry : callees.entrySet()) {
+            for (String callee : entry.getValue()) {
+                callers.computeIfAbsent(callee, k -> new HashSet<>()).add(entry.getKey());
+            }
+        }
+    }
+
+    private static Set<String> computeReachableMethods(Collection<String> methods, Map<String, Collection<String>> edges) {
+        Set<String> reachableMethods = new HashSet<>(methods);
+        Deque<String> worklist = new ArrayDeque<>(methods);
+
+        while (!worklist.isEmpty()) {
+            String method = worklist.pop();
+
+            for (String successor : edges.getOrDefault(method, Collections.emptySet())) {
+                if (reachableMethods.add(successor)) {
+                    worklist.push(successor);
+                }
+            }
+        }
+        return reachableMethods;
+    }
+
+    private static String getDeclaringClassName(String methodSignature) {
+        // Signatures have the form <className: returnType methodName(parameters)>
+        int separator = methodSignature.indexOf(':');
+        if (separator < 1) {
+            return methodSignature;
+        }
+        return methodSignature.substring(1, separator);
+    }
+
+    private static Map<String, String> computeClassHashes(String applicationPath) {
+        Map<String, String> hashes = new HashMap<>();
+
+        for (String path : applicationPath.split(File.pathSeparator)) {
+            File file = new File(path);
+
+            try {
+                if (file.isDirectory()) {
+                    hashClassesInDirectory(file.toPath(), hashes);
+                } else if (file.isFile()) {
+                    hashClassesInJar(file, hashes);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Could not compute the hashes of the classes in " + path + ": " + e.getMessage());
+            }
+        }
+        return hashes;
+    }
+
+    private static void hashClassesInDirectory(Path directory, Map<String, String> hashes) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            Iterator<Path> iterator = files.iterator();
+
+            while (iterator.hasNext()) {
+                Path file = iterator.next();
+                String relativePath = directory.relativize(file).toString().replace(File.separatorChar, '/');
+
+                if (!Files.isRegularFile(file) || !isClassFile(relativePath)) {
+                    continue;
+                }
+
+                try (InputStream inputStream = Files.newInputStream(file)) {
+                    hashes.put(toClassName(relativePath), computeHash(inputStream));
+                }
+            }
+        }
+    }
+
+    private static void hashClassesInJar(File jar, Map<String, String> hashes) throws IOException {
+        try (JarFile jarFile = new JarFile(jar)) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+
+                if (entry.isDirectory() || !isClassFile(entry.getName())) {
+                    continue;
+                }
+
+                try (InputStream inputStream = jarFile.getInputStream(entry)) {
+                    hashes.put(toClassName(entry.getName()), computeHash(inputStream));
+                }
+            }
+        }
+    }
+
+    private static boolean isClassFile(String path) {
+        return path.endsWith(CLASS_FILE_ENDING) && !path.endsWith("module-info" + CLASS_FILE_ENDING);
+    }
+
+    private static String toClassName(String path) {
+        return path.substring(0, path.length() - CLASS_FILE_ENDING.length()).replace('/', '.');
+    }
+
+    private static String computeHash(InputStream inputStream) throws IOException {
+        MessageDigest messageDigest = createMessageDigest();
+        messageDigest.update(inputStream.readAllBytes());
+
+        return RulesetReader.bytesToHex(messageDigest.digest());
+    }
+
+    private static String computeFingerprint(String rulesetPath, String libraryPath, String applicationPath, Collection<String> settings) {
+        StringBuilder builder = new StringBuilder();
+
+        try {
+            builder.append(RulesetReader.bytesToHex(RulesetCache.computeRulesetHash(new File(rulesetPath))));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not compute the hash of the ruleset " + rulesetPath + ": " + e.getMessage());
+        }
+
+        try {
+            builder.append(";").append(computeLibraryHash(libraryPath, applicationPath));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not compute the hash of the libraries " + libraryPath + ": " + e.getMessage());
+        }
+
+        for (String setting : settings) {
+            builder.append(";").append(setting);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Computes a hash over the library files, such that a library that is replaced at the same path
+     * (e.g. a dependency upgrade) invalidates the previous findings. The hash covers the paths, the
+     * modification times and the contents of the files.
+     *
+     * @param libraryPath the class path of the libraries
+     * @param applicationPath the class path of the application, whose entries are skipped
+     * @return the hash of the libraries
+     * @throws IOException If a library cannot be read
+     */
+    private static String computeLibraryHash(String libraryPath, String applicationPath) throws IOException {
+        MessageDigest messageDigest = createMessageDigest();
+        if (libraryPath == null || libraryPath.isEmpty()) {
+            return RulesetReader.bytesToHex(messageDigest.digest());
+        }
+
+        Set<String> applicationEntries = new HashSet<>();
+        for (String path : applicationPath.split(File.pathSeparator)) {
+            applicationEntries.add(new File(path).getAbsolutePath());
+        }
+
+        for (String path : libraryPath.split(File.pathSeparator)) {
+            File file = new File(path);
+
+            if (applicationEntries.contains(file.getAbsolutePath())) {
+                continue;
+            }
+
+            if (file.isDirectory()) {
+                try (Stream<Path> files = Files.walk(file.toPath())) {
+                    Iterator<Path> iterator = files.filter(Files::isRegularFile).sorted().iterator();
+
+                    while (iterator.hasNext()) {
+                        updateLibraryHash(messageDigest, iterator.next().toFile());
+                    }
+                }
+            } else if (file.isFile()) {
+                updateLibraryHash(messageDigest, file);
+            }
+        }
+        return RulesetReader.bytesToHex(messageDigest.digest());
+    }
+
+    private static void updateLibraryHash(MessageDigest messageDigest, File file) throws IOException {
+        messageDigest.update(file.getAbsolutePath().getBytes());
+        messageDigest.update(Long.toString(file.lastModified()).getBytes());
+
+        byte[] buffer = new byte[8192];
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                messageDigest.update(buffer, 0, read);
+            }
+        }
+    }
+
+    private static MessageDigest createMessageDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package crypto.incremental;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * The state of an analysis run that is stored for the next run: The hashes of the application
+ * classes, the calls between the application methods and the reported findings. The fingerprint
+ * covers the ruleset and the settings, i.e. a state is only reused if both did not change.
+ */
+public class IncrementalAnalysisState implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String fingerprint;
+    private final Map<String, String> classHashes;
+    private final Map<String, Collection<String>> callees;
+    private final Collection<CachedFinding> findings;
+
+    public IncrementalAnalysisState(String fingerprint, Map<String, String> classHashes, Map<String, Collection<String>> callees, Collection<CachedFinding> findings) {
+        this.fingerprint = fingerprint;
+        this.classHashes = classHashes;
+        this.callees = callees;
+        this.findings = findings;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public Map<String, String> getClassHashes() {
+        return classHashes;
+    }
+
+    public Map<String, Collection<String>> getCallees() {
+        return callees;
+    }
+
+    public Collection<CachedFinding> getFindings() {
+        return findings;
+    }
+}
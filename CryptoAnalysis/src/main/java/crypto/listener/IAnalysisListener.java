@@ -9,6 +9,22 @@ import java.util.Collection;
 
 public interface IAnalysisListener {
 
+    void beforeSootSetup();
+
+    void afterSootSetup();
+
+    void beforeCallGraphConstruction();
+
+    void afterCallGraphConstruction();
+
+    void beforeReadingRuleset();
+
+    void afterReadingRuleset();
+
+    void beforePreTransformation();
+
+    void afterPreTransformation();
+
     void beforeAnalysis();
 
     void afterAnalysis();
@@ -23,10 +39,16 @@ public interface IAnalysisListener {
 
     void onSeedFinished(IAnalysisSeed analysisSeed);
 
+    void onTypestateAnalysisFinished(IAnalysisSeed analysisSeed, long durationInNanos);
+
     void onTypestateAnalysisTimeout(IAnalysisSeed analysisSeed);
 
     void onExtractParameterAnalysisTimeout(IAnalysisSeed analysisSeed, Val parameter, Statement statement);
 
+    void beforeExtractParameterAnalysis(IAnalysisSeed analysisSeed);
+
+    void afterExtractParameterAnalysis(IAnalysisSeed analysisSeed);
+
     void beforeConstraintsCheck(IAnalysisSeed analysisSeed);
 
     void afterConstraintsCheck(IAnalysisSeed analysisSeed, int violatedConstraints);
@@ -0,0 +1,60 @@
+package crypto.preanalysis;
+
+import soot.IFoundFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.util.zip.ZipFile;
+
+/**
+ * Wraps the bytes of a class file that has already been read, such that Soot can read it like a
+ * file from the classpath.
+ */
+class InMemoryFoundFile implements IFoundFile {
+
+	private static final String CLASS_FILE_ENDING = ".class";
+
+	private final String className;
+	private final byte[] classFile;
+
+	InMemoryFoundFile(String className, byte[] classFile) {
+		this.className = className;
+		this.classFile = classFile;
+	}
+
+	@Override
+	public String getFilePath() {
+		return className.replace('.', '/') + CLASS_FILE_ENDING;
+	}
+
+	@Override
+	public boolean isZipFile() {
+		return false;
+	}
+
+	@Override
+	public ZipFile getZipFile() {
+		return null;
+	}
+
+	@Override
+	public File getFile() {
+		return null;
+	}
+
+	@Override
+	public String getAbsolutePath() {
+		return getFilePath();
+	}
+
+	@Override
+	public InputStream inputStream() {
+		return new ByteArrayInputStream(classFile);
+	}
+
+	@Override
+	public void close() {
+		// Nothing to close
+	}
+}
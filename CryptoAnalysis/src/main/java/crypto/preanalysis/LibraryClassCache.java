@@ -0,0 +1,498 @@
+package crypto.preanalysis;
+
+import crypto.cryslhandler.RulesetReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import soot.ClassProvider;
+import soot.ClassSource;
+import soot.asm.AsmClassSource;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Class provider for Soot that locates the library classes with indexes from a cache directory. The
+ * provider stores the names of the classes in a jar file in a cache file that is named by the SHA-256
+ * hash of the jar's content. The classes of the runtime image are stored with their modules in a cache
+ * file for the running JDK. The indexes are read when a class is looked up for the first time, and each
+ * lookup only reads the class file from the library that contains the class. The cache only replaces
+ * the lookup of the classes, Soot still parses each class file that it resolves.
+ *
+ * <p>Each cache file starts with the number of its entries. A cache file whose number does not match
+ * its content (e.g. a truncated file) is ignored and written again.</p>
+ *
+ * <p>The directories and the application path are not cached, i.e. the application classes are always
+ * read fresh. The classpath entries are searched in the same order as Soot does: the entries of the
+ * classpath first, then the runtime image.</p>
+ */
+public class LibraryClassCache implements ClassProvider, Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(LibraryClassCache.class);
+
+	private static final String JDK_CLASSPATH_ENTRY = "VIRTUAL_FS_FOR_JDK";
+	private static final String CLASS_FILE_ENDING = ".class";
+	private static final String CACHE_FILE_ENDING = ".classes";
+	private static final String CACHE_FILE_HEADER = "entries\t";
+
+	/* Maps the path, size and modification time of a jar file to the hash of its content */
+	private static final String JAR_HASHES_FILE = "jars.index";
+
+	private final File cacheDirectory;
+	private final List<ClassPathEntry> entries;
+
+	private final Map<String, String> jarHashes;
+	private boolean jarHashesChanged = false;
+
+	private LibraryClassCache(File cacheDirectory) {
+		this.cacheDirectory = cacheDirectory;
+		this.entries = new ArrayList<>();
+		this.jarHashes = readJarHashes(new File(cacheDirectory, JAR_HASHES_FILE));
+	}
+
+	/**
+	 * Creates the provider for the entries of Soot's classpath. The jar files on the application path
+	 * are searched, but their indexes are not written to the cache.
+	 *
+	 * @param sootClassPath the classpath that Soot uses to resolve the classes (see
+	 *                      {@link soot.Scene#getSootClassPath()})
+	 * @param applicationPath the directories and jar files with the application classes
+	 * @param cacheDirectory the directory with the cached indexes
+	 * @return the provider for the classes on the classpath
+	 */
+	public static LibraryClassCache create(String sootClassPath, String applicationPath, String cacheDirectory) {
+		LibraryClassCache cache = new LibraryClassCache(new File(cacheDirectory));
+
+		Set<String> applicationEntries = new HashSet<>();
+		for (String path : applicationPath.split(File.pathSeparator)) {
+			applicationEntries.add(canonicalPath(path));
+		}
+
+		boolean includesJdk = false;
+		for (String path : sootClassPath.split(File.pathSeparator)) {
+			if (path.isEmpty()) {
+				continue;
+			}
+
+			// Soot looks up the classes of the runtime image after the classes on the classpath
+			if (path.equals(JDK_CLASSPATH_ENTRY)) {
+				includesJdk = true;
+				continue;
+			}
+
+			File file = new File(canonicalPath(path));
+			if (file.isDirectory()) {
+				cache.entries.add(new DirectoryEntry(file.toPath()));
+			} else if (file.isFile()) {
+				cache.entries.add(cache.new JarEntry(file, !applicationEntries.contains(file.getPath())));
+			}
+		}
+
+		if (includesJdk) {
+			cache.entries.add(cache.new RuntimeImageEntry());
+		}
+		return cache;
+	}
+
+	@Override
+	public ClassSource find(String className) {
+		for (ClassPathEntry entry : entries) {
+			byte[] classFile;
+			try {
+				classFile = entry.readClass(className);
+			} catch (IOException e) {
+				throw new RuntimeException("Could not read class " + className + ": " + e.getMessage());
+			}
+
+			if (classFile != null) {
+				return new AsmClassSource(className, new InMemoryFoundFile(className, classFile));
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Closes the jar files and stores the hashes of the jar files that were hashed in this run.
+	 */
+	@Override
+	public void close() {
+		for (ClassPathEntry entry : entries) {
+			entry.close();
+		}
+
+		synchronized (this) {
+			if (jarHashesChanged) {
+				List<String> lines = new ArrayList<>();
+				for (Map.Entry<String, String> entry : jarHashes.entrySet()) {
+					lines.add(entry.getValue() + "\t" + entry.getKey());
+				}
+				writeCacheFile(new File(cacheDirectory, JAR_HASHES_FILE), lines);
+				jarHashesChanged = false;
+			}
+		}
+	}
+
+	private synchronized String getJarHash(File jar) throws IOException {
+		// Jar files usually do not change in place, i.e. they are only hashed again if their size or modification time changes
+		String key = jar.getPath() + "\t" + jar.length() + "\t" + jar.lastModified();
+
+		String hash = jarHashes.get(key);
+		if (hash == null) {
+			MessageDigest messageDigest = createMessageDigest();
+			byte[] buffer = new byte[64 * 1024];
+
+			try (InputStream inputStream = Files.newInputStream(jar.toPath())) {
+				int length;
+				while ((length = inputStream.read(buffer)) > 0) {
+					messageDigest.update(buffer, 0, length);
+				}
+			}
+
+			hash = RulesetReader.bytesToHex(messageDigest.digest());
+
+			// Forget the hash of a previous version of the jar file
+			jarHashes.keySet().removeIf(otherKey -> otherKey.startsWith(jar.getPath() + "\t"));
+			jarHashes.put(key, hash);
+			jarHashesChanged = true;
+		}
+		return hash;
+	}
+
+	private static Map<String, String> readJarHashes(File file) {
+		Map<String, String> jarHashes = new HashMap<>();
+
+		List<String> lines = readCacheFile(file);
+		if (lines == null) {
+			return jarHashes;
+		}
+
+		for (String line : lines) {
+			int separator = line.indexOf('\t');
+			if (separator > 0) {
+				jarHashes.put(line.substring(separator + 1), line.substring(0, separator));
+			}
+		}
+		return jarHashes;
+	}
+
+	/**
+	 * Reads the entries of a cache file.
+	 *
+	 * @return the entries or null, if there is no valid cache file
+	 */
+	private static List<String> readCacheFile(File cacheFile) {
+		if (!cacheFile.isFile()) {
+			return null;
+		}
+
+		List<String> lines;
+		try {
+			lines = Files.readAllLines(cacheFile.toPath(), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			LOGGER.warn("Could not read cache file {}: {}", cacheFile, e.getMessage());
+			return null;
+		}
+
+		if (lines.isEmpty() || !lines.get(0).equals(CACHE_FILE_HEADER + (lines.size() - 1))) {
+			LOGGER.warn("Ignoring invalid cache file {}", cacheFile);
+			return null;
+		}
+		return lines.subList(1, lines.size());
+	}
+
+	/**
+	 * Writes the lines to a temporary file first, so scans running at the same time never read a
+	 * partially written cache file.
+	 */
+	private void writeCacheFile(File cacheFile, Collection<String> lines) {
+		try {
+			if (!cacheDirectory.isDirectory() && !cacheDirectory.mkdirs()) {
+				throw new IOException("Could not create directory " + cacheDirectory);
+			}
+
+			File tempFile = File.createTempFile(cacheFile.getName(), null, cacheDirectory);
+			try (BufferedWriter writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+				writer.write(CACHE_FILE_HEADER + lines.size());
+				writer.newLine();
+
+				for (String line : lines) {
+					writer.write(line);
+					writer.newLine();
+				}
+			}
+
+			Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			LOGGER.warn("Could not write to cache directory {}: {}", cacheDirectory, e.getMessage());
+		}
+	}
+
+	private static MessageDigest createMessageDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static String canonicalPath(String path) {
+		try {
+			return new File(path).getCanonicalPath();
+		} catch (IOException e) {
+			return new File(path).getAbsolutePath();
+		}
+	}
+
+	private static boolean isClassFile(String path) {
+		return path.endsWith(CLASS_FILE_ENDING) && !path.endsWith("module-info" + CLASS_FILE_ENDING);
+	}
+
+	private static String toClassName(String path) {
+		return path.substring(0, path.length() - CLASS_FILE_ENDING.length()).replace('/', '.');
+	}
+
+	private static String toPath(String className) {
+		return className.replace('.', '/') + CLASS_FILE_ENDING;
+	}
+
+	private interface ClassPathEntry {
+
+		/**
+		 * Reads the class file of a class from this entry.
+		 *
+		 * @return the class file or null, if the entry does not contain the class
+		 */
+		byte[] readClass(String className) throws IOException;
+
+		void close();
+	}
+
+	/**
+	 * Directory on the classpath. Its content may change between runs, so it is searched directly.
+	 */
+	private static class DirectoryEntry implements ClassPathEntry {
+
+		private final Path directory;
+
+		private DirectoryEntry(Path directory) {
+			this.directory = directory;
+		}
+
+		@Override
+		public byte[] readClass(String className) throws IOException {
+			Path classFile = directory.resolve(toPath(className));
+
+			if (!Files.isRegularFile(classFile)) {
+				return null;
+			}
+			return Files.readAllBytes(classFile);
+		}
+
+		@Override
+		public void close() {
+			// Nothing to close
+		}
+	}
+
+	/**
+	 * Jar file on the classpath. The names of its classes are stored in a cache file that is named by
+	 * the hash of the jar's content.
+	 */
+	private class JarEntry implements ClassPathEntry {
+
+		private final File jar;
+		private final boolean cached;
+
+		private Set<String> classNames;
+		private ZipFile zipFile;
+
+		private JarEntry(File jar, boolean cached) {
+			this.jar = jar;
+			this.cached = cached;
+		}
+
+		@Override
+		public synchronized byte[] readClass(String className) throws IOException {
+			if (classNames == null) {
+				classNames = readClassNames();
+			}
+
+			if (!classNames.contains(className)) {
+				return null;
+			}
+
+			if (zipFile == null) {
+				zipFile = new ZipFile(jar);
+			}
+
+			ZipEntry entry = zipFile.getEntry(toPath(className));
+			if (entry == null) {
+				return null;
+			}
+
+			try (InputStream inputStream = zipFile.getInputStream(entry)) {
+				return inputStream.readAllBytes();
+			}
+		}
+
+		private Set<String> readClassNames() throws IOException {
+			File cacheFile = null;
+			if (cached) {
+				cacheFile = new File(cacheDirectory, getJarHash(jar) + CACHE_FILE_ENDING);
+
+				List<String> lines = readCacheFile(cacheFile);
+				if (lines != null) {
+					return new HashSet<>(lines);
+				}
+			}
+
+			Set<String> names = new HashSet<>();
+			try (ZipFile file = new ZipFile(jar)) {
+				Enumeration<? extends ZipEntry> zipEntries = file.entries();
+
+				while (zipEntries.hasMoreElements()) {
+					ZipEntry entry = zipEntries.nextElement();
+
+					if (!entry.isDirectory() && isClassFile(entry.getName())) {
+						names.add(toClassName(entry.getName()));
+					}
+				}
+			}
+
+			if (cacheFile != null) {
+				LOGGER.debug("Storing the index of {} in {}", jar, cacheFile);
+				writeCacheFile(cacheFile, names);
+			}
+			return names;
+		}
+
+		@Override
+		public synchronized void close() {
+			if (zipFile == null) {
+				return;
+			}
+
+			try {
+				zipFile.close();
+			} catch (IOException e) {
+				LOGGER.warn("Could not close {}: {}", jar, e.getMessage());
+			}
+			zipFile = null;
+		}
+	}
+
+	/**
+	 * Runtime image of the running JDK (Java 9 and later). The modules of its classes are stored in a
+	 * cache file that is named by the hash of the JDK's version, location and image file. The image is
+	 * not hashed itself, because it does not change for an installed JDK.
+	 */
+	private class RuntimeImageEntry implements ClassPathEntry {
+
+		private FileSystem fileSystem;
+		private Map<String, String> classModules;
+
+		@Override
+		public synchronized byte[] readClass(String className) throws IOException {
+			if (classModules == null) {
+				fileSystem = FileSystems.getFileSystem(URI.create("jrt:/"));
+				classModules = readClassModules();
+			}
+
+			String module = classModules.get(className);
+			if (module == null) {
+				return null;
+			}
+
+			Path classFile = fileSystem.getPath("/modules", module, toPath(className));
+			if (!Files.isRegularFile(classFile)) {
+				return null;
+			}
+			return Files.readAllBytes(classFile);
+		}
+
+		private Map<String, String> readClassModules() throws IOException {
+			File cacheFile = new File(cacheDirectory, getImageHash() + CACHE_FILE_ENDING);
+
+			Map<String, String> modules = new HashMap<>();
+			List<String> lines = readCacheFile(cacheFile);
+			if (lines != null) {
+				for (String line : lines) {
+					int separator = line.indexOf('\t');
+					if (separator > 0) {
+						modules.put(line.substring(0, separator), line.substring(separator + 1));
+					}
+				}
+				return modules;
+			}
+
+			try (Stream<Path> moduleDirectories = Files.list(fileSystem.getPath("/modules"))) {
+				Iterator<Path> moduleIterator = moduleDirectories.iterator();
+
+				while (moduleIterator.hasNext()) {
+					Path moduleDirectory = moduleIterator.next();
+					String module = moduleDirectory.getFileName().toString();
+
+					try (Stream<Path> files = Files.walk(moduleDirectory)) {
+						Iterator<Path> fileIterator = files.iterator();
+
+						while (fileIterator.hasNext()) {
+							String path = moduleDirectory.relativize(fileIterator.next()).toString();
+
+							if (isClassFile(path)) {
+								modules.putIfAbsent(toClassName(path), module);
+							}
+						}
+					}
+				}
+			}
+
+			List<String> cacheLines = new ArrayList<>(modules.size());
+			for (Map.Entry<String, String> entry : modules.entrySet()) {
+				cacheLines.add(entry.getKey() + "\t" + entry.getValue());
+			}
+
+			LOGGER.debug("Storing the index of the runtime image in {}", cacheFile);
+			writeCacheFile(cacheFile, cacheLines);
+			return modules;
+		}
+
+		private String getImageHash() {
+			String javaHome = System.getProperty("java.home");
+			File image = new File(javaHome + File.separator + "lib" + File.separator + "modules");
+
+			String key = System.getProperty("java.runtime.version") + "\t" + canonicalPath(javaHome) + "\t" + image.length() + "\t" + image.lastModified();
+
+			MessageDigest messageDigest = createMessageDigest();
+			messageDigest.update(key.getBytes(StandardCharsets.UTF_8));
+			return RulesetReader.bytesToHex(messageDigest.digest());
+		}
+
+		@Override
+		public void close() {
+			// The file system of the runtime image cannot be closed
+		}
+	}
+}
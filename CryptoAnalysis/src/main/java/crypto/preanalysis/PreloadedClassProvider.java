@@ -0,0 +1,358 @@
+package crypto.preanalysis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import soot.ClassProvider;
+import soot.ClassSource;
+import soot.SootClass;
+import soot.asm.AsmClassSource;
+import soot.javaToJimple.IInitialResolver.Dependencies;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Class provider for Soot that serves the application classes from memory. The class files are read
+ * before Soot is set up: Jar files are memory-mapped, and the class files are read and decompressed
+ * by multiple threads. Soot only parses the provided bytes when it resolves a class, i.e. it does not
+ * have to search or read the application path itself. Once Soot has resolved a class, its class file
+ * is dropped.
+ */
+public class PreloadedClassProvider implements ClassProvider {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(PreloadedClassProvider.class);
+
+	private static final String CLASS_FILE_ENDING = ".class";
+
+	/* Signatures and offsets of the zip format, see the specification of the zip file format */
+	private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+	private static final int CENTRAL_DIRECTORY_SIGNATURE = 0x02014b50;
+	private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+	private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+	private static final int CENTRAL_DIRECTORY_HEADER_SIZE = 46;
+	private static final int LOCAL_HEADER_SIZE = 30;
+	private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+	private static final long ZIP64_MARKER = 0xFFFFFFFFL;
+	private static final int STORED = 0;
+	private static final int DEFLATED = 8;
+
+	/* Class files mapped by their class names, until Soot has resolved the class */
+	private final Map<String, byte[]> classFiles;
+
+	private PreloadedClassProvider(Map<String, byte[]> classFiles) {
+		this.classFiles = classFiles;
+	}
+
+	/**
+	 * Reads the class files from the directories and jar files of the application path. The files
+	 * in a directory are read in parallel. Each jar file is memory-mapped and its entries are
+	 * decompressed in parallel. Zip64 archives and archives with an unexpected layout are read with
+	 * {@link ZipFile}. If a class is contained
+	 * multiple times, the first occurrence on the application path is kept.
+	 *
+	 * @param applicationPath the directories and jar files with the application classes
+	 * @return the provider for the read classes
+	 */
+	public static PreloadedClassProvider load(String applicationPath) {
+		Map<String, byte[]> classFiles = new ConcurrentHashMap<>();
+
+		// Read the paths in reverse order, such that classes from the first paths take precedence
+		List<String> paths = new ArrayList<>();
+		Collections.addAll(paths, applicationPath.split(File.pathSeparator));
+		Collections.reverse(paths);
+
+		for (String path : paths) {
+			File file = new File(path);
+
+			try {
+				Map<String, byte[]> pathClassFiles;
+				if (file.isDirectory()) {
+					pathClassFiles = readClassesInDirectory(file.toPath());
+				} else if (file.isFile()) {
+					pathClassFiles = readClassesInJar(file);
+				} else {
+					continue;
+				}
+				classFiles.putAll(pathClassFiles);
+			} catch (IOException | UncheckedIOException e) {
+				throw new RuntimeException("Could not read the classes in " + path + ": " + e.getMessage());
+			}
+		}
+
+		LOGGER.info("Read {} classes from the application path", classFiles.size());
+		return new PreloadedClassProvider(classFiles);
+	}
+
+	@Override
+	public ClassSource find(String className) {
+		byte[] classFile = classFiles.get(className);
+		if (classFile == null) {
+			return null;
+		}
+
+		return new AsmClassSource(className, new InMemoryFoundFile(className, classFile)) {
+
+			@Override
+			public Dependencies resolve(SootClass sc) {
+				Dependencies dependencies = super.resolve(sc);
+
+				// Soot resolves each class once, afterward, the class file is not required anymore
+				classFiles.remove(className);
+				return dependencies;
+			}
+		};
+	}
+
+	/**
+	 * Returns the names of the preloaded classes that have not been resolved by Soot yet.
+	 *
+	 * @return the dotted names of the classes
+	 */
+	public Collection<String> getClassNames() {
+		return Collections.unmodifiableSet(classFiles.keySet());
+	}
+
+	/**
+	 * Returns the preloaded class files of the classes that have not been resolved by Soot yet.
+	 *
+	 * @return the read-only class files mapped by the dotted names of their classes
+	 */
+	public Map<String, byte[]> getClassFiles() {
+		return Collections.unmodifiableMap(classFiles);
+	}
+
+	private static Map<String, byte[]> readClassesInDirectory(Path directory) throws IOException {
+		List<Path> files;
+		try (Stream<Path> stream = Files.walk(directory)) {
+			files = stream.filter(Files::isRegularFile)
+					.filter(file -> isClassFile(file.getFileName().toString()))
+					.collect(Collectors.toList());
+		}
+
+		return files.parallelStream().collect(Collectors.toConcurrentMap(
+				file -> toClassName(directory.relativize(file).toString().replace(File.separatorChar, '/')),
+				PreloadedClassProvider::readClassFile,
+				(first, second) -> first));
+	}
+
+	private static byte[] readClassFile(Path file) {
+		try {
+			// Class files are small, mapping them costs more than reading them
+			return Files.readAllBytes(file);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static Map<String, byte[]> readClassesInJar(File jar) throws IOException {
+		try (FileChannel channel = FileChannel.open(jar.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				// A buffer cannot map more than 2 GB
+				return readClassesWithZipFile(jar);
+			}
+
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+			List<CentralDirectoryEntry> entries = readCentralDirectory(buffer);
+			if (entries == null) {
+				// Zip64 archives and archives with an unexpected layout are read by the JDK
+				return readClassesWithZipFile(jar);
+			}
+
+			// Each thread reads from its own view of the mapped buffer
+			return entries.parallelStream().collect(Collectors.toConcurrentMap(
+					entry -> toClassName(entry.name),
+					entry -> readEntry(buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN), entry),
+					(first, second) -> first));
+		}
+	}
+
+	/**
+	 * Reads the class file entries from the central directory of a zip file.
+	 *
+	 * @return the entries or null if the central directory could not be read
+	 */
+	private static List<CentralDirectoryEntry> readCentralDirectory(ByteBuffer buffer) {
+		int endOfCentralDirectory = findEndOfCentralDirectory(buffer);
+		if (endOfCentralDirectory < 0) {
+			return null;
+		}
+
+		int entryCount = Short.toUnsignedInt(buffer.getShort(endOfCentralDirectory + 10));
+		long centralDirectoryOffset = Integer.toUnsignedLong(buffer.getInt(endOfCentralDirectory + 16));
+		if (entryCount == 0xFFFF || centralDirectoryOffset == ZIP64_MARKER) {
+			// Zip64 archive
+			return null;
+		}
+
+		List<CentralDirectoryEntry> entries = new ArrayList<>(entryCount);
+		int offset = (int) centralDirectoryOffset;
+
+		for (int i = 0; i < entryCount; i++) {
+			if (offset + CENTRAL_DIRECTORY_HEADER_SIZE > buffer.limit() || buffer.getInt(offset) != CENTRAL_DIRECTORY_SIGNATURE) {
+				return null;
+			}
+
+			int method = Short.toUnsignedInt(buffer.getShort(offset + 10));
+			long compressedSize = Integer.toUnsignedLong(buffer.getInt(offset + 20));
+			long uncompressedSize = Integer.toUnsignedLong(buffer.getInt(offset + 24));
+			int nameLength = Short.toUnsignedInt(buffer.getShort(offset + 28));
+			int extraLength = Short.toUnsignedInt(buffer.getShort(offset + 30));
+			int commentLength = Short.toUnsignedInt(buffer.getShort(offset + 32));
+			long localHeaderOffset = Integer.toUnsignedLong(buffer.getInt(offset + 42));
+
+			// The actual values of Zip64 entries are stored in the extra field, which is not supported
+			if (compressedSize == ZIP64_MARKER || uncompressedSize == ZIP64_MARKER || localHeaderOffset == ZIP64_MARKER) {
+				return null;
+			}
+
+			// Entries that exceed the mapped buffer or an array are not supported either
+			if (localHeaderOffset >= buffer.limit() || compressedSize > buffer.limit() || uncompressedSize > Integer.MAX_VALUE - 8) {
+				return null;
+			}
+
+			byte[] nameBytes = new byte[nameLength];
+			ByteBuffer nameBuffer = buffer.duplicate();
+			nameBuffer.position(offset + CENTRAL_DIRECTORY_HEADER_SIZE);
+			nameBuffer.get(nameBytes);
+			String name = new String(nameBytes, StandardCharsets.UTF_8);
+
+			if (isClassFile(name) && !name.startsWith("META-INF/")) {
+				if (method != STORED && method != DEFLATED) {
+					return null;
+				}
+				entries.add(new CentralDirectoryEntry(name, method, (int) compressedSize, (int) uncompressedSize, (int) localHeaderOffset));
+			}
+
+			offset += CENTRAL_DIRECTORY_HEADER_SIZE + nameLength + extraLength + commentLength;
+		}
+		return entries;
+	}
+
+	private static int findEndOfCentralDirectory(ByteBuffer buffer) {
+		int lowestOffset = Math.max(0, buffer.limit() - END_OF_CENTRAL_DIRECTORY_SIZE - MAX_COMMENT_LENGTH);
+
+		for (int offset = buffer.limit() - END_OF_CENTRAL_DIRECTORY_SIZE; offset >= lowestOffset; offset--) {
+			if (buffer.getInt(offset) == END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+				return offset;
+			}
+		}
+		return -1;
+	}
+
+	private static byte[] readEntry(ByteBuffer buffer, CentralDirectoryEntry entry) {
+		int localHeaderOffset = entry.localHeaderOffset;
+		if (buffer.getInt(localHeaderOffset) != LOCAL_HEADER_SIGNATURE) {
+			throw new UncheckedIOException(new IOException("Invalid local header of entry " + entry.name));
+		}
+
+		int nameLength = Short.toUnsignedInt(buffer.getShort(localHeaderOffset + 26));
+		int extraLength = Short.toUnsignedInt(buffer.getShort(localHeaderOffset + 28));
+		int dataOffset = localHeaderOffset + LOCAL_HEADER_SIZE + nameLength + extraLength;
+
+		byte[] compressed = new byte[entry.compressedSize];
+		buffer.position(dataOffset);
+		buffer.get(compressed);
+
+		if (entry.method == STORED) {
+			return compressed;
+		}
+
+		Inflater inflater = new Inflater(true);
+		try {
+			inflater.setInput(compressed);
+
+			byte[] result = new byte[entry.uncompressedSize];
+			int length = 0;
+			while (length < result.length && !inflater.finished()) {
+				int inflated = inflater.inflate(result, length, result.length - length);
+				if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				length += inflated;
+			}
+
+			if (length != result.length) {
+				throw new UncheckedIOException(new IOException("Could not decompress entry " + entry.name));
+			}
+			return result;
+		} catch (DataFormatException e) {
+			throw new UncheckedIOException(new IOException("Could not decompress entry " + entry.name + ": " + e.getMessage()));
+		} finally {
+			inflater.end();
+		}
+	}
+
+	private static Map<String, byte[]> readClassesWithZipFile(File jar) throws IOException {
+		try (ZipFile zipFile = new ZipFile(jar)) {
+			List<ZipEntry> entries = new ArrayList<>();
+
+			Enumeration<? extends ZipEntry> enumeration = zipFile.entries();
+			while (enumeration.hasMoreElements()) {
+				ZipEntry entry = enumeration.nextElement();
+
+				if (!entry.isDirectory() && isClassFile(entry.getName()) && !entry.getName().startsWith("META-INF/")) {
+					entries.add(entry);
+				}
+			}
+
+			// ZipFile supports concurrent reads of different entries
+			return entries.parallelStream().collect(Collectors.toConcurrentMap(
+					entry -> toClassName(entry.getName()),
+					entry -> {
+						try (InputStream inputStream = zipFile.getInputStream(entry)) {
+							return inputStream.readAllBytes();
+						} catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+					},
+					(first, second) -> first));
+		}
+	}
+
+	private static boolean isClassFile(String path) {
+		return path.endsWith(CLASS_FILE_ENDING) && !path.endsWith("module-info" + CLASS_FILE_ENDING);
+	}
+
+	private static String toClassName(String path) {
+		return path.substring(0, path.length() - CLASS_FILE_ENDING.length()).replace('/', '.');
+	}
+
+	private static class CentralDirectoryEntry {
+
+		private final String name;
+		private final int method;
+		private final int compressedSize;
+		private final int uncompressedSize;
+		private final int localHeaderOffset;
+
+		private CentralDirectoryEntry(String name, int method, int compressedSize, int uncompressedSize, int localHeaderOffset) {
+			this.name = name;
+			this.method = method;
+			this.compressedSize = compressedSize;
+			this.uncompressedSize = uncompressedSize;
+			this.localHeaderOffset = localHeaderOffset;
+		}
+	}
+}
@@ -0,0 +1,294 @@
+package crypto.preanalysis;
+
+import crypto.rules.CrySLRule;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Pre-pass that reads the constant pools of the application classes before Soot is set up. It
+ * finds the classes that reference a class with a CrySL rule and the classes within a given number
+ * of references (radius) to them. Only these classes have to be loaded as application classes;
+ * the data flows through all other classes are not tracked, and their methods are no entry points.
+ */
+public class RuleReferenceFilter {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RuleReferenceFilter.class);
+
+	private static final String CLASS_FILE_ENDING = ".class";
+
+	/* Constant pool tags, see JVMS 4.4 */
+	private static final int CONSTANT_CLASS = 7;
+	private static final int CONSTANT_NAME_AND_TYPE = 12;
+	private static final int CONSTANT_METHOD_TYPE = 16;
+
+	private final Set<String> ruleClassNames;
+
+	/* References between the application classes (internal names) */
+	private final Map<String, Set<String>> references = new HashMap<>();
+
+	public RuleReferenceFilter(Collection<CrySLRule> ruleset) {
+		this.ruleClassNames = new HashSet<>();
+
+		for (CrySLRule rule : ruleset) {
+			ruleClassNames.add(toInternalName(rule.getClassName()));
+		}
+	}
+
+	/**
+	 * Computes the application classes that are within the given radius to a class that references
+	 * a class with a rule. A radius of 0 selects only the classes with a direct reference, a radius
+	 * of 1 additionally selects the application classes that reference or are referenced by them,
+	 * and so on.
+	 *
+	 * @param applicationPath the directories and jar files with the application classes
+	 * @param radius the number of references between a selected class and a class with a direct
+	 *               reference to a rule class
+	 * @return the names of the selected classes
+	 */
+	public Collection<String> computeRelevantClasses(String applicationPath, int radius) {
+		references.clear();
+
+		for (String path : applicationPath.split(File.pathSeparator)) {
+			File file = new File(path);
+
+			try {
+				if (file.isDirectory()) {
+					readClassesInDirectory(file.toPath());
+				} else if (file.isFile()) {
+					readClassesInJar(file);
+				}
+			} catch (IOException e) {
+				throw new RuntimeException("Could not read the classes in " + path + ": " + e.getMessage());
+			}
+		}
+
+		return selectClasses(radius);
+	}
+
+	/**
+	 * Computes the relevant classes from class files that have already been read, e.g. by the
+	 * {@link PreloadedClassProvider}. The selection is the same as for
+	 * {@link #computeRelevantClasses(String, int)}.
+	 *
+	 * @param classFiles the class files of the application classes
+	 * @param radius the number of references between a selected class and a class with a direct
+	 *               reference to a rule class
+	 * @return the names of the selected classes
+	 */
+	public Collection<String> computeRelevantClasses(Collection<byte[]> classFiles, int radius) {
+		references.clear();
+
+		// The class files are already in memory, i.e. they can be parsed in parallel
+		Map<String, Set<String>> classReferences = classFiles.parallelStream()
+				.map(ClassReader::new)
+				.collect(Collectors.toConcurrentMap(ClassReader::getClassName, RuleReferenceFilter::readReferences, (first, second) -> first));
+		references.putAll(classReferences);
+
+		return selectClasses(radius);
+	}
+
+	private Collection<String> selectClasses(int radius) {
+		Map<String, Set<String>> neighbors = computeNeighbors();
+		Map<String, Integer> distances = new HashMap<>();
+		Deque<String> worklist = new ArrayDeque<>();
+
+		for (Map.Entry<String, Set<String>> entry : references.entrySet()) {
+			for (String reference : entry.getValue()) {
+				if (ruleClassNames.contains(reference)) {
+					distances.put(entry.getKey(), 0);
+					worklist.add(entry.getKey());
+					break;
+				}
+			}
+		}
+
+		// Breadth-first search over the references, starting at the classes with a direct reference
+		while (!worklist.isEmpty()) {
+			String className = worklist.poll();
+			int distance = distances.get(className);
+
+			if (distance >= radius) {
+				continue;
+			}
+
+			for (String neighbor : neighbors.getOrDefault(className, Collections.emptySet())) {
+				if (!distances.containsKey(neighbor)) {
+					distances.put(neighbor, distance + 1);
+					worklist.add(neighbor);
+				}
+			}
+		}
+
+		Collection<String> relevantClasses = new TreeSet<>();
+		for (String className : distances.keySet()) {
+			relevantClasses.add(className.replace('/', '.'));
+		}
+
+		LOGGER.info("Selected {} of {} classes that are within a radius of {} to a class with a rule", relevantClasses.size(), references.size(), radius);
+		return relevantClasses;
+	}
+
+	/**
+	 * Computes the undirected reference graph between the application classes.
+	 */
+	private Map<String, Set<String>> computeNeighbors() {
+		Map<String, Set<String>> neighbors = new HashMap<>();
+
+		for (Map.Entry<String, Set<String>> entry : references.entrySet()) {
+			String className = entry.getKey();
+
+			for (String reference : entry.getValue()) {
+				if (reference.equals(className) || !references.containsKey(reference)) {
+					continue;
+				}
+
+				neighbors.computeIfAbsent(className, k -> new HashSet<>()).add(reference);
+				neighbors.computeIfAbsent(reference, k -> new HashSet<>()).add(className);
+			}
+		}
+		return neighbors;
+	}
+
+	private void readClassesInDirectory(Path directory) throws IOException {
+		try (Stream<Path> files = Files.walk(directory)) {
+			Iterator<Path> iterator = files.iterator();
+
+			while (iterator.hasNext()) {
+				Path file = iterator.next();
+
+				if (!Files.isRegularFile(file) || !isClassFile(file.getFileName().toString())) {
+					continue;
+				}
+
+				try (InputStream inputStream = Files.newInputStream(file)) {
+					readClass(new ClassReader(inputStream));
+				}
+			}
+		}
+	}
+
+	private void readClassesInJar(File jar) throws IOException {
+		try (JarFile jarFile = new JarFile(jar)) {
+			Enumeration<JarEntry> entries = jarFile.entries();
+
+			while (entries.hasMoreElements()) {
+				JarEntry entry = entries.nextElement();
+
+				if (entry.isDirectory() || !isClassFile(entry.getName())) {
+					continue;
+				}
+
+				try (InputStream inputStream = jarFile.getInputStream(entry)) {
+					readClass(new ClassReader(inputStream));
+				}
+			}
+		}
+	}
+
+	private void readClass(ClassReader reader) {
+		references.computeIfAbsent(reader.getClassName(), k -> new HashSet<>()).addAll(readReferences(reader));
+	}
+
+	private static Set<String> readReferences(ClassReader reader) {
+		char[] buffer = new char[reader.getMaxStringLength()];
+		Set<String> referencedClasses = new HashSet<>();
+
+		// Classes and descriptors that are referenced by instructions
+		for (int i = 1; i < reader.getItemCount(); i++) {
+			int offset = reader.getItem(i);
+			if (offset == 0) {
+				// Second slot of a long or double constant
+				continue;
+			}
+
+			int tag = reader.readByte(offset - 1);
+			if (tag == CONSTANT_CLASS) {
+				addClassName(reader.readUTF8(offset, buffer), referencedClasses);
+			} else if (tag == CONSTANT_NAME_AND_TYPE) {
+				addDescriptor(reader.readUTF8(offset + 2, buffer), referencedClasses);
+			} else if (tag == CONSTANT_METHOD_TYPE) {
+				addDescriptor(reader.readUTF8(offset, buffer), referencedClasses);
+			}
+		}
+
+		// Types of the class' own fields and methods
+		reader.accept(new ClassVisitor(Opcodes.ASM9) {
+
+			@Override
+			public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+				addDescriptor(descriptor, referencedClasses);
+				return null;
+			}
+
+			@Override
+			public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+				addDescriptor(descriptor, referencedClasses);
+				return null;
+			}
+		}, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+
+		return referencedClasses;
+	}
+
+	private static void addClassName(String className, Set<String> referencedClasses) {
+		// Array classes are stored as descriptors, e.g. [Ljavax/crypto/Cipher;
+		if (className.startsWith("[")) {
+			addDescriptor(className, referencedClasses);
+		} else {
+			referencedClasses.add(className);
+		}
+	}
+
+	private static void addDescriptor(String descriptor, Set<String> referencedClasses) {
+		int index = 0;
+
+		while (index < descriptor.length()) {
+			if (descriptor.charAt(index) != 'L') {
+				index++;
+				continue;
+			}
+
+			int end = descriptor.indexOf(';', index);
+			if (end < 0) {
+				return;
+			}
+
+			referencedClasses.add(descriptor.substring(index + 1, end));
+			index = end + 1;
+		}
+	}
+
+	private static boolean isClassFile(String path) {
+		return path.endsWith(CLASS_FILE_ENDING) && !path.endsWith("module-info" + CLASS_FILE_ENDING);
+	}
+
+	private static String toInternalName(String className) {
+		return className.replace('.', '/');
+	}
+}
@@ -22,10 +22,10 @@ import java.util.Set;
 public class CSVReporter extends Reporter {
 
     private static final String FILE_ENDING = ".csv";
-    private static final String CSV_SEPARATOR = ";";
+    static final String CSV_SEPARATOR = ";";
 
     /** Headers for the errors */
-    private enum Headers {
+    enum Headers {
         ErrorId, ErrorType, ViolatingClass, Class, Method, Statement, LineNumber, Message
     }
 
@@ -48,7 +48,7 @@ public class CSVReporter extends Reporter {
                 for (AbstractError error : orderedErrors) {
                     List<String> lineFields = Arrays.asList(
                             String.valueOf(idCount),                // id
-                            error.getClass().getSimpleName(),       // error type
+                            error.getErrorType(),       // error type
                             error.getRule().getClassName(),         // violating class
                             className,                              // class
                             methodName,                             // method
@@ -62,7 +62,7 @@ public class GitHubAnnotationReporter extends CommandLineReporter {
             boolean sourceExists = Files.exists(path);
 
             for (AbstractError error : cell.getValue()) {
-                String title = error.getClass().getSimpleName() + " violating CrySL rule for " + error.getRule().getClassName();
+                String title = error.getErrorType() + " violating CrySL rule for " + error.getRule().getClassName();
 
                 Integer line = error.getErrorStatement().getStartLineNumber();
                 if (line == -1) {
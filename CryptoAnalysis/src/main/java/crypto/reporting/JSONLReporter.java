@@ -0,0 +1,48 @@
+package crypto.reporting;
+
+import crypto.analysis.errors.AbstractError;
+import crypto.rules.CrySLRule;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+
+/**
+ * Writes each error as a JSON object on its own line (JSON Lines). Other tools can process the
+ * report line by line while the analysis is still running.
+ */
+public class JSONLReporter extends StreamingReporter {
+
+    private static final String FILE_ENDING = ".jsonl";
+
+    public JSONLReporter(String outputDir, Collection<CrySLRule> ruleset) throws IOException {
+        super(outputDir, FILE_ENDING, ruleset);
+    }
+
+    public JSONLReporter(Writer writer, String destination, Collection<CrySLRule> ruleset) throws IOException {
+        super(writer, destination, ruleset);
+    }
+
+    @Override
+    protected void writeHeader(Writer writer) {}
+
+    @Override
+    protected void writeError(Writer writer, AbstractError error) throws IOException {
+        JSONObject jsonError = new JSONObject();
+
+        jsonError.put("errorType", error.getErrorType());
+        jsonError.put("violatingClass", error.getRule().getClassName());
+        jsonError.put("class", error.getMethod().getDeclaringClass().getName());
+        jsonError.put("method", error.getMethod().toString());
+        jsonError.put("statement", error.getErrorStatement().toString());
+        jsonError.put("lineNumber", error.getLineNumber());
+        jsonError.put("message", error.toErrorMarkerString());
+
+        writer.write(jsonError.toString());
+        writer.write("\n");
+    }
+
+    @Override
+    protected void writeFooter(Writer writer) {}
+}
@@ -0,0 +1,414 @@
+package crypto.reporting;
+
+import boomerang.scene.Statement;
+import boomerang.scene.Val;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.base.Joiner;
+import crypto.analysis.AnalysisSeedWithSpecification;
+import crypto.analysis.IAnalysisSeed;
+import crypto.analysis.errors.AbstractError;
+import crypto.listener.IAnalysisListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the wall time and the allocated bytes of the analysis phases and of the single seeds. The metrics
+ * are written to a JSON file (phases, timeouts and the slowest seeds) and to a CSV file (all seeds, ordered
+ * by their analysis time). The analysis time of a seed is the time of its IDEAL typestate analysis plus the
+ * time of the checks on its results; the typestate analysis usually dominates.
+ * <p>
+ * The allocated bytes are measured for the thread that executes a phase or a seed. If the seeds are analyzed
+ * in parallel, the phases for the seeds (e.g. the constraint checks) are summed up over all seeds, i.e. their
+ * time may exceed the wall time of the complete analysis.
+ */
+public class MetricsReporter implements IAnalysisListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetricsReporter.class);
+
+    private static final String REPORT_NAME = "CryptoAnalysis-Metrics";
+    private static final String SEEDS_REPORT_NAME = "CryptoAnalysis-Seed-Metrics";
+    private static final String CSV_SEPARATOR = ";";
+    private static final int DEFAULT_SLOWEST_SEEDS = 10;
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    public enum Phase {
+        SOOT_SETUP, CALL_GRAPH_CONSTRUCTION, READING_RULESET, PRE_TRANSFORMATION, TYPESTATE_ANALYSIS,
+        EXTRACT_PARAMETER_ANALYSIS, CONSTRAINTS_CHECK, PREDICATE_CHECK, ANALYSIS
+    }
+
+    private final int slowestSeeds;
+    private final Map<Phase, Measurement> phases = new EnumMap<>(Phase.class);
+    private final Map<IAnalysisSeed, SeedMetrics> seeds = new LinkedHashMap<>();
+    private int typestateTimeouts = 0;
+    private int extractParameterTimeouts = 0;
+
+    public MetricsReporter() {
+        this(DEFAULT_SLOWEST_SEEDS);
+    }
+
+    /**
+     * @param slowestSeeds the number of seeds with the highest analysis time that are listed in the JSON file
+     */
+    public MetricsReporter(int slowestSeeds) {
+        this.slowestSeeds = slowestSeeds;
+    }
+
+    @Override
+    public void beforeSootSetup() {
+        getMeasurement(Phase.SOOT_SETUP).start();
+    }
+
+    @Override
+    public void afterSootSetup() {
+        getMeasurement(Phase.SOOT_SETUP).stop();
+    }
+
+    @Override
+    public void beforeCallGraphConstruction() {
+        getMeasurement(Phase.CALL_GRAPH_CONSTRUCTION).start();
+    }
+
+    @Override
+    public void afterCallGraphConstruction() {
+        getMeasurement(Phase.CALL_GRAPH_CONSTRUCTION).stop();
+    }
+
+    @Override
+    public void beforeReadingRuleset() {
+        getMeasurement(Phase.READING_RULESET).start();
+    }
+
+    @Override
+    public void afterReadingRuleset() {
+        getMeasurement(Phase.READING_RULESET).stop();
+    }
+
+    @Override
+    public void beforePreTransformation() {
+        getMeasurement(Phase.PRE_TRANSFORMATION).start();
+    }
+
+    @Override
+    public void afterPreTransformation() {
+        getMeasurement(Phase.PRE_TRANSFORMATION).stop();
+    }
+
+    @Override
+    public void beforeAnalysis() {
+        getMeasurement(Phase.ANALYSIS).start();
+    }
+
+    @Override
+    public void afterAnalysis() {
+        getMeasurement(Phase.ANALYSIS).stop();
+    }
+
+    @Override
+    public void beforeTypestateAnalysis() {
+        getMeasurement(Phase.TYPESTATE_ANALYSIS).start();
+    }
+
+    @Override
+    public void afterTypestateAnalysis() {
+        getMeasurement(Phase.TYPESTATE_ANALYSIS).stop();
+    }
+
+    @Override
+    public void onDiscoveredSeeds(Collection<IAnalysisSeed> discoveredSeeds) {
+        for (IAnalysisSeed seed : discoveredSeeds) {
+            getSeedMetrics(seed);
+        }
+    }
+
+    @Override
+    public void onSeedStarted(IAnalysisSeed analysisSeed) {
+        getSeedMetrics(analysisSeed).total.start();
+    }
+
+    @Override
+    public void onSeedFinished(IAnalysisSeed analysisSeed) {
+        getSeedMetrics(analysisSeed).total.stop();
+    }
+
+    @Override
+    public void onTypestateAnalysisFinished(IAnalysisSeed analysisSeed, long durationInNanos) {
+        getSeedMetrics(analysisSeed).typestateAnalysisNanos = durationInNanos;
+    }
+
+    @Override
+    public void onTypestateAnalysisTimeout(IAnalysisSeed analysisSeed) {
+        typestateTimeouts++;
+        getSeedMetrics(analysisSeed).typestateTimeout = true;
+    }
+
+    @Override
+    public void onExtractParameterAnalysisTimeout(IAnalysisSeed analysisSeed, Val parameter, Statement statement) {
+        extractParameterTimeouts++;
+        getSeedMetrics(analysisSeed).extractParameterTimeouts++;
+    }
+
+    @Override
+    public void beforeExtractParameterAnalysis(IAnalysisSeed analysisSeed) {
+        getSeedMetrics(analysisSeed).extractParameterAnalysis.start();
+    }
+
+    @Override
+    public void afterExtractParameterAnalysis(IAnalysisSeed analysisSeed) {
+        Measurement measurement = getSeedMetrics(analysisSeed).extractParameterAnalysis;
+        measurement.stop();
+
+        getMeasurement(Phase.EXTRACT_PARAMETER_ANALYSIS).add(measurement);
+    }
+
+    @Override
+    public void beforeConstraintsCheck(IAnalysisSeed analysisSeed) {
+        getSeedMetrics(analysisSeed).constraintsCheck.start();
+    }
+
+    @Override
+    public void afterConstraintsCheck(IAnalysisSeed analysisSeed, int violatedConstraints) {
+        Measurement measurement = getSeedMetrics(analysisSeed).constraintsCheck;
+        measurement.stop();
+
+        getMeasurement(Phase.CONSTRAINTS_CHECK).add(measurement);
+    }
+
+    @Override
+    public void beforePredicateCheck() {
+        getMeasurement(Phase.PREDICATE_CHECK).start();
+    }
+
+    @Override
+    public void afterPredicateCheck() {
+        getMeasurement(Phase.PREDICATE_CHECK).stop();
+    }
+
+    @Override
+    public void onReportedError(IAnalysisSeed analysisSeed, AbstractError error) {
+        getSeedMetrics(analysisSeed).errors++;
+    }
+
+    @Override
+    public void addProgress(int current, int total) {}
+
+    /**
+     * @param phase the phase
+     * @return the time of the phase in milliseconds
+     */
+    public long getDuration(Phase phase) {
+        return getMeasurement(phase).getDuration();
+    }
+
+    public long getAllocatedBytes(Phase phase) {
+        return getMeasurement(phase).allocatedBytes;
+    }
+
+    public int getTypestateTimeouts() {
+        return typestateTimeouts;
+    }
+
+    public int getExtractParameterTimeouts() {
+        return extractParameterTimeouts;
+    }
+
+    /**
+     * Writes the recorded metrics to the files 'CryptoAnalysis-Metrics.json' and 'CryptoAnalysis-Seed-Metrics.csv'
+     * in the output directory.
+     *
+     * @param outputDir the directory for the files
+     */
+    public void createMetricsReport(String outputDir) {
+        if (outputDir == null) {
+            throw new RuntimeException("Cannot create metrics without directory (try using --reportPath or setReportDirectory)");
+        }
+
+        File outputFile = new File(outputDir);
+        if (!outputFile.isDirectory()) {
+            LOGGER.error("Could not write metrics: {} is not a directory", outputDir);
+            return;
+        }
+
+        List<SeedMetrics> orderedSeeds = new ArrayList<>(seeds.values());
+        orderedSeeds.sort(Comparator.comparingLong(SeedMetrics::getDurationNanos).reversed());
+
+        writeJsonReport(outputFile, orderedSeeds);
+        writeCsvReport(outputFile, orderedSeeds);
+    }
+
+    private void writeJsonReport(File outputDir, List<SeedMetrics> orderedSeeds) {
+        Map<String, Object> report = new LinkedHashMap<>();
+
+        Map<String, Object> phaseMetrics = new LinkedHashMap<>();
+        for (Phase phase : Phase.values()) {
+            Measurement measurement = getMeasurement(phase);
+
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("timeInMs", measurement.getDuration());
+            metrics.put("allocatedBytes", measurement.allocatedBytes);
+            phaseMetrics.put(phase.name(), metrics);
+        }
+        report.put("phases", phaseMetrics);
+
+        Map<String, Object> seedSummary = new LinkedHashMap<>();
+        seedSummary.put("seeds", seeds.size());
+        seedSummary.put("typestateTimeouts", typestateTimeouts);
+        seedSummary.put("extractParameterTimeouts", extractParameterTimeouts);
+        report.put("summary", seedSummary);
+
+        List<Object> slowest = new ArrayList<>();
+        for (SeedMetrics metrics : orderedSeeds.subList(0, Math.min(slowestSeeds, orderedSeeds.size()))) {
+            slowest.add(metrics.toMap());
+        }
+        report.put("slowestSeeds", slowest);
+
+        String fileName = outputDir.getAbsolutePath() + File.separator + REPORT_NAME + ".json";
+        try {
+            ObjectMapper mapper = new ObjectMapper();
+            ObjectWriter writer = mapper.writer(new DefaultPrettyPrinter());
+            writer.writeValue(new File(fileName), report);
+
+            LOGGER.info("Metrics written to file {}", fileName);
+        } catch (IOException e) {
+            LOGGER.error("Could not write to file {}: {}", fileName, e.getMessage());
+        }
+    }
+
+    private void writeCsvReport(File outputDir, List<SeedMetrics> orderedSeeds) {
+        List<String> headers = Arrays.asList("Seed", "Rule", "Method", "TimeInMs", "TypestateAnalysisTimeInMs", "ExecutionTimeInMs",
+                "AllocatedBytes", "ExtractParameterTimeInMs", "ConstraintsCheckTimeInMs", "TypestateTimeout", "ExtractParameterTimeouts", "Errors");
+
+        String fileName = outputDir.getAbsolutePath() + File.separator + SEEDS_REPORT_NAME + ".csv";
+        try (FileWriter writer = new FileWriter(fileName)) {
+            writer.write(toCsvLine(headers) + "\n");
+
+            for (SeedMetrics metrics : orderedSeeds) {
+                writer.write(toCsvLine(metrics.toMap().values()) + "\n");
+            }
+
+            LOGGER.info("Seed metrics written to file {}", fileName);
+        } catch (IOException e) {
+            LOGGER.error("Could not write to file {}: {}", fileName, e.getMessage());
+        }
+    }
+
+    /* Signatures and statements may contain the separator or quotes, hence every field is quoted (RFC 4180) */
+    private static String toCsvLine(Collection<?> fields) {
+        List<String> quotedFields = new ArrayList<>();
+
+        for (Object field : fields) {
+            quotedFields.add("\"" + String.valueOf(field).replace("\"", "\"\"") + "\"");
+        }
+        return Joiner.on(CSV_SEPARATOR).join(quotedFields);
+    }
+
+    private Measurement getMeasurement(Phase phase) {
+        return phases.computeIfAbsent(phase, p -> new Measurement());
+    }
+
+    private SeedMetrics getSeedMetrics(IAnalysisSeed seed) {
+        return seeds.computeIfAbsent(seed, SeedMetrics::new);
+    }
+
+    private static long getAllocatedBytesOfCurrentThread() {
+        if (!(THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean)) {
+            return 0;
+        }
+
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) THREAD_MX_BEAN;
+        if (!threadMXBean.isThreadAllocatedMemorySupported() || !threadMXBean.isThreadAllocatedMemoryEnabled()) {
+            return 0;
+        }
+        return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static class Measurement {
+
+        private final Map<Thread, long[]> running = new HashMap<>();
+        private long durationNanos = 0;
+        private long allocatedBytes = 0;
+
+        /* The seeds may run in parallel, i.e. a measurement is started once per thread */
+        private void start() {
+            running.put(Thread.currentThread(), new long[] {System.nanoTime(), getAllocatedBytesOfCurrentThread()});
+        }
+
+        private void stop() {
+            long[] startValues = running.remove(Thread.currentThread());
+            if (startValues == null) {
+                return;
+            }
+
+            durationNanos += System.nanoTime() - startValues[0];
+            allocatedBytes += getAllocatedBytesOfCurrentThread() - startValues[1];
+        }
+
+        private long getDuration() {
+            return durationNanos / 1_000_000;
+        }
+
+        private void add(Measurement other) {
+            durationNanos += other.durationNanos;
+            allocatedBytes += other.allocatedBytes;
+        }
+    }
+
+    private static class SeedMetrics {
+
+        private final IAnalysisSeed seed;
+        private long typestateAnalysisNanos = 0;
+        private final Measurement total = new Measurement();
+        private final Measurement extractParameterAnalysis = new Measurement();
+        private final Measurement constraintsCheck = new Measurement();
+        private boolean typestateTimeout = false;
+        private int extractParameterTimeouts = 0;
+        private int errors = 0;
+
+        private SeedMetrics(IAnalysisSeed seed) {
+            this.seed = seed;
+        }
+
+        private long getDurationNanos() {
+            return typestateAnalysisNanos + total.durationNanos;
+        }
+
+        private Map<String, Object> toMap() {
+            String rule = "";
+            if (seed instanceof AnalysisSeedWithSpecification) {
+                rule = ((AnalysisSeedWithSpecification) seed).getSpecification().getClassName();
+            }
+
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("seed", seed.getFact().getVariableName() + " @ " + seed.getOrigin());
+            metrics.put("rule", rule);
+            metrics.put("method", seed.getMethod().toString());
+            metrics.put("timeInMs", getDurationNanos() / 1_000_000);
+            metrics.put("typestateAnalysisTimeInMs", typestateAnalysisNanos / 1_000_000);
+            metrics.put("executionTimeInMs", total.getDuration());
+            metrics.put("allocatedBytes", total.allocatedBytes);
+            metrics.put("extractParameterTimeInMs", extractParameterAnalysis.getDuration());
+            metrics.put("constraintsCheckTimeInMs", constraintsCheck.getDuration());
+            metrics.put("typestateTimeout", typestateTimeout);
+            metrics.put("extractParameterTimeouts", extractParameterTimeouts);
+            metrics.put("errors", errors);
+            return metrics;
+        }
+    }
+}
@@ -52,7 +52,7 @@ public class ReportGenerator {
 
                 List<AbstractError> orderedErrors = ErrorUtils.orderErrorsByLineNumber(entry.getValue());
                 for (AbstractError error : orderedErrors) {
-                    report.append("\t\t").append(error.getClass().getSimpleName()).append(" violating CrySL rule for ").append(error.getRule().getClassName()).append("\n");
+                    report.append("\t\t").append(error.getErrorType()).append(" violating CrySL rule for ").append(error.getRule().getClassName()).append("\n");
                     report.append("\t\t\t").append(error.toErrorMarkerString()).append("\n");
                     report.append("\t\t\tat statement: ").append(error.getErrorStatement()).append("\n");
                     report.append("\t\t\tat line: ").append(error.getLineNumber()).append("\n\n");
@@ -20,7 +20,7 @@ public abstract class Reporter {
     protected static final String REPORT_NAME = "CryptoAnalysis-Report";
 
     public enum ReportFormat {
-        CMD, TXT, SARIF, CSV, CSV_SUMMARY, GITHUB_ANNOTATION
+        CMD, TXT, SARIF, CSV, CSV_SUMMARY, GITHUB_ANNOTATION, JSONL
     }
 
     protected final File outputFile;
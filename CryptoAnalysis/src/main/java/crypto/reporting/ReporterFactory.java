@@ -43,6 +43,9 @@ public class ReporterFactory {
                         Reporter annotationReporter = new GitHubAnnotationReporter(rules);
                         reporters.add(annotationReporter);
                         break;
+                    case JSONL:
+                        // JSONL reports are only written by a streaming reporter
+                        break;
                     default:
                         LOGGER.error("Could not create reporter for format {}", format);
                 }
@@ -53,4 +56,55 @@ public class ReporterFactory {
 
         return reporters;
     }
+
+    /**
+     * Returns the formats that are written by a {@link StreamingReporter}. The JSONL format is always
+     * streamed, the CSV and SARIF formats only if streaming is enabled.
+     *
+     * @param reportFormats the requested report formats
+     * @param streamReports true if the CSV and SARIF reports should be streamed
+     * @return the formats that are written by streaming reporters
+     */
+    public static Collection<Reporter.ReportFormat> getStreamingFormats(Collection<Reporter.ReportFormat> reportFormats, boolean streamReports) {
+        Collection<Reporter.ReportFormat> streamingFormats = new HashSet<>();
+
+        for (Reporter.ReportFormat format : reportFormats) {
+            if (format == Reporter.ReportFormat.JSONL) {
+                streamingFormats.add(format);
+            } else if (streamReports && (format == Reporter.ReportFormat.CSV || format == Reporter.ReportFormat.SARIF)) {
+                streamingFormats.add(format);
+            }
+        }
+
+        return streamingFormats;
+    }
+
+    public static Collection<StreamingReporter> createStreamingReporters(Collection<Reporter.ReportFormat> reportFormats, String outputDir, Collection<CrySLRule> rules) {
+        Collection<StreamingReporter> reporters = new HashSet<>();
+
+        for (Reporter.ReportFormat format : reportFormats) {
+            try {
+                switch (format) {
+                    case CSV:
+                        StreamingReporter csvReporter = new StreamingCSVReporter(outputDir, rules);
+                        reporters.add(csvReporter);
+                        break;
+                    case SARIF:
+                        StreamingReporter sarifReporter = new StreamingSARIFReporter(outputDir, rules);
+                        reporters.add(sarifReporter);
+                        break;
+                    case JSONL:
+                        StreamingReporter jsonlReporter = new JSONLReporter(outputDir, rules);
+                        reporters.add(jsonlReporter);
+                        break;
+                    default:
+                        LOGGER.error("Could not create streaming reporter for format {}", format);
+                }
+            } catch (IOException e) {
+                LOGGER.error("Could not create streaming reporter for format {}: {}", format, e.getMessage());
+            }
+        }
+
+        return reporters;
+    }
 }
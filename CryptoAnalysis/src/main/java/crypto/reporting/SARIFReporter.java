@@ -68,7 +68,7 @@ public class SARIFReporter extends Reporter {
                 String methodName = entry.getKey().toString();
 
                 for (AbstractError error : entry.getValue()) {
-                    String errorType = error.getClass().getSimpleName();
+                    String errorType = error.getErrorType();
                     String richText = errorType + " violating CrySL rule for " + error.getRule().getClassName();
                     String errorMarker = error.toErrorMarkerString();
                     int lineNumber = error.getLineNumber();
@@ -0,0 +1,58 @@
+package crypto.reporting;
+
+import com.google.common.base.Joiner;
+import crypto.analysis.errors.AbstractError;
+import crypto.rules.CrySLRule;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes the errors in the same format as the {@link CSVReporter}. The errors appear in the order
+ * in which they are reported, not ordered by class, method and line number.
+ */
+public class StreamingCSVReporter extends StreamingReporter {
+
+    private static final String FILE_ENDING = ".csv";
+
+    private int idCount;
+
+    public StreamingCSVReporter(String outputDir, Collection<CrySLRule> ruleset) throws IOException {
+        super(outputDir, FILE_ENDING, ruleset);
+    }
+
+    @Override
+    protected void writeHeader(Writer writer) throws IOException {
+        List<String> headers = new ArrayList<>();
+
+        for (CSVReporter.Headers h : CSVReporter.Headers.values()) {
+            headers.add(h.toString());
+        }
+
+        writer.write(Joiner.on(CSVReporter.CSV_SEPARATOR).join(headers) + "\n");
+    }
+
+    @Override
+    protected void writeError(Writer writer, AbstractError error) throws IOException {
+        List<String> lineFields = Arrays.asList(
+                String.valueOf(idCount),                                // id
+                error.getErrorType(),                                   // error type
+                error.getRule().getClassName(),                         // violating class
+                error.getMethod().getDeclaringClass().getName(),        // class
+                error.getMethod().toString(),                           // method
+                error.getErrorStatement().toString(),                   // statement
+                String.valueOf(error.getLineNumber()),                  // line number
+                error.toErrorMarkerString()                             // message
+        );
+
+        writer.write(Joiner.on(CSVReporter.CSV_SEPARATOR).join(lineFields) + "\n");
+        idCount++;
+    }
+
+    @Override
+    protected void writeFooter(Writer writer) {}
+}
@@ -0,0 +1,272 @@
+package crypto.reporting;
+
+import crypto.analysis.errors.AbstractError;
+import crypto.analysis.errors.CallToError;
+import crypto.analysis.errors.ConstraintError;
+import crypto.analysis.errors.ForbiddenMethodError;
+import crypto.analysis.errors.HardCodedError;
+import crypto.analysis.errors.ImpreciseValueExtractionError;
+import crypto.analysis.errors.IncompleteOperationError;
+import crypto.analysis.errors.InstanceOfError;
+import crypto.analysis.errors.NeverTypeOfError;
+import crypto.analysis.errors.NoCallToError;
+import crypto.analysis.errors.PredicateContradictionError;
+import crypto.analysis.errors.RequiredPredicateError;
+import crypto.analysis.errors.TypestateError;
+import crypto.analysis.errors.UncaughtExceptionError;
+import crypto.listener.IErrorListener;
+import crypto.rules.CrySLRule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Base class for reporters that write the errors to a file while the analysis is running. Other
+ * than the {@link Reporter}s, a streaming reporter does not receive the collected errors at the
+ * end of the analysis. Instead, it is registered as {@link IErrorListener} and writes each error
+ * as soon as it is reported, i.e. it does not keep the errors in memory. Errors that are reported
+ * multiple times (e.g. by different seeds) are written once; only a short key per written error is
+ * kept for this check. The report is complete after {@link #finishReport()} has been called.
+ */
+public abstract class StreamingReporter implements IErrorListener {
+
+    protected static final Logger LOGGER = LoggerFactory.getLogger(StreamingReporter.class);
+    protected static final String REPORT_NAME = "CryptoAnalysis-Report";
+
+    protected final File reportFile;
+    protected final Collection<CrySLRule> ruleset;
+
+    private final Writer writer;
+    private final String destination;
+    private final Set<String> writtenErrors;
+    private boolean finished;
+
+    protected StreamingReporter(String outputDir, String fileEnding, Collection<CrySLRule> ruleset) throws IOException {
+        if (outputDir == null) {
+            throw new RuntimeException("Cannot create report without directory (try using --reportDir or setOutputDirectory)");
+        }
+
+        File outputFile = new File(outputDir);
+        if (!outputFile.exists()) {
+            throw new IOException("Directory " + outputDir + " does not exist");
+        }
+
+        if (!outputFile.isDirectory()) {
+            throw new IOException(outputDir + " is not a directory");
+        }
+
+        this.reportFile = new File(outputFile.getAbsolutePath() + File.separator + REPORT_NAME + fileEnding);
+        this.ruleset = ruleset;
+        this.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(reportFile), StandardCharsets.UTF_8));
+        this.destination = "file " + reportFile;
+        this.writtenErrors = new HashSet<>();
+        this.finished = false;
+
+        writeHeader(writer);
+        writer.flush();
+    }
+
+    /**
+     * Creates a reporter that writes the report to a writer instead of a file, e.g. to a socket.
+     * The writer is closed when the report is finished.
+     *
+     * @param writer the writer for the report
+     * @param destination a description of the destination for log messages
+     * @param ruleset the rules of the analysis
+     * @throws IOException If the header cannot be written
+     */
+    protected StreamingReporter(Writer writer, String destination, Collection<CrySLRule> ruleset) throws IOException {
+        this.reportFile = null;
+        this.ruleset = ruleset;
+        this.writer = writer;
+        this.destination = destination;
+        this.writtenErrors = new HashSet<>();
+        this.finished = false;
+
+        writeHeader(writer);
+        writer.flush();
+    }
+
+    /**
+     * Writes the content that precedes the errors.
+     *
+     * @param writer the writer for the report file
+     * @throws IOException If the content cannot be written
+     */
+    protected abstract void writeHeader(Writer writer) throws IOException;
+
+    /**
+     * Writes a single error to the report.
+     *
+     * @param writer the writer for the report file
+     * @param error the reported error
+     * @throws IOException If the error cannot be written
+     */
+    protected abstract void writeError(Writer writer, AbstractError error) throws IOException;
+
+    /**
+     * Writes the content that follows the errors.
+     *
+     * @param writer the writer for the report file
+     * @throws IOException If the content cannot be written
+     */
+    protected abstract void writeFooter(Writer writer) throws IOException;
+
+    /**
+     * Writes an error that has not been reported to the listeners, e.g. an error from a
+     * previous run.
+     *
+     * @param error the error to write
+     */
+    public void addError(AbstractError error) {
+        writeErrorToReport(error);
+    }
+
+    /**
+     * Completes and closes the report. Errors that are reported afterward are ignored.
+     */
+    public synchronized void finishReport() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+
+        try {
+            writeFooter(writer);
+            writer.close();
+
+            LOGGER.info("Report generated to {}", destination);
+        } catch (IOException e) {
+            LOGGER.error("Could not write report to {}: {}", destination, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the number of distinct errors that have been written to the report.
+     *
+     * @return the number of written errors
+     */
+    public synchronized int getErrorCount() {
+        return writtenErrors.size();
+    }
+
+    private synchronized void writeErrorToReport(AbstractError error) {
+        if (finished) {
+            return;
+        }
+
+        if (!writtenErrors.add(getErrorKey(error))) {
+            return;
+        }
+
+        try {
+            writeError(writer, error);
+            // Flush the error such that it is visible while the analysis is running
+            writer.flush();
+        } catch (IOException e) {
+            LOGGER.error("Could not write error to {}: {}", destination, e.getMessage());
+        }
+    }
+
+    /**
+     * Computes a key that identifies an error like {@link AbstractError#equals(Object)}, i.e. by its
+     * type, its seed, its statement and its rule. The message covers the details that the error
+     * types compare in addition (e.g. the violated constraint).
+     *
+     * @param error the error
+     * @return the key of the error
+     */
+    private static String getErrorKey(AbstractError error) {
+        String ruleName = error.getRule() == null ? "" : error.getRule().getClassName();
+        String seed = error.getSeed() == null ? "" : error.getSeed().getMethod() + " " + error.getSeed();
+
+        return String.join("|",
+                error.getClass().getName(),
+                seed,
+                error.getMethod().toString(),
+                String.valueOf(error.getErrorStatement()),
+                String.valueOf(error.getLineNumber()),
+                ruleName,
+                error.toErrorMarkerString());
+    }
+
+    @Override
+    public void reportError(CallToError callToError) {
+        writeErrorToReport(callToError);
+    }
+
+    @Override
+    public void reportError(ConstraintError constraintError) {
+        writeErrorToReport(constraintError);
+    }
+
+    @Override
+    public void reportError(ForbiddenMethodError forbiddenMethodError) {
+        writeErrorToReport(forbiddenMethodError);
+    }
+
+    @Override
+    public void reportError(HardCodedError hardCodedError) {
+        writeErrorToReport(hardCodedError);
+    }
+
+    @Override
+    public void reportError(ImpreciseValueExtractionError impreciseValueExtractionError) {
+        writeErrorToReport(impreciseValueExtractionError);
+    }
+
+    @Override
+    public void reportError(IncompleteOperationError incompleteOperationError) {
+        writeErrorToReport(incompleteOperationError);
+    }
+
+    @Override
+    public void reportError(InstanceOfError instanceOfError) {
+        writeErrorToReport(instanceOfError);
+    }
+
+    @Override
+    public void reportError(NeverTypeOfError neverTypeOfError) {
+        writeErrorToReport(neverTypeOfError);
+    }
+
+    @Override
+    public void reportError(NoCallToError noCallToError) {
+        writeErrorToReport(noCallToError);
+    }
+
+    @Override
+    public void reportError(PredicateContradictionError predicateContradictionError) {
+        writeErrorToReport(predicateContradictionError);
+    }
+
+    @Override
+    public void reportError(RequiredPredicateError requiredPredicateError) {
+        writeErrorToReport(requiredPredicateError);
+    }
+
+    @Override
+    public void reportError(TypestateError typestateError) {
+        writeErrorToReport(typestateError);
+    }
+
+    @Override
+    public void reportError(UncaughtExceptionError uncaughtExceptionError) {
+        writeErrorToReport(uncaughtExceptionError);
+    }
+
+    @Override
+    public void reportError(AbstractError error) {
+        writeErrorToReport(error);
+    }
+}
@@ -0,0 +1,102 @@
+package crypto.reporting;
+
+import boomerang.scene.WrappedClass;
+import crypto.analysis.errors.AbstractError;
+import crypto.rules.CrySLRule;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+
+/**
+ * Writes the errors in the same structure as the {@link SARIFReporter}. The results are written
+ * as soon as the errors are reported, the files and rules that are referenced by the results are
+ * written after the results when the report is finished.
+ */
+public class StreamingSARIFReporter extends StreamingReporter {
+
+    private static final String FILE_ENDING = ".json";
+
+    private final SARIFHelper sarifHelper;
+    private final JSONObject files;
+    private final JSONObject rules;
+    private boolean firstResult;
+
+    public StreamingSARIFReporter(String outputDir, Collection<CrySLRule> ruleset) throws IOException {
+        super(outputDir, FILE_ENDING, ruleset);
+
+        this.sarifHelper = new SARIFHelper();
+        this.files = new JSONObject();
+        this.rules = new JSONObject();
+    }
+
+    @Override
+    protected void writeHeader(Writer writer) throws IOException {
+        firstResult = true;
+
+        writer.write("{");
+        writer.write(JSONObject.quote(SARIFConfig.SARIF_VERSION) + ":" + JSONObject.quote(SARIFConfig.SARIF_VERSION_NUMBER) + ",");
+        writer.write(JSONObject.quote(SARIFConfig.RUNS_KEY) + ":[{");
+        writer.write(JSONObject.quote(SARIFConfig.TOOL_KEY) + ":" + new SARIFHelper().getToolInfo() + ",");
+        writer.write(JSONObject.quote(SARIFConfig.RESULTS_KEY) + ":[");
+    }
+
+    @Override
+    protected void writeError(Writer writer, AbstractError error) throws IOException {
+        WrappedClass wrappedClass = error.getMethod().getDeclaringClass();
+        String methodName = error.getMethod().toString();
+        String errorType = error.getErrorType();
+        String richText = errorType + " violating CrySL rule for " + error.getRule().getClassName();
+
+        addFile(wrappedClass);
+        addRule(errorType);
+
+        JSONObject result = new JSONObject();
+        result.put(SARIFConfig.RULE_ID_KEY, errorType);
+        result.put(SARIFConfig.MESSAGE_KEY, sarifHelper.getMessage(error.toErrorMarkerString(), richText));
+        result.put(SARIFConfig.LOCATIONS_KEY, sarifHelper.getLocations(wrappedClass, methodName, error.getLineNumber(), methodName, error.getErrorStatement().toString()));
+
+        if (!firstResult) {
+            writer.write(",");
+        }
+        writer.write(result.toString());
+        firstResult = false;
+    }
+
+    @Override
+    protected void writeFooter(Writer writer) throws IOException {
+        JSONObject resources = new JSONObject();
+        resources.put(SARIFConfig.RULES_KEY, rules);
+
+        writer.write("],");
+        writer.write(JSONObject.quote(SARIFConfig.FILES_KEY) + ":" + files + ",");
+        writer.write(JSONObject.quote(SARIFConfig.RESOURCES_KEY) + ":" + resources);
+        writer.write("}]}");
+    }
+
+    private void addFile(WrappedClass wrappedClass) {
+        String filePath = sarifHelper.getFileName(wrappedClass);
+        if (files.has(filePath)) {
+            return;
+        }
+
+        JSONObject mimeType = new JSONObject();
+        mimeType.put(SARIFConfig.MIME_TYPE_KEY, SARIFConfig.MIME_TYPE_VALUE);
+        files.put(filePath, mimeType);
+    }
+
+    private void addRule(String errorType) {
+        if (rules.has(errorType)) {
+            return;
+        }
+
+        JSONObject fullDescription = new JSONObject();
+        fullDescription.put(SARIFConfig.TEXT_KEY, sarifHelper.getRuleDescription(errorType));
+
+        JSONObject ruleInfo = new JSONObject();
+        ruleInfo.put(SARIFConfig.RULES_ID_KEY, errorType);
+        ruleInfo.put(SARIFConfig.FULL_DESCRIPTION_KEY, fullDescription);
+        rules.put(errorType, ruleInfo);
+    }
+}
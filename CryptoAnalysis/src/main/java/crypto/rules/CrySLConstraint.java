@@ -12,7 +12,7 @@ public class CrySLConstraint implements ISLConstraint {
 	private final LogOps operator;
 	private final ISLConstraint left;
 	private final ISLConstraint right;
-	private Statement location;
+	private transient Statement location;
 
 	public CrySLConstraint(ISLConstraint l, ISLConstraint r, LogOps op) {
 		left = l;
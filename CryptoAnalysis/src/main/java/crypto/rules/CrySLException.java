@@ -1,9 +1,11 @@
 package crypto.rules;
 
+import java.io.Serializable;
+
 /**
  * Helper Class to store an {@link Exception} as a String.
  */
-public class CrySLException  {
+public class CrySLException implements Serializable {
 	
 
 	private final String exception;
@@ -21,7 +21,7 @@ public class CrySLExceptionConstraint implements ISLConstraint {
 	 * */
 	private final CrySLException exception;
 
-	private Statement location = null;
+	private transient Statement location = null;
 
 	/**
 	 * Construct the {@link CrySLExceptionConstraint} given the method and the
@@ -1,8 +1,9 @@
 package crypto.rules;
 
+import java.io.Serializable;
 import java.util.Collection;
 
-public class CrySLForbiddenMethod {
+public class CrySLForbiddenMethod implements Serializable {
 
 	private final CrySLMethod method;
 	private final Collection<CrySLMethod> alternatives;
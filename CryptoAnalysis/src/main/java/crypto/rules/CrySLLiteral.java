@@ -4,7 +4,7 @@ import boomerang.scene.Statement;
 
 public abstract class CrySLLiteral implements ISLConstraint {
 
-	private Statement location;
+	private transient Statement location;
 
 	protected CrySLLiteral() {
 	}
@@ -12,7 +12,7 @@ public class CrySLPredicate extends CrySLLiteral {
 	protected final String predName;
 	protected final List<ICrySLPredicateParameter> parameters;
 	protected final boolean negated;
-	protected final Optional<ISLConstraint> constraint;
+	protected final ISLConstraint constraint;
 	
 	public CrySLPredicate(ICrySLPredicateParameter baseObject, String name, List<ICrySLPredicateParameter> parameters, Boolean negated) {
 		this(baseObject, name, parameters, negated, Optional.empty());
@@ -27,7 +27,7 @@ public class CrySLPredicate extends CrySLLiteral {
 		this.predName = name;
 		this.parameters = parameters;
 		this.negated = negated;
-		this.constraint = constraint;
+		this.constraint = constraint.orElse(null);
 	}
 
 	@Override
@@ -78,7 +78,7 @@ public class CrySLPredicate extends CrySLLiteral {
 	 * @return the optConstraint
 	 */
 	public Optional<ISLConstraint> getConstraint() {
-		return this.constraint;
+		return Optional.ofNullable(this.constraint);
 	}
 
 	/**
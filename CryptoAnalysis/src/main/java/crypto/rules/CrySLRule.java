@@ -1,10 +1,11 @@
 package crypto.rules;
 
+import java.io.Serializable;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.Map;
 
-public class CrySLRule {
+public class CrySLRule implements Serializable {
 
 	private final String className;
 	
@@ -1,6 +1,8 @@
 package crypto.rules;
 
-public class CrySLSplitter {
+import java.io.Serializable;
+
+public class CrySLSplitter implements Serializable {
 
 	private final int index;
 	private final String split;
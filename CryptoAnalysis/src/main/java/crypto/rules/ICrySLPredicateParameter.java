@@ -1,6 +1,8 @@
 package crypto.rules;
 
-public interface ICrySLPredicateParameter {
+import java.io.Serializable;
+
+public interface ICrySLPredicateParameter extends Serializable {
 	
 	String getName();
 
@@ -2,12 +2,17 @@ package crypto.rules;
 
 import com.google.common.collect.Lists;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.stream.Collectors;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-public final class StateMachineGraph implements FiniteStateMachine<StateNode> {
+public final class StateMachineGraph implements FiniteStateMachine<StateNode>, Serializable {
 
 	private StateNode startNode;
 	private final Collection<StateNode> nodes;
@@ -15,15 +20,30 @@ public final class StateMachineGraph implements FiniteStateMachine<StateNode> {
 	private final Collection<TransitionEdge> initialEdges;
 	private int nodeNameCounter = 0;
 
+	/*
+	 * Adjacency lists of the nodes. The nodes are compared by identity because the hash code of a
+	 * node changes when it becomes accepting.
+	 */
+	private final Map<StateNode, List<TransitionEdge>> outgoingEdges;
+	private final Map<StateNode, List<TransitionEdge>> incomingEdges;
+	private final Set<String> nodeNames;
+
+	/* Computed on the first request and reset whenever a node is added or removed. The rules are
+	 * shared between the seeds, i.e. the graph may be queried concurrently. */
+	private volatile Collection<StateNode> acceptingStates;
+
 	public StateMachineGraph() {
 		nodes = new HashSet<>();
 		edges = new ArrayList<>();
 		initialEdges = new ArrayList<>();
+		outgoingEdges = new IdentityHashMap<>();
+		incomingEdges = new IdentityHashMap<>();
+		nodeNames = new HashSet<>();
 	}
 	
 	public StateNode createNewNode() {
 		StateNode node = new StateNode(String.valueOf(this.nodeNameCounter++), false, false);
-		this.nodes.add(node);
+		registerNode(node);
 		return node;
 	}
 	
@@ -34,13 +54,18 @@ public final class StateMachineGraph implements FiniteStateMachine<StateNode> {
 	private Boolean addEdge(TransitionEdge edge) {
 		final StateNode right = edge.getRight();
 		final StateNode left = edge.getLeft();
-		if (!(nodes.parallelStream().anyMatch(e -> e.equals(left)) || nodes.parallelStream().anyMatch(e -> e.equals(right)))) {
+		if (!(outgoingEdges.containsKey(left) || outgoingEdges.containsKey(right))) {
 			return false;
 		}
-		if (edges.contains(edge)) {
+
+		// An equal edge has the same left node, i.e. it is in the adjacency list of the left node
+		List<TransitionEdge> edgesFromLeft = outgoingEdges.computeIfAbsent(left, k -> new ArrayList<>());
+		if (edgesFromLeft.contains(edge)) {
 			return false;
 		}
 		edges.add(edge);
+		edgesFromLeft.add(edge);
+		incomingEdges.computeIfAbsent(right, k -> new ArrayList<>()).add(edge);
 		
 		if (left.isInitialState()) {
 			initialEdges.add(edge);
@@ -50,18 +75,22 @@ public final class StateMachineGraph implements FiniteStateMachine<StateNode> {
 	}
 
 	public void wrapUpCreation() {
-		getAcceptingStates().parallelStream().forEach(e -> {
-			e.setHopsToAccepting(0);
-			updateHops(e);
-		});
+		for (StateNode acceptingState : getAcceptingStates()) {
+			acceptingState.setHopsToAccepting(0);
+			updateHops(acceptingState);
+		}
 	}
 	
 	public Collection<TransitionEdge> getAllOutgoingEdges(StateNode node){
-		return edges.parallelStream().filter(edge -> edge.from().equals(node)).collect(Collectors.toSet());
+		return new ArrayList<>(outgoingEdges.getOrDefault(node, Collections.emptyList()));
+	}
+
+	public Collection<TransitionEdge> getAllIncomingEdges(StateNode node) {
+		return new ArrayList<>(incomingEdges.getOrDefault(node, Collections.emptyList()));
 	}
 	
 	public void addAllOutgoingEdgesFromOneNodeToOtherNodes(StateNode node, Collection<StateNode> otherNodes) {
-		Collection<TransitionEdge> edgesFromNode = edges.parallelStream().filter(e -> node.equals(e.from())).collect(Collectors.toList());
+		Collection<TransitionEdge> edgesFromNode = getAllOutgoingEdges(node);
 		otherNodes.forEach(otherNode -> edgesFromNode.forEach(edge -> this.createNewEdge(edge.getLabel(), otherNode, edge.getLeft())));
 	}
 	
@@ -71,7 +100,10 @@ public final class StateMachineGraph implements FiniteStateMachine<StateNode> {
 	}
 	
 	public Collection<StateNode> aggregateNodesToOtherNodes(Collection<StateNode> nodesToAggr, Collection<StateNode> startNodes){
-		Collection<TransitionEdge> edgesToAnyAggrNode = edges.parallelStream().filter(e -> nodesToAggr.contains(e.to())).collect(Collectors.toList());
+		Collection<TransitionEdge> edgesToAnyAggrNode = new ArrayList<>();
+		for (StateNode nodeToAggr : nodesToAggr) {
+			edgesToAnyAggrNode.addAll(incomingEdges.getOrDefault(nodeToAggr, Collections.emptyList()));
+		}
 		// Add new edges to newNode instead of Aggr Node 
 		startNodes.forEach(node -> edgesToAnyAggrNode.forEach(edgeToAggrNode -> this.createNewEdge(edgeToAggrNode.getLabel(), edgeToAggrNode.getLeft(), node)));
 		nodesToAggr.removeAll(startNodes);
@@ -86,29 +118,49 @@ public final class StateMachineGraph implements FiniteStateMachine<StateNode> {
 	private void removeNodeWithAllEdges(StateNode node) {
 		removeAllEdgesHavingNode(node);
 		nodes.remove(node);
+		nodeNames.remove(node.getName());
+		outgoingEdges.remove(node);
+		incomingEdges.remove(node);
+		acceptingStates = null;
 	}
 	
 	private void removeAllEdgesHavingNode(StateNode node) {
-		Collection<TransitionEdge> filteredEdges = edges.parallelStream().filter(e -> node.equals(e.to()) || node.equals(e.from())).collect(Collectors.toList());
-		edges.removeAll(filteredEdges);
+		Set<TransitionEdge> filteredEdges = Collections.newSetFromMap(new IdentityHashMap<>());
+		filteredEdges.addAll(outgoingEdges.getOrDefault(node, Collections.emptyList()));
+		filteredEdges.addAll(incomingEdges.getOrDefault(node, Collections.emptyList()));
+
+		for (TransitionEdge edge : filteredEdges) {
+			outgoingEdges.getOrDefault(edge.from(), Collections.emptyList()).remove(edge);
+			incomingEdges.getOrDefault(edge.to(), Collections.emptyList()).remove(edge);
+		}
+		edges.removeIf(filteredEdges::contains);
+		initialEdges.removeIf(filteredEdges::contains);
 	}
 
 	private void updateHops(StateNode node) {
 		int newPath = node.getHopsToAccepting() + 1;
-		getAllTransitions().parallelStream().forEach(e -> {
+		for (TransitionEdge e : getAllIncomingEdges(node)) {
 			StateNode theNewRight = e.getLeft();
-			if (e.getRight().equals(node) && theNewRight.getHopsToAccepting() > newPath) {
+			if (theNewRight.getHopsToAccepting() > newPath) {
 				theNewRight.setHopsToAccepting(newPath);
 				updateHops(theNewRight);
 			}
-		});
+		}
 	}
 
 	public Boolean addNode(StateNode node) {
 		if (node.isInitialState()) {
 			this.startNode = node;
 		}
-		return nodes.parallelStream().anyMatch(n -> n.getName().equals(node.getName())) ? false : nodes.add(node);
+		return nodeNames.contains(node.getName()) ? false : registerNode(node);
+	}
+
+	private boolean registerNode(StateNode node) {
+		nodeNames.add(node.getName());
+		outgoingEdges.putIfAbsent(node, new ArrayList<>());
+		incomingEdges.putIfAbsent(node, new ArrayList<>());
+		acceptingStates = null;
+		return nodes.add(node);
 	}
 
 	public String toString() {
@@ -146,8 +198,23 @@ public final class StateMachineGraph implements FiniteStateMachine<StateNode> {
 		return initialEdges;
 	}
 
+	/**
+	 * Returns the accepting states. The states are collected on the first call, i.e. nodes have to
+	 * be made accepting before the graph is queried for its accepting states.
+	 *
+	 * @return the accepting states
+	 */
 	public Collection<StateNode> getAcceptingStates() {
-		return nodes.parallelStream().filter(StateNode::getAccepting).collect(Collectors.toList());
+		if (acceptingStates == null) {
+			Collection<StateNode> states = new ArrayList<>();
+			for (StateNode node : nodes) {
+				if (node.getAccepting()) {
+					states.add(node);
+				}
+			}
+			acceptingStates = Collections.unmodifiableCollection(states);
+		}
+		return acceptingStates;
 	}
 
 	public Collection<TransitionEdge> getAllTransitions() {
@@ -1,6 +1,8 @@
 package crypto.rules;
 
-public class StateNode  {
+import java.io.Serializable;
+
+public class StateNode implements Serializable {
 
 	private final String name;
 
@@ -1,8 +1,9 @@
 package crypto.rules;
 
+import java.io.Serializable;
 import java.util.Collection;
 
-public class TransitionEdge implements Transition<StateNode> {
+public class TransitionEdge implements Transition<StateNode>, Serializable {
 
 	private final StateNode left;
 	private final StateNode right;
@@ -6,7 +6,7 @@ import boomerang.scene.Val;
 import crypto.rules.CrySLRule;
 import typestate.TransitionFunction;
 
-import java.util.Collection;
+import java.util.Set;
 
 public class ForwardSeedQuery extends WeightedForwardQuery<TransitionFunction> {
 
@@ -22,8 +22,8 @@ public class ForwardSeedQuery extends WeightedForwardQuery<TransitionFunction> {
         return new ForwardSeedQuery(stmt, fact, transitions.getInitialWeight(stmt), transitions);
     }
 
-    public static ForwardSeedQuery makeQueryWithoutSpecification(ControlFlowGraph.Edge stmt, Val fact) {
-        return new ForwardSeedQuery(stmt, fact, TransitionFunction.one(), RuleTransitions.of(null));
+    public static ForwardSeedQuery makeQueryWithoutSpecification(ControlFlowGraph.Edge stmt, Val fact, RuleTransitions transitions) {
+        return new ForwardSeedQuery(stmt, fact, TransitionFunction.one(), transitions);
     }
 
     public boolean hasSpecification() {
@@ -34,7 +34,7 @@ public class ForwardSeedQuery extends WeightedForwardQuery<TransitionFunction> {
         return transitions.getRule();
     }
 
-    public Collection<LabeledMatcherTransition> getAllTransitions() {
+    public Set<LabeledMatcherTransition> getAllTransitions() {
         return transitions.getAllTransitions();
     }
 }
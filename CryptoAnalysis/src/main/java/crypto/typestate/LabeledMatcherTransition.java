@@ -8,16 +8,20 @@ import typestate.finiteautomata.State;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class LabeledMatcherTransition extends MatcherTransition {
 
     private final Collection<CrySLMethod> methods;
+    private final Map<DeclaredMethod, Optional<CrySLMethod>> matchingMethods;
 
     public LabeledMatcherTransition(State from, Collection<CrySLMethod> methods, State to) {
         super(from, "", Parameter.This, to, Type.OnCallOrOnCallToReturn);
 
         this.methods = methods;
+        this.matchingMethods = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -35,13 +39,22 @@ public class LabeledMatcherTransition extends MatcherTransition {
      * @return The {@link CrySLMethod}'s matching the given declared method.
      */
     public Optional<CrySLMethod> getMatching(DeclaredMethod declaredMethod) {
+        // The weight functions query the same methods over and over again
+        Optional<CrySLMethod> matchingMethod = matchingMethods.get(declaredMethod);
+        if (matchingMethod != null) {
+            return matchingMethod;
+        }
+
+        matchingMethod = Optional.empty();
         for (CrySLMethod method : methods) {
             if (MatcherUtils.matchCryslMethodAndDeclaredMethod(method, declaredMethod)) {
-                return Optional.of(method);
+                matchingMethod = Optional.of(method);
+                break;
             }
         }
 
-        return Optional.empty();
+        matchingMethods.put(declaredMethod, matchingMethod);
+        return matchingMethod;
     }
 
     public Collection<CrySLMethod> getMethods() {
@@ -9,25 +9,58 @@ import crypto.rules.StateNode;
 import crypto.rules.TransitionEdge;
 import typestate.TransitionFunction;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+/**
+ * The typestate automaton of a rule's ORDER section. The automaton is compiled once from the
+ * {@link StateMachineGraph} and is immutable afterward, i.e. all seeds of the rule, their weight
+ * functions and their parameter extraction share it. The states are numbered and each state has
+ * an index of its outgoing transitions and the methods that lead to another state.
+ */
 public class MatcherTransitionCollection {
 
     private final StateMachineGraph smg;
     private final Set<LabeledMatcherTransition> transitions;
     private final Set<LabeledMatcherTransition> initialTransitions;
 
+    /* States indexed by their ids */
+    private final List<WrappedState> states;
+    private final Map<StateNode, WrappedState> statesByNode;
+
+    /* Outgoing transitions (including error transitions) and expected methods indexed by the state ids */
+    private final List<Collection<LabeledMatcherTransition>> outgoingTransitions;
+    private final List<Collection<CrySLMethod>> expectedMethods;
+
     private MatcherTransitionCollection(StateMachineGraph smg) {
         this.smg = smg;
 
-        transitions = new HashSet<>();
-        initialTransitions = new HashSet<>();
+        Set<LabeledMatcherTransition> transitions = new HashSet<>();
+        Set<LabeledMatcherTransition> initialTransitions = new HashSet<>();
+
+        this.states = new ArrayList<>();
+        this.statesByNode = new HashMap<>();
+        this.outgoingTransitions = new ArrayList<>();
+        this.expectedMethods = new ArrayList<>();
+
+        initializeStates();
+        initializeExistingTransitions(transitions, initialTransitions);
+        initializeErrorTransitions(transitions);
 
-        initializeExistingTransitions();
-        initializeErrorTransitions();
+        for (int i = 0; i < states.size(); i++) {
+            outgoingTransitions.set(i, Collections.unmodifiableCollection(outgoingTransitions.get(i)));
+            expectedMethods.set(i, Collections.unmodifiableCollection(expectedMethods.get(i)));
+        }
+
+        this.transitions = Collections.unmodifiableSet(transitions);
+        this.initialTransitions = Collections.unmodifiableSet(initialTransitions);
     }
 
     public static MatcherTransitionCollection makeCollection(StateMachineGraph smg) {
@@ -93,13 +126,70 @@ public class MatcherTransitionCollection {
         return transitions;
     }
 
-    private void initializeExistingTransitions() {
+    /**
+     * Returns the transitions that leave a state, including the transition to the state where
+     * typestate errors are reported.
+     *
+     * @param state the state of this automaton
+     * @return the outgoing transitions or an empty collection if the state is not part of this automaton
+     */
+    public Collection<LabeledMatcherTransition> getOutgoingTransitions(WrappedState state) {
+        int id = getStateId(state);
+        if (id < 0) {
+            return Collections.emptySet();
+        }
+        return outgoingTransitions.get(id);
+    }
+
+    /**
+     * Returns the methods that lead from a state to another state, i.e. the methods that are
+     * expected to be called if an object ends its lifecycle in the state.
+     *
+     * @param state the state of this automaton
+     * @return the expected methods or an empty collection if the state is not part of this automaton
+     */
+    public Collection<CrySLMethod> getExpectedMethods(WrappedState state) {
+        int id = getStateId(state);
+        if (id < 0) {
+            return Collections.emptySet();
+        }
+        return expectedMethods.get(id);
+    }
+
+    private int getStateId(WrappedState state) {
+        int id = state.getId();
+        if (id >= 0 && id < states.size() && states.get(id) == state) {
+            return id;
+        }
+
+        // The state has not been created by this automaton, e.g. in a comparison
+        WrappedState existingState = statesByNode.get(state.delegate());
+        return existingState == null ? -1 : existingState.getId();
+    }
+
+    private void initializeStates() {
+        for (StateNode node : smg.getNodes()) {
+            WrappedState state = WrappedState.of(node, node.equals(smg.getStartNode()), states.size());
+
+            states.add(state);
+            statesByNode.put(node, state);
+            outgoingTransitions.add(new ArrayList<>());
+            expectedMethods.add(new LinkedHashSet<>());
+        }
+    }
+
+    private void initializeExistingTransitions(Set<LabeledMatcherTransition> transitions, Set<LabeledMatcherTransition> initialTransitions) {
         for (TransitionEdge edge : smg.getAllTransitions()) {
-            WrappedState from = createWrappedState(edge.from());
-            WrappedState to = createWrappedState(edge.to());
+            WrappedState from = statesByNode.get(edge.from());
+            WrappedState to = statesByNode.get(edge.to());
 
             LabeledMatcherTransition matcherTransition = new LabeledMatcherTransition(from, edge.getLabel(), to);
             transitions.add(matcherTransition);
+            outgoingTransitions.get(from.getId()).add(matcherTransition);
+
+            if (!edge.from().equals(edge.to())) {
+                expectedMethods.get(from.getId()).addAll(edge.getLabel());
+            }
 
             if (smg.getInitialTransitions().contains(edge)) {
                 initialTransitions.add(matcherTransition);
@@ -107,37 +197,36 @@ public class MatcherTransitionCollection {
         }
     }
 
-    private void initializeErrorTransitions() {
+    private void initializeErrorTransitions(Set<LabeledMatcherTransition> transitions) {
         Set<CrySLMethod> allMethods = new HashSet<>();
         for (TransitionEdge edge : smg.getAllTransitions()) {
             allMethods.addAll(edge.getLabel());
         }
+        Collection<CrySLMethod> unmodifiableAllMethods = Collections.unmodifiableSet(allMethods);
 
-        for (StateNode node : smg.getNodes()) {
+        // Once in an error state, never leave it again
+        ErrorStateNode errorState = new ErrorStateNode();
+
+        for (WrappedState state : states) {
             // Collect the methods that are on an outgoing edge
             Set<CrySLMethod> existingMethods = new HashSet<>();
-            for (TransitionEdge edge : smg.getAllOutgoingEdges(node)) {
-                existingMethods.addAll(edge.getLabel());
+            for (LabeledMatcherTransition transition : outgoingTransitions.get(state.getId())) {
+                existingMethods.addAll(transition.getMethods());
             }
 
             // Remove the existing methods; all remaining methods lead to an error state
             Set<CrySLMethod> remainingMethods = new HashSet<>(allMethods);
             remainingMethods.removeAll(existingMethods);
+            Collection<CrySLMethod> unmodifiableRemainingMethods = Collections.unmodifiableSet(remainingMethods);
 
             // Create the error state, where typestate errors are reported
-            WrappedState state = createWrappedState(node);
-            ReportingErrorStateNode repErrorState = new ReportingErrorStateNode(remainingMethods);
-            LabeledMatcherTransition repErrorTransition = new LabeledMatcherTransition(state, remainingMethods, repErrorState);
+            ReportingErrorStateNode repErrorState = new ReportingErrorStateNode(unmodifiableRemainingMethods);
+            LabeledMatcherTransition repErrorTransition = new LabeledMatcherTransition(state, unmodifiableRemainingMethods, repErrorState);
             transitions.add(repErrorTransition);
+            outgoingTransitions.get(state.getId()).add(repErrorTransition);
 
-            // Once in an error state, never leave it again
-            ErrorStateNode errorState = new ErrorStateNode();
-            LabeledMatcherTransition errorTransition = new LabeledMatcherTransition(repErrorState, allMethods, errorState);
+            LabeledMatcherTransition errorTransition = new LabeledMatcherTransition(repErrorState, unmodifiableAllMethods, errorState);
             transitions.add(errorTransition);
         }
     }
-
-    private WrappedState createWrappedState(StateNode node) {
-        return WrappedState.of(node, node.equals(smg.getStartNode()));
-    }
 }
@@ -4,7 +4,7 @@ import boomerang.scene.ControlFlowGraph;
 import crypto.rules.CrySLRule;
 import typestate.TransitionFunction;
 
-import java.util.Collection;
+import java.util.Set;
 
 public class RuleTransitions {
 
@@ -27,10 +27,14 @@ public class RuleTransitions {
         return rule;
     }
 
-    public Collection<LabeledMatcherTransition> getAllTransitions() {
+    public Set<LabeledMatcherTransition> getAllTransitions() {
         return transitions.getAllTransitions();
     }
 
+    public MatcherTransitionCollection getMatcherTransitions() {
+        return transitions;
+    }
+
     public TransitionFunction getInitialWeight(ControlFlowGraph.Edge edge) {
         return transitions.getInitialWeight(edge);
     }
@@ -8,34 +8,57 @@ import boomerang.results.ForwardBoomerangResults;
 import boomerang.scene.CallGraph;
 import boomerang.scene.ControlFlowGraph;
 import boomerang.scene.DataFlowScope;
+import boomerang.scene.Method;
 import boomerang.scene.Val;
-import crypto.rules.CrySLRule;
 import ideal.IDEALAnalysis;
 import ideal.IDEALAnalysisDefinition;
 import ideal.IDEALResultHandler;
 import ideal.IDEALSeedSolver;
-import ideal.StoreIDEALResultHandler;
 import sync.pds.solver.WeightFunctions;
 import typestate.TransitionFunction;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 public abstract class TypestateAnalysis {
 
-    private final StoreIDEALResultHandler<TransitionFunction> resultHandler;
+    private final Map<WeightedForwardQuery<TransitionFunction>, ForwardBoomerangResults<TransitionFunction>> idealResults;
+    private final IDEALResultHandler<TransitionFunction> resultHandler;
     private final TypestateAnalysisScope analysisScope;
+    private final List<ForwardSeedQuery> analyzedQueries;
+    private final Map<ForwardSeedQuery, Long> analysisTimes;
 
-    public TypestateAnalysis(Collection<CrySLRule> rules) {
+    public TypestateAnalysis(Collection<RuleTransitions> ruleTransitions) {
         Map<String, RuleTransitions> transitions = new HashMap<>();
 
-        for (CrySLRule rule : rules) {
-            transitions.put(rule.getClassName(), RuleTransitions.of(rule));
+        for (RuleTransitions ruleTransition : ruleTransitions) {
+            transitions.put(ruleTransition.getRule().getClassName(), ruleTransition);
         }
 
-        analysisScope = new TypestateAnalysisScope(callGraph(), transitions, getDataFlowScope());
-        resultHandler = new StoreIDEALResultHandler<>();
+        analysisScope = new TypestateAnalysisScope(callGraph(), transitions, getDataFlowScope(), getThreadCount());
+        idealResults = new ConcurrentHashMap<>();
+        analyzedQueries = new ArrayList<>();
+        analysisTimes = new ConcurrentHashMap<>();
+
+        // The solvers may report their results concurrently
+        resultHandler = new IDEALResultHandler<>() {
+            @Override
+            public void report(WeightedForwardQuery<TransitionFunction> seed, ForwardBoomerangResults<TransitionFunction> results) {
+                if (results != null) {
+                    idealResults.put(seed, results);
+                }
+            }
+        };
     }
 
     public void runTypestateAnalysis() {
@@ -47,19 +70,79 @@ public abstract class TypestateAnalysis {
                 continue;
             }
 
-            ForwardSeedQuery query = (ForwardSeedQuery) seed;
-            runTypestateAnalysisForSeed(query);
+            if (!isSeedMethod(seed.cfgEdge().getStart().getMethod())) {
+                continue;
+            }
+
+            analyzedQueries.add((ForwardSeedQuery) seed);
+        }
+
+        if (getThreadCount() > 1) {
+            runTypestateAnalysisInParallel();
+        } else {
+            for (ForwardSeedQuery query : analyzedQueries) {
+                runTypestateAnalysisForSeed(query);
+            }
+        }
+    }
+
+    /**
+     * Run the IDEAL analyses for the seeds concurrently. Each seed gets its own solver, i.e. the only
+     * shared state are the methods in the call graph. Boomerang builds their control flow graphs and
+     * locals lazily without synchronization, so these caches are filled before the solvers start.
+     */
+    private void runTypestateAnalysisInParallel() {
+        prepareReachableMethods();
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (ForwardSeedQuery query : analyzedQueries) {
+            tasks.add(() -> {
+                runTypestateAnalysisForSeed(query);
+                return null;
+            });
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(getThreadCount());
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while running the typestate analysis");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error while running the typestate analysis: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void prepareReachableMethods() {
+        Collection<Method> methods = new ArrayList<>(callGraph().getEntryPoints());
+        methods.addAll(callGraph().getReachableMethods());
+
+        for (Method method : methods) {
+            if (method.isNative()) {
+                continue;
+            }
+
+            method.getControlFlowGraph().getStartPoints();
+            method.getLocals();
+            method.getParameterLocals();
+            method.getReturnLocals();
         }
     }
 
     private void runTypestateAnalysisForSeed(ForwardSeedQuery query) {
         // Initialize typestate function
-        Collection<LabeledMatcherTransition> transitions = query.getAllTransitions();
+        Set<LabeledMatcherTransition> transitions = query.getAllTransitions();
         TypestateFunction typestateFunction = new TypestateFunction(transitions);
 
         // Initialize and run IDE with Aliasing
+        long startTime = System.nanoTime();
         IDEALAnalysis<TransitionFunction> idealAnalysis = new IDEALAnalysis<>(getIdealAnalysisDefinition(typestateFunction));
         idealAnalysis.run(query);
+        analysisTimes.put(query, System.nanoTime() - startTime);
     }
 
     private IDEALAnalysisDefinition<TransitionFunction> getIdealAnalysisDefinition(TypestateFunction typestateFunction) {
@@ -101,20 +184,37 @@ public abstract class TypestateAnalysis {
         };
     }
 
+    /**
+     * Returns the results of the IDEAL analyses. The entries are ordered like the seeds that were
+     * computed in the analysis scope, independent of the order in which the solvers finished.
+     *
+     * @return the results for each seed that has been analyzed
+     */
     public Map<ForwardSeedQuery, ForwardBoomerangResults<TransitionFunction>> getResults() {
-        Map<ForwardSeedQuery, ForwardBoomerangResults<TransitionFunction>> results = new HashMap<>();
+        Map<ForwardSeedQuery, ForwardBoomerangResults<TransitionFunction>> results = new LinkedHashMap<>();
+
+        for (ForwardSeedQuery query : analyzedQueries) {
+            ForwardBoomerangResults<TransitionFunction> queryResults = idealResults.get(query);
 
-        for (Map.Entry<WeightedForwardQuery<TransitionFunction>, ForwardBoomerangResults<TransitionFunction>> entry : resultHandler.getResults().entrySet()) {
-            if (!(entry.getKey() instanceof ForwardSeedQuery)) {
+            if (queryResults == null) {
                 continue;
             }
-
-            ForwardSeedQuery forwardSeedQuery = (ForwardSeedQuery) entry.getKey();
-            results.put(forwardSeedQuery, entry.getValue());
+            results.put(query, queryResults);
         }
         return results;
     }
 
+    /**
+     * Returns the time that the IDEAL analysis took for a seed. In contrast to the checks of the seed's
+     * results, this includes the typestate and alias computations, which usually dominate the time.
+     *
+     * @param query the seed
+     * @return the time in nanoseconds or 0, if the seed has not been analyzed
+     */
+    public long getAnalysisTime(ForwardSeedQuery query) {
+        return analysisTimes.getOrDefault(query, 0L);
+    }
+
     public abstract CallGraph callGraph();
 
     public abstract DataFlowScope getDataFlowScope();
@@ -122,4 +222,8 @@ public abstract class TypestateAnalysis {
     public abstract Debugger<TransitionFunction> debugger(IDEALSeedSolver<TransitionFunction> idealSeedSolver);
 
     public abstract int getTimeout();
+
+    public abstract int getThreadCount();
+
+    public abstract boolean isSeedMethod(Method method);
 }
@@ -8,29 +8,155 @@ import boomerang.scene.ControlFlowGraph;
 import boomerang.scene.DataFlowScope;
 import boomerang.scene.DeclaredMethod;
 import boomerang.scene.InvokeExpr;
+import boomerang.scene.Method;
 import boomerang.scene.Statement;
 import boomerang.scene.Val;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Lists;
 import crypto.rules.CrySLMethod;
 import crypto.rules.CrySLPredicate;
 import crypto.rules.CrySLRule;
 import crypto.rules.ICrySLPredicateParameter;
 import crypto.utils.MatcherUtils;
+import crypto.utils.SootUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 public class TypestateAnalysisScope extends AnalysisScope {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(TypestateAnalysisScope.class);
+
+    /* Number of chunks per thread, such that threads with cheap methods can take over more chunks */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final CallGraph callGraph;
     private final Map<String, RuleTransitions> ruleTransitions;
+    private final RuleTransitions noSpecificationTransitions;
     private final DataFlowScope dataFlowScope;
+    private final int threadCount;
 
     public TypestateAnalysisScope(CallGraph callGraph, Map<String, RuleTransitions> ruleTransitions, DataFlowScope dataFlowScope) {
+        this(callGraph, ruleTransitions, dataFlowScope, 1);
+    }
+
+    public TypestateAnalysisScope(CallGraph callGraph, Map<String, RuleTransitions> ruleTransitions, DataFlowScope dataFlowScope, int threadCount) {
         super(callGraph);
 
+        this.callGraph = callGraph;
         this.ruleTransitions = ruleTransitions;
+        this.noSpecificationTransitions = RuleTransitions.of(null);
         this.dataFlowScope = dataFlowScope;
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Computes the seeds in the reachable application methods. With a single thread, the seeds are
+     * computed by Boomerang's {@link AnalysisScope}. Otherwise, the reachable methods are collected
+     * first, and the control flow edges of the methods are scanned concurrently in chunks. The
+     * seeds are merged in the order of the methods, i.e. the result does not depend on the
+     * scheduling of the threads.
+     *
+     * @return the seeds in the reachable application methods
+     */
+    @Override
+    public Collection<Query> computeSeeds() {
+        if (threadCount <= 1) {
+            return super.computeSeeds();
+        }
+
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        List<Method> methods = collectReachableMethods();
+        SootUtils.prepareHierarchy();
+
+        int chunkSize = Math.max(1, (methods.size() + threadCount * CHUNKS_PER_THREAD - 1) / (threadCount * CHUNKS_PER_THREAD));
+        List<Callable<Collection<Query>>> tasks = new ArrayList<>();
+        for (List<Method> chunk : Lists.partition(methods, chunkSize)) {
+            tasks.add(() -> computeSeedsInMethods(chunk));
+        }
+
+        Set<Query> seeds = new LinkedHashSet<>();
+        ForkJoinPool pool = new ForkJoinPool(threadCount);
+        try {
+            for (Future<Collection<Query>> future : pool.invokeAll(tasks)) {
+                seeds.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while computing the seeds");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error while computing the seeds: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        LOGGER.info("Found {} seeds in {} methods with {} threads in {}", seeds.size(), methods.size(), threadCount, stopwatch);
+        return seeds;
+    }
+
+    /**
+     * Collects the application methods that are reachable from the entry points, in the same order
+     * as Boomerang's {@link AnalysisScope} processes them. Boomerang builds the statements and
+     * control flow graphs of the methods lazily without synchronization, so they are built here
+     * before the methods are scanned concurrently.
+     */
+    private List<Method> collectReachableMethods() {
+        List<Method> methods = new ArrayList<>();
+        Set<Method> visited = new HashSet<>(callGraph.getEntryPoints());
+        Deque<Method> worklist = new ArrayDeque<>(callGraph.getEntryPoints());
+
+        while (!worklist.isEmpty()) {
+            Method method = worklist.poll();
+            methods.add(method);
+
+            method.getControlFlowGraph().getStartPoints();
+            for (Statement statement : method.getStatements()) {
+                if (!statement.containsInvokeExpr()) {
+                    continue;
+                }
+
+                for (CallGraph.Edge callGraphEdge : callGraph.edgesOutOf(statement)) {
+                    Method target = callGraphEdge.tgt();
+
+                    // Library classes are not scanned for seeds, as in Boomerang's AnalysisScope
+                    if (!target.getDeclaringClass().isApplicationClass()) {
+                        continue;
+                    }
+
+                    if (visited.add(target)) {
+                        worklist.add(target);
+                    }
+                }
+            }
+        }
+        return methods;
+    }
+
+    private Collection<Query> computeSeedsInMethods(Collection<Method> methods) {
+        Collection<Query> seeds = new LinkedHashSet<>();
+
+        for (Method method : methods) {
+            for (Statement statement : method.getStatements()) {
+                for (Statement successor : method.getControlFlowGraph().getSuccsOf(statement)) {
+                    seeds.addAll(generate(new ControlFlowGraph.Edge(statement, successor)));
+                }
+            }
+        }
+        return seeds;
     }
 
     @Override
@@ -180,7 +306,7 @@ public class TypestateAnalysisScope extends AnalysisScope {
                     continue;
                 }
 
-                ForwardSeedQuery paramSeed = ForwardSeedQuery.makeQueryWithoutSpecification(edge, allocVal);
+                ForwardSeedQuery paramSeed = ForwardSeedQuery.makeQueryWithoutSpecification(edge, allocVal, noSpecificationTransitions);
                 seeds.add(paramSeed);
             }
         }
@@ -223,7 +349,7 @@ public class TypestateAnalysisScope extends AnalysisScope {
                 seeds.add(seed);
             } else {
                 // Case where no rule exists, e.g. byte[] bytes = key.getEncoded();
-                ForwardSeedQuery seed = ForwardSeedQuery.makeQueryWithoutSpecification(edge, allocVal);
+                ForwardSeedQuery seed = ForwardSeedQuery.makeQueryWithoutSpecification(edge, allocVal, noSpecificationTransitions);
                 seeds.add(seed);
             }
         }
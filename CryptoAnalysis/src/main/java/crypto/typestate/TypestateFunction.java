@@ -9,14 +9,14 @@ import typestate.finiteautomata.TypeStateMachineWeightFunctions;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Set;
 
 
 public class TypestateFunction extends TypeStateMachineWeightFunctions {
 
-    public TypestateFunction(Collection<LabeledMatcherTransition> transitions) {
-        for (MatcherTransition transition : transitions) {
-            this.addTransition(transition);
-        }
+    public TypestateFunction(Set<? extends MatcherTransition> transitions) {
+        // The transitions are compiled once per rule and never modified, i.e. they can be shared
+        this.transition = Collections.unmodifiableSet(transitions);
     }
 
     @Override
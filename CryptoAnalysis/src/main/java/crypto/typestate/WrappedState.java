@@ -7,27 +7,36 @@ public class WrappedState implements State {
 	private final StateNode delegate;
 	private final boolean initialState;
 
-	private WrappedState(StateNode delegate, boolean initialState) {
+	/* Index of the state in its automaton, or -1 if the state does not belong to an automaton */
+	private final int id;
+	private final int hashCode;
+
+	private WrappedState(StateNode delegate, boolean initialState, int id) {
 		this.delegate = delegate;
 		this.initialState = initialState;
+		this.id = id;
+		this.hashCode = computeHashCode();
 	}
 
-	private WrappedState(StateNode delegate) {
-		this.delegate = delegate;
-		this.initialState = false;
+	public static WrappedState of(StateNode delegate, boolean initialState, int id) {
+		return new WrappedState(delegate, initialState, id);
 	}
 
 	public static WrappedState of(StateNode delegate, boolean initialState) {
-		return new WrappedState(delegate, initialState);
+		return new WrappedState(delegate, initialState, -1);
 	}
 
 	public static WrappedState of(StateNode delegate) {
-		return new WrappedState(delegate);
+		return new WrappedState(delegate, false, -1);
 	}
 	
 	public StateNode delegate(){
 		return delegate;
 	}
+
+	public int getId() {
+		return id;
+	}
 	
 	@Override
 	public boolean isErrorState() {
@@ -46,6 +55,10 @@ public class WrappedState implements State {
 
 	@Override
 	public int hashCode() {
+		return hashCode;
+	}
+
+	private int computeHashCode() {
 		final int prime = 31;
 		int result = 1;
 		result = prime * result + ((delegate == null) ? 0 : delegate.hashCode());
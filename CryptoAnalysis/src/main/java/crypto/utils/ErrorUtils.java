@@ -20,7 +20,7 @@ public class ErrorUtils {
 
         for (Table.Cell<WrappedClass, Method, Set<AbstractError>> cell : errorCollection.cellSet()) {
             for (AbstractError error : cell.getValue()) {
-                String errorClass = error.getClass().getSimpleName();
+                String errorClass = error.getErrorType();
                 errorCounts.put(errorClass, errorCounts.containsKey(errorClass) ? errorCounts.get(errorClass) + 1 : 1);
             }
         }
@@ -39,7 +39,7 @@ public class ErrorUtils {
             }
 
             for (AbstractError error : cell.getValue()) {
-                String errorName = error.getClass().getSimpleName();
+                String errorName = error.getErrorType();
 
                 if (errorName.equals(errorClass.getSimpleName())) {
                     result++;
@@ -54,7 +54,7 @@ public class ErrorUtils {
         int result = 0;
 
         for (AbstractError error : errors) {
-            if (error.getClass().getSimpleName().equals(errorType.getSimpleName())) {
+            if (error.getErrorType().equals(errorType.getSimpleName())) {
                 result++;
             }
         }
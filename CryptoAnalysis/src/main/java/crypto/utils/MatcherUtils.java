@@ -3,31 +3,101 @@ package crypto.utils;
 import boomerang.scene.DeclaredMethod;
 import boomerang.scene.WrappedClass;
 import boomerang.scene.jimple.JimpleType;
+import com.google.common.collect.MapMaker;
 import crypto.rules.CrySLMethod;
 import crypto.rules.CrySLRule;
 import soot.Scene;
 import soot.SootClass;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 public class MatcherUtils {
 
+    private static final Pattern GENERIC_TYPE_ARGUMENTS = Pattern.compile("<.*?>");
+
+    /*
+     * The matching of CrySL methods and declared methods only depends on the rules and the classes in
+     * Soot's Scene. Hence, the results are cached for the whole scan. The rules and CrySL methods are
+     * compared by identity (weak keys), and all caches are cleared when Soot is reset.
+     */
+    private static final Map<CrySLRule, Map<String, Collection<CrySLMethod>>> eventsByNameAndArity = new MapMaker().weakKeys().makeMap();
+    private static final Map<CrySLRule, Map<DeclaredMethod, Collection<CrySLMethod>>> matchingEvents = new MapMaker().weakKeys().makeMap();
+    private static final Map<CrySLMethod, Map<DeclaredMethod, Boolean>> matchResults = new MapMaker().weakKeys().makeMap();
+    private static volatile Scene cacheScene;
+
     public static Collection<CrySLMethod> getMatchingCryslMethodsToDeclaredMethod(CrySLRule rule, DeclaredMethod declaredMethod) {
-        Collection<CrySLMethod> matchingMethods = new HashSet<>();
-        for (CrySLMethod method : rule.getEvents()) {
-            if (matchCryslMethodAndDeclaredMethod(method, declaredMethod)) {
-                matchingMethods.add(method);
+        checkCacheScene();
+
+        Map<DeclaredMethod, Collection<CrySLMethod>> matchingMethodsForRule = matchingEvents.computeIfAbsent(rule, r -> new ConcurrentHashMap<>());
+        Collection<CrySLMethod> matchingMethods = matchingMethodsForRule.get(declaredMethod);
+
+        if (matchingMethods == null) {
+            matchingMethods = new HashSet<>();
+
+            // Only the events with the same name and number of parameters can match the declared method
+            String key = getIndexKey(getDeclaredMethodName(declaredMethod), SootUtils.getParameterTypes(declaredMethod).size());
+            for (CrySLMethod method : getEventIndex(rule).getOrDefault(key, Collections.emptyList())) {
+                if (matchCryslMethodAndDeclaredMethod(method, declaredMethod)) {
+                    matchingMethods.add(method);
+                }
+            }
+            matchingMethodsForRule.put(declaredMethod, matchingMethods);
+        }
+        return new HashSet<>(matchingMethods);
+    }
+
+    private static Map<String, Collection<CrySLMethod>> getEventIndex(CrySLRule rule) {
+        return eventsByNameAndArity.computeIfAbsent(rule, r -> {
+            Map<String, Collection<CrySLMethod>> index = new HashMap<>();
+
+            for (CrySLMethod method : r.getEvents()) {
+                String key = getIndexKey(method.getShortMethodName(), method.getParameters().size());
+                index.computeIfAbsent(key, k -> new ArrayList<>()).add(method);
+            }
+            return index;
+        });
+    }
+
+    private static String getIndexKey(String methodName, int parameterCount) {
+        return methodName + "/" + parameterCount;
+    }
+
+    private static void checkCacheScene() {
+        Scene scene = Scene.v();
+
+        if (cacheScene != scene) {
+            synchronized (matchResults) {
+                if (cacheScene != scene) {
+                    matchingEvents.clear();
+                    matchResults.clear();
+                    cacheScene = scene;
+                }
             }
         }
-        return matchingMethods;
     }
 
     public static boolean matchCryslMethodAndDeclaredMethod(CrySLMethod cryslMethod, DeclaredMethod declaredMethod) {
-        // Compare method names
-        String cryslName = cryslMethod.getShortMethodName();
+        checkCacheScene();
+
+        Map<DeclaredMethod, Boolean> resultsForMethod = matchResults.computeIfAbsent(cryslMethod, m -> new ConcurrentHashMap<>());
+        Boolean result = resultsForMethod.get(declaredMethod);
+
+        if (result == null) {
+            result = computeMatch(cryslMethod, declaredMethod);
+            resultsForMethod.put(declaredMethod, result);
+        }
+        return result;
+    }
+
+    private static String getDeclaredMethodName(DeclaredMethod declaredMethod) {
         String declaredName = declaredMethod.getName();
 
         // Check for constructors: CryslMethod stores the actual class name, DeclaredMethod stores '<init>'
@@ -35,6 +105,13 @@ public class MatcherUtils {
             WrappedClass wrappedClass = declaredMethod.getDeclaringClass();
             declaredName = ((SootClass) wrappedClass.getDelegate()).getShortName();
         }
+        return declaredName;
+    }
+
+    private static boolean computeMatch(CrySLMethod cryslMethod, DeclaredMethod declaredMethod) {
+        // Compare method names
+        String cryslName = cryslMethod.getShortMethodName();
+        String declaredName = getDeclaredMethodName(declaredMethod);
 
         if (!cryslName.equals(declaredName)) {
             return false;
@@ -73,7 +150,7 @@ public class MatcherUtils {
             }
 
             // Soot does not track generic types, so we are required to remove <...> from the parameter
-            String cryslParameter = cryslParameters.get(i).getValue().replaceAll("<.*?>", "");
+            String cryslParameter = GENERIC_TYPE_ARGUMENTS.matcher(cryslParameters.get(i).getValue()).replaceAll("");
             String declaredParameter = declaredParameters.get(i).toString();
 
             // null type corresponds to any type
@@ -10,12 +10,19 @@ import soot.Type;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class SootUtils {
 
+    /* Super types (transitive closure) for each class that has been checked in the current Scene */
+    private static final Map<SootClass, Set<SootClass>> superTypes = new ConcurrentHashMap<>();
+    private static volatile Scene hierarchyScene;
+
     public static List<JimpleType> getParameterTypes(DeclaredMethod declaredMethod) {
         if (!(declaredMethod instanceof JimpleDeclaredMethod)) {
             throw new RuntimeException("DeclaredMethod is not a JimpleDeclaredMethod");
@@ -65,9 +72,44 @@ public class SootUtils {
         SootClass child = Scene.v().getSootClass(childClass);
         SootClass parent = Scene.v().getSootClass(parentClass);
 
-        Collection<SootClass> fullHierarchy = getFullHierarchy(child, new HashSet<>());
+        return getSuperTypes(child).contains(parent);
+    }
+
+    /**
+     * Builds Soot's class hierarchy if it has not been built yet. Soot builds the hierarchy lazily
+     * without synchronization, so it has to exist before classes are compared concurrently.
+     */
+    public static void prepareHierarchy() {
+        Scene.v().getActiveHierarchy();
+    }
+
+    /**
+     * Returns the super types of a class, i.e. the class itself and all classes and interfaces it
+     * extends or implements transitively. The hierarchy of a class does not change once it has been
+     * loaded, so the super types are computed only once per class and Scene. The cache is cleared
+     * when Soot is reset.
+     *
+     * @param sootClass the class
+     * @return the super types of the class
+     */
+    private static Set<SootClass> getSuperTypes(SootClass sootClass) {
+        Scene scene = Scene.v();
+
+        if (hierarchyScene != scene) {
+            synchronized (superTypes) {
+                if (hierarchyScene != scene) {
+                    superTypes.clear();
+                    hierarchyScene = scene;
+                }
+            }
+        }
 
-        return fullHierarchy.contains(parent);
+        Set<SootClass> result = superTypes.get(sootClass);
+        if (result == null) {
+            result = Collections.unmodifiableSet(new HashSet<>(getFullHierarchy(sootClass, new HashSet<>())));
+            superTypes.put(sootClass, result);
+        }
+        return result;
     }
 
     private static Collection<SootClass> getFullHierarchy(SootClass sourceClass, Set<SootClass> visited) {
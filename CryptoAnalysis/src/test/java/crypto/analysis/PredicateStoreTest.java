@@ -0,0 +1,175 @@
+package crypto.analysis;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.google.common.collect.Table;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class PredicateStoreTest {
+
+    private PredicateStore.Interner<String> statements;
+    private PredicateStore<String, String, String> store;
+
+    @Before
+    public void setUp() {
+        statements = new PredicateStore.Interner<>();
+        store = new PredicateStore<>(statements, new PredicateStore.Interner<>());
+    }
+
+    @Test
+    public void testAdd() {
+        Assert.assertTrue(store.add("s1", "v1", "p1"));
+        Assert.assertTrue(store.add("s1", "v1", "p2"));
+        Assert.assertFalse(store.add("s1", "v1", "p1"));
+
+        Assert.assertEquals(ImmutableSet.of("p1", "p2"), store.get("s1", "v1"));
+        Assert.assertTrue(store.get("s1", "v1").contains("p2"));
+        Assert.assertFalse(store.get("s1", "v1").contains("p3"));
+    }
+
+    @Test
+    public void testGetUnknownCell() {
+        store.add("s1", "v1", "p1");
+
+        Assert.assertEquals(Collections.emptySet(), store.get("s1", "v2"));
+        Assert.assertEquals(Collections.emptySet(), store.get("s2", "v1"));
+        Assert.assertEquals(Collections.emptyMap(), store.getRow("s2"));
+    }
+
+    @Test
+    public void testGetReturnsSnapshot() {
+        store.add("s1", "v1", "p1");
+        Set<String> view = store.get("s1", "v1");
+
+        store.add("s1", "v1", "p2");
+        Assert.assertEquals(ImmutableSet.of("p1"), view);
+        Assert.assertEquals(ImmutableSet.of("p1", "p2"), store.get("s1", "v1"));
+    }
+
+    @Test
+    public void testGetRow() {
+        store.add("s1", "v1", "p1");
+        store.add("s1", "v2", "p2");
+        store.add("s2", "v1", "p3");
+
+        Map<String, Set<String>> row = store.getRow("s1");
+        Assert.assertEquals(2, row.size());
+        Assert.assertEquals(ImmutableSet.of("p1"), row.get("v1"));
+        Assert.assertEquals(ImmutableSet.of("p2"), row.get("v2"));
+    }
+
+    @Test
+    public void testGetStatements() {
+        // Interning a statement in a shared interner does not create a row in the store
+        statements.getId("s0");
+        store.add("s1", "v1", "p1");
+        store.add("s2", "v1", "p2");
+
+        Assert.assertEquals(ImmutableSet.of("s1", "s2"), new HashSet<>(store.getStatements()));
+    }
+
+    @Test
+    public void testReplace() {
+        store.add("s2", "v1", "p1");
+        store.replace("s1", "v1", "s2", "p2");
+
+        Assert.assertEquals(ImmutableSet.of("p1", "p2"), store.get("s1", "v1"));
+    }
+
+    @Test
+    public void testReplaceWithEmptySource() {
+        store.replace("s1", "v1", "s2", "p1");
+
+        Assert.assertEquals(ImmutableSet.of("p1"), store.get("s1", "v1"));
+        Assert.assertEquals(Collections.emptySet(), store.get("s2", "v1"));
+        Assert.assertEquals(ImmutableSet.of("s1"), new HashSet<>(store.getStatements()));
+    }
+
+    @Test
+    public void testReplaceRemovesPredicatesOfReplacedCell() {
+        store.add("s1", "v1", "p1");
+        store.add("s1", "v2", "p1");
+        store.add("s2", "v1", "p2");
+        store.replace("s1", "v1", "s2", "p3");
+
+        Assert.assertEquals(ImmutableSet.of("p2", "p3"), store.get("s1", "v1"));
+        Assert.assertEquals(ImmutableSet.of("p1"), store.get("s1", "v2"));
+    }
+
+    @Test
+    public void testReplaceDoesNotModifySource() {
+        store.add("s2", "v1", "p1");
+        store.replace("s1", "v1", "s2", "p2");
+        store.add("s1", "v1", "p3");
+
+        Assert.assertEquals(ImmutableSet.of("p1"), store.get("s2", "v1"));
+        Assert.assertEquals(ImmutableSet.of("p1", "p2", "p3"), store.get("s1", "v1"));
+    }
+
+    @Test
+    public void testReplaceKeepsStatementsOfAliasingTable() {
+        // The table stores the expected predicates as the PredicateHandler did before the PredicateStore,
+        // i.e. the replaced cell shares its set with the cell of the source statement
+        Table<String, String, Set<String>> table = HashBasedTable.create();
+        List<String[]> operations = Arrays.asList(
+                new String[]{"s3", "v1", "s4", "p1"},
+                new String[]{"s2", "v1", "s3", "p2"},
+                new String[]{"s1", "v1", "s2", "p3"},
+                new String[]{"s1", "v2", "s3", "p1"},
+                new String[]{"s3", "v1", "s5", "p3"},
+                new String[]{"s4", "v2", "s1", "p2"},
+                new String[]{"s2", "v1", "s1", "p1"});
+
+        for (String[] operation : operations) {
+            Set<String> set = table.get(operation[2], operation[1]);
+            if (set == null) {
+                set = Sets.newHashSet();
+            }
+            set.add(operation[3]);
+            table.put(operation[0], operation[1], set);
+
+            store.replace(operation[0], operation[1], operation[2], operation[3]);
+
+            Assert.assertEquals(table.rowKeySet(), new HashSet<>(store.getStatements()));
+            Assert.assertEquals(table.cellSet().size(), store.toImmutableTable().size());
+        }
+    }
+
+    @Test
+    public void testSharedInterner() {
+        PredicateStore.Interner<String> predicates = new PredicateStore.Interner<>();
+        PredicateStore<String, String, String> first = new PredicateStore<>(statements, predicates);
+        PredicateStore<String, Integer, String> second = new PredicateStore<>(statements, predicates);
+
+        first.add("s1", "v1", "p1");
+        second.add("s2", 1, "p2");
+        second.add("s1", 2, "p1");
+
+        Assert.assertEquals(ImmutableSet.of("s1"), new HashSet<>(first.getStatements()));
+        Assert.assertEquals(ImmutableSet.of("s1", "s2"), new HashSet<>(second.getStatements()));
+        Assert.assertEquals(ImmutableSet.of("p1"), second.get("s1", 2));
+        Assert.assertEquals(Collections.emptySet(), first.get("s2", "v1"));
+    }
+
+    @Test
+    public void testToImmutableTable() {
+        store.add("s1", "v1", "p1");
+        store.add("s1", "v1", "p2");
+        store.add("s2", "v2", "p1");
+
+        Table<String, String, Set<String>> table = store.toImmutableTable();
+        Assert.assertEquals(2, table.size());
+        Assert.assertEquals(ImmutableSet.of("p1", "p2"), table.get("s1", "v1"));
+        Assert.assertEquals(ImmutableSet.of("p1"), table.get("s2", "v2"));
+    }
+}
@@ -1,14 +1,23 @@
 package tests.crysl;
 
 import crypto.cryslhandler.RulesetReader;
+import crypto.rules.CrySLCondPredicate;
+import crypto.rules.CrySLPredicate;
 import crypto.rules.CrySLRule;
 import org.apache.commons.lang3.time.StopWatch;
 import org.junit.Assert;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class RulesetReaderTest {
 	
@@ -16,6 +25,9 @@ public class RulesetReaderTest {
     private static final String jcaRulesetZipFilePath = "src/test/resources/crySL/JavaCryptographicArchitecture-3.0.1-ruleset.zip";
     private static final String junkRuleSet = "src/test/resources/crySL/rulesetWithJunk.zip";
 
+    @Rule
+    public TemporaryFolder cacheFolder = new TemporaryFolder();
+
     @Test
     public void testJunkThrows() throws IOException {
         RulesetReader reader = new RulesetReader();
@@ -82,4 +94,72 @@ public class RulesetReaderTest {
         Assert.assertTrue(secondRun * 100 < firstRun);
         System.out.println("First: " + firstRun + "; Second: " + secondRun);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testRulesFromCache() throws IOException {
+        String cacheDirectory = cacheFolder.getRoot().getAbsolutePath();
+
+        RulesetReader reader = new RulesetReader(cacheDirectory);
+        Collection<CrySLRule> parsedRules = reader.readRulesFromPath(jcaRulesetZipFilePath);
+        Assert.assertEquals(49, parsedRules.size());
+        Assert.assertEquals(1, cacheFolder.getRoot().listFiles().length);
+
+        RulesetReader cachedReader = new RulesetReader(cacheDirectory);
+        Collection<CrySLRule> cachedRules = cachedReader.readRulesFromPath(jcaRulesetZipFilePath);
+        Assert.assertEquals(parsedRules, cachedRules);
+
+        for (CrySLRule parsedRule : parsedRules) {
+            CrySLRule cachedRule = cachedRules.stream()
+                    .filter(rule -> rule.equals(parsedRule))
+                    .findFirst()
+                    .orElseThrow();
+
+            Assert.assertEquals(new HashSet<>(parsedRule.getEvents()), new HashSet<>(cachedRule.getEvents()));
+            Assert.assertEquals(new HashSet<>(parsedRule.getUsagePattern().getAllTransitions()), new HashSet<>(cachedRule.getUsagePattern().getAllTransitions()));
+            Assert.assertEquals(toStrings(parsedRule.getConstraints()), toStrings(cachedRule.getConstraints()));
+            Assert.assertEquals(toPredicateStrings(parsedRule.getPredicates()), toPredicateStrings(cachedRule.getPredicates()));
+            Assert.assertEquals(toStrings(parsedRule.getForbiddenMethods()), toStrings(cachedRule.getForbiddenMethods()));
+        }
+    }
+
+    @Test
+    public void testCorruptedCacheIsIgnored() throws IOException {
+        String cacheDirectory = cacheFolder.getRoot().getAbsolutePath();
+
+        RulesetReader reader = new RulesetReader(cacheDirectory);
+        reader.readRulesFromPath(jcaRulesetZipFilePath);
+
+        File cacheFile = cacheFolder.getRoot().listFiles()[0];
+        Files.write(cacheFile.toPath(), "no rules".getBytes());
+
+        Collection<CrySLRule> rules = reader.readRulesFromPath(jcaRulesetZipFilePath);
+        Assert.assertEquals(49, rules.size());
+    }
+
+    @Test
+    public void testRulesetWithErrorsIsNotCached() throws IOException {
+        RulesetReader reader = new RulesetReader(cacheFolder.getRoot().getAbsolutePath());
+        Collection<CrySLRule> rules = reader.readRulesFromPath(junkRuleSet);
+
+        Assert.assertEquals(48, rules.size());
+        Assert.assertEquals(0, cacheFolder.getRoot().listFiles().length);
+    }
+
+    private Set<String> toStrings(Collection<?> elements) {
+        return elements.stream().map(Object::toString).collect(Collectors.toSet());
+    }
+
+    private Set<String> toPredicateStrings(Collection<CrySLPredicate> predicates) {
+        Set<String> result = new HashSet<>();
+
+        for (CrySLPredicate predicate : predicates) {
+            String predicateString = predicate.getPredName() + predicate.getParameters();
+
+            if (predicate instanceof CrySLCondPredicate) {
+                predicateString += " after " + toStrings(((CrySLCondPredicate) predicate).getConditionalMethods());
+            }
+            result.add(predicateString);
+        }
+        return result;
+    }
+}
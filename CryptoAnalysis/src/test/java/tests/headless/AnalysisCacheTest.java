@@ -0,0 +1,157 @@
+package tests.headless;
+
+import boomerang.scene.ControlFlowGraph;
+import boomerang.scene.Method;
+import boomerang.scene.Statement;
+import boomerang.scene.Val;
+import boomerang.scene.WrappedClass;
+import com.google.common.collect.Table;
+import crypto.HeadlessCryptoScanner;
+import crypto.analysis.AnalysisPrinter;
+import crypto.analysis.AnalysisSeedWithSpecification;
+import crypto.analysis.IAnalysisSeed;
+import crypto.analysis.errors.AbstractError;
+import crypto.constraints.ArrayContentsCache;
+import crypto.extractparameter.AllocationSiteCache;
+import crypto.extractparameter.AllocationSiteCache.AllocationSites;
+import crypto.extractparameter.CallSiteWithParamIndex;
+import crypto.extractparameter.ExtractedValue;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+public class AnalysisCacheTest extends AbstractHeadlessTest {
+
+	@Test
+	public void cachedAllocationSitesEqualFreshQuery() {
+		String mavenProjectPath = new File("../CryptoAnalysisTargets/FileEncryptor").getAbsolutePath();
+		MavenProject mavenProject = createAndCompile(mavenProjectPath);
+		HeadlessCryptoScanner scanner = createScanner(mavenProject);
+
+		Collection<String> comparedQueries = new ArrayList<>();
+		Collection<String> differentQueries = new ArrayList<>();
+
+		scanner.addAnalysisListener(new AnalysisPrinter() {
+
+			@Override
+			public void onSeedFinished(IAnalysisSeed analysisSeed) {
+				if (!(analysisSeed instanceof AnalysisSeedWithSpecification)) {
+					return;
+				}
+
+				AnalysisSeedWithSpecification seed = (AnalysisSeedWithSpecification) analysisSeed;
+				AllocationSiteCache freshCache = new AllocationSiteCache(seed.getScanner());
+
+				for (CallSiteWithParamIndex callSite : seed.getParameterAnalysis().getAllQuerySites()) {
+					if (!callSite.fact().isLocal()) {
+						continue;
+					}
+
+					Statement statement = callSite.stmt();
+					for (Statement pred : statement.getMethod().getControlFlowGraph().getPredsOf(statement)) {
+						ControlFlowGraph.Edge edge = new ControlFlowGraph.Edge(pred, statement);
+
+						// The seed queried the edge, i.e. the first call is served from the cache
+						AllocationSites cached = seed.getScanner().getAllocationSiteCache().getAllocationSites(edge, callSite.fact());
+						AllocationSites fresh = freshCache.getAllocationSites(edge, callSite.fact());
+
+						String query = callSite.fact() + " at " + statement;
+						comparedQueries.add(query);
+
+						if (!new HashSet<>(cached.getSites()).equals(new HashSet<>(fresh.getSites()))
+								|| !new HashSet<>(cached.getPropagationTypes()).equals(new HashSet<>(fresh.getPropagationTypes()))) {
+							differentQueries.add(query);
+						}
+					}
+				}
+			}
+		});
+
+		scanner.run();
+
+		Assert.assertFalse(comparedQueries.isEmpty());
+		Assert.assertTrue("Cached results differ for " + differentQueries, differentQueries.isEmpty());
+	}
+
+	@Test
+	public void cachedArrayContentsEqualFreshExtraction() {
+		String mavenProjectPath = new File("../CryptoAnalysisTargets/HardcodedTestExamples").getAbsolutePath();
+		MavenProject mavenProject = createAndCompile(mavenProjectPath);
+		HeadlessCryptoScanner scanner = createScanner(mavenProject);
+
+		Collection<ExtractedValue> comparedArrays = new ArrayList<>();
+		Collection<ExtractedValue> differentValues = new ArrayList<>();
+
+		scanner.addAnalysisListener(new AnalysisPrinter() {
+
+			@Override
+			public void onSeedFinished(IAnalysisSeed analysisSeed) {
+				if (!(analysisSeed instanceof AnalysisSeedWithSpecification)) {
+					return;
+				}
+
+				AnalysisSeedWithSpecification seed = (AnalysisSeedWithSpecification) analysisSeed;
+				ArrayContentsCache cache = seed.getScanner().getArrayContentsCache();
+				ArrayContentsCache freshCache = new ArrayContentsCache(seed.getScanner());
+
+				for (ExtractedValue value : seed.getParameterAnalysis().getCollectedValues().values()) {
+					Map<Integer, Val> freshContents = freshCache.getArrayContents(value.stmt());
+					if (!freshContents.isEmpty()) {
+						comparedArrays.add(value);
+					}
+
+					// Query the cache twice, such that the second call is a cache hit
+					cache.getArrayContents(value.stmt());
+					if (!cache.getArrayContents(value.stmt()).equals(freshContents)) {
+						differentValues.add(value);
+					}
+
+					Method method = value.stmt().getMethod();
+					if (!new ArrayList<>(cache.getAssignedValues(method, value.getValue())).equals(new ArrayList<>(freshCache.getAssignedValues(method, value.getValue())))) {
+						differentValues.add(value);
+					}
+				}
+			}
+		});
+
+		scanner.run();
+
+		Assert.assertFalse(comparedArrays.isEmpty());
+		Assert.assertTrue("Cached contents differ for " + differentValues, differentValues.isEmpty());
+	}
+
+	@Test
+	public void batchedQueriesReportSameErrors() {
+		String mavenProjectPath = new File("../CryptoAnalysisTargets/FileEncryptor").getAbsolutePath();
+		MavenProject mavenProject = createAndCompile(mavenProjectPath);
+
+		HeadlessCryptoScanner scanner = createScanner(mavenProject);
+		scanner.run();
+		Collection<String> errors = toStrings(scanner.getErrorCollection());
+
+		HeadlessCryptoScanner batchingScanner = createScanner(mavenProject);
+		batchingScanner.setBatchQueries(true);
+		batchingScanner.run();
+		Collection<String> batchedErrors = toStrings(batchingScanner.getErrorCollection());
+
+		Assert.assertFalse(errors.isEmpty());
+		Assert.assertEquals(errors, batchedErrors);
+	}
+
+	private Collection<String> toStrings(Table<WrappedClass, Method, Set<AbstractError>> errorCollection) {
+		Collection<String> result = new HashSet<>();
+
+		for (Table.Cell<WrappedClass, Method, Set<AbstractError>> cell : errorCollection.cellSet()) {
+			for (AbstractError error : cell.getValue()) {
+				result.add(cell.getColumnKey() + ": " + error);
+			}
+		}
+		return result;
+	}
+}
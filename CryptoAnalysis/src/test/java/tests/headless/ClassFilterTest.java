@@ -0,0 +1,72 @@
+package tests.headless;
+
+import crypto.HeadlessCryptoScanner;
+import crypto.analysis.errors.CallToError;
+import crypto.analysis.errors.ConstraintError;
+import crypto.analysis.errors.HardCodedError;
+import crypto.analysis.errors.IncompleteOperationError;
+import crypto.analysis.errors.RequiredPredicateError;
+import crypto.analysis.errors.TypestateError;
+import org.junit.Test;
+
+import java.io.File;
+
+public class ClassFilterTest extends AbstractHeadlessTest {
+
+	@Test
+	public void filterIgnorePackagesExample() {
+		String mavenProjectPath = new File("../CryptoAnalysisTargets/IgnorePackagesExample").getAbsolutePath();
+		MavenProject mavenProject = createAndCompile(mavenProjectPath);
+		HeadlessCryptoScanner scanner = createScanner(mavenProject);
+
+		// Each class references a class with a rule, i.e. all errors are reported
+		scanner.setClassFilterRadius(0);
+
+		setErrorsCount("<example.ConstraintErrorExample: void main(java.lang.String[])>", ConstraintError.class, 1);
+		setErrorsCount("<example.ConstraintErrorExample: void main(java.lang.String[])>", IncompleteOperationError.class, 1);
+		setErrorsCount("<example.IncompleteOperationErrorExample: void main(java.lang.String[])>", IncompleteOperationError.class, 1);
+		setErrorsCount("<example.PredicateMissingExample: void main(java.lang.String[])>", ConstraintError.class, 2);
+		setErrorsCount("<example.PredicateMissingExample: void main(java.lang.String[])>", RequiredPredicateError.class, 2);
+		setErrorsCount("<example.TypestateErrorExample: void main(java.lang.String[])>", TypestateError.class, 1);
+
+		scanner.run();
+		assertErrors(scanner.getErrorCollection());
+	}
+
+	@Test
+	public void filterFileEncryptorWithoutRadius() {
+		String mavenProjectPath = new File("../CryptoAnalysisTargets/FileEncryptor").getAbsolutePath();
+		MavenProject mavenProject = createAndCompile(mavenProjectPath);
+		HeadlessCryptoScanner scanner = createScanner(mavenProject);
+
+		// 'Runner' does not reference a class with a rule, i.e. its hard coded password is not tracked
+		scanner.setClassFilterRadius(0);
+
+		setErrorsCount("<Crypto.Enc: byte[] encrypt(byte[],javax.crypto.SecretKey)>", CallToError.class, 1);
+		setErrorsCount("<Crypto.Enc: byte[] decrypt(byte[],javax.crypto.SecretKey)>", RequiredPredicateError.class, 2);
+
+		scanner.run();
+		assertErrors(scanner.getErrorCollection());
+	}
+
+	@Test
+	public void filterFileEncryptorWithRadius() {
+		String mavenProjectPath = new File("../CryptoAnalysisTargets/FileEncryptor").getAbsolutePath();
+		MavenProject mavenProject = createAndCompile(mavenProjectPath);
+		HeadlessCryptoScanner scanner = createScanner(mavenProject);
+
+		// 'Runner' references 'FileHandler', i.e. it is selected with a radius of 1
+		scanner.setClassFilterRadius(1);
+
+		setErrorsCount("<Crypto.Enc: byte[] encrypt(byte[],javax.crypto.SecretKey)>", CallToError.class, 1);
+
+		//All the following errors are false positives
+		setErrorsCount("<Crypto.KeyDeriv: javax.crypto.SecretKey getKey(char[])>", RequiredPredicateError.class, 3);
+		setErrorsCount("<Crypto.KeyDeriv: javax.crypto.SecretKey getKey(char[])>", HardCodedError.class, 1);
+		setErrorsCount("<Crypto.Enc: byte[] encrypt(byte[],javax.crypto.SecretKey)>", RequiredPredicateError.class, 1);
+		setErrorsCount("<Crypto.Enc: byte[] decrypt(byte[],javax.crypto.SecretKey)>", RequiredPredicateError.class, 2);
+
+		scanner.run();
+		assertErrors(scanner.getErrorCollection());
+	}
+}
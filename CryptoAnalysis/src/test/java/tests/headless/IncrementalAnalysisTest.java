@@ -0,0 +1,154 @@
+package tests.headless;
+
+import boomerang.scene.Method;
+import boomerang.scene.WrappedClass;
+import com.google.common.collect.Table;
+import crypto.HeadlessCryptoScanner;
+import crypto.analysis.errors.AbstractError;
+import crypto.analysis.errors.ConstraintError;
+import crypto.analysis.errors.IncompleteOperationError;
+import crypto.analysis.errors.RequiredPredicateError;
+import crypto.analysis.errors.TypestateError;
+import crypto.incremental.CachedError;
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import test.TestConstants;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+public class IncrementalAnalysisTest extends AbstractHeadlessTest {
+
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
+	@Test
+	public void unchangedClassesReuseFindings() throws IOException {
+		MavenProject mavenProject = createAndCompile(new File("../CryptoAnalysisTargets/IgnorePackagesExample").getAbsolutePath());
+		File classesDirectory = copyClasses(mavenProject);
+		File stateFile = new File(tempFolder.getRoot(), "state" + File.separator + "CryptoAnalysis.state");
+
+		// Same errors as in a complete run (see IgnoreSectionsTest#ignoreNoPackages)
+		setErrorsCount("<example.ConstraintErrorExample: void main(java.lang.String[])>", ConstraintError.class, 1);
+		setErrorsCount("<example.ConstraintErrorExample: void main(java.lang.String[])>", IncompleteOperationError.class, 1);
+		setErrorsCount("<example.IncompleteOperationErrorExample: void main(java.lang.String[])>", IncompleteOperationError.class, 1);
+		setErrorsCount("<example.PredicateMissingExample: void main(java.lang.String[])>", ConstraintError.class, 2);
+		setErrorsCount("<example.PredicateMissingExample: void main(java.lang.String[])>", RequiredPredicateError.class, 2);
+		setErrorsCount("<example.TypestateErrorExample: void main(java.lang.String[])>", TypestateError.class, 1);
+
+		// First run analyzes all seeds
+		Table<WrappedClass, Method, Set<AbstractError>> errors = runScanner(mavenProject, classesDirectory, stateFile);
+		assertErrors(errors);
+		Assert.assertEquals(0, countCachedErrors(errors));
+		Assert.assertTrue(stateFile.isFile());
+
+		// Second run does not analyze any seed and restores all errors
+		errors = runScanner(mavenProject, classesDirectory, stateFile);
+		assertErrors(errors);
+		Assert.assertEquals(8, countCachedErrors(errors));
+	}
+
+	@Test
+	public void removedClassInvalidatesFindings() throws IOException {
+		MavenProject mavenProject = createAndCompile(new File("../CryptoAnalysisTargets/IgnorePackagesExample").getAbsolutePath());
+		File classesDirectory = copyClasses(mavenProject);
+		File stateFile = new File(tempFolder.getRoot(), "CryptoAnalysis.state");
+
+		runScanner(mavenProject, classesDirectory, stateFile);
+
+		File removedClass = new File(classesDirectory, "example" + File.separator + "TypestateErrorExample.class");
+		Assert.assertTrue(removedClass.delete());
+
+		// The errors of the removed class disappear, all other errors are restored
+		setErrorsCount("<example.ConstraintErrorExample: void main(java.lang.String[])>", ConstraintError.class, 1);
+		setErrorsCount("<example.ConstraintErrorExample: void main(java.lang.String[])>", IncompleteOperationError.class, 1);
+		setErrorsCount("<example.IncompleteOperationErrorExample: void main(java.lang.String[])>", IncompleteOperationError.class, 1);
+		setErrorsCount("<example.PredicateMissingExample: void main(java.lang.String[])>", ConstraintError.class, 2);
+		setErrorsCount("<example.PredicateMissingExample: void main(java.lang.String[])>", RequiredPredicateError.class, 2);
+
+		Table<WrappedClass, Method, Set<AbstractError>> errors = runScanner(mavenProject, classesDirectory, stateFile);
+		assertErrors(errors);
+		Assert.assertEquals(7, countCachedErrors(errors));
+	}
+
+	@Test
+	public void changedSettingsOrLibrariesInvalidateFindings() throws IOException {
+		MavenProject mavenProject = createAndCompile(new File("../CryptoAnalysisTargets/IgnorePackagesExample").getAbsolutePath());
+		File classesDirectory = copyClasses(mavenProject);
+		File stateFile = new File(tempFolder.getRoot(), "CryptoAnalysis.state");
+		File library = new File(tempFolder.getRoot(), "library.jar");
+		writeLibrary(library, "1.0");
+
+		runScanner(mavenProject, classesDirectory, stateFile, library, 10000);
+		Table<WrappedClass, Method, Set<AbstractError>> errors = runScanner(mavenProject, classesDirectory, stateFile, library, 10000);
+		Assert.assertEquals(8, countCachedErrors(errors));
+
+		// Another timeout may change the findings of the seeds
+		errors = runScanner(mavenProject, classesDirectory, stateFile, library, 20000);
+		Assert.assertEquals(0, countCachedErrors(errors));
+
+		// A library that is replaced at the same path (e.g. a dependency upgrade) may change the findings
+		writeLibrary(library, "2.0");
+		errors = runScanner(mavenProject, classesDirectory, stateFile, library, 20000);
+		Assert.assertEquals(0, countCachedErrors(errors));
+
+		errors = runScanner(mavenProject, classesDirectory, stateFile, library, 20000);
+		Assert.assertEquals(8, countCachedErrors(errors));
+	}
+
+	private static void writeLibrary(File library, String version) throws IOException {
+		try (JarOutputStream outputStream = new JarOutputStream(new FileOutputStream(library))) {
+			outputStream.putNextEntry(new JarEntry("version.txt"));
+			outputStream.write(version.getBytes(StandardCharsets.UTF_8));
+			outputStream.closeEntry();
+		}
+	}
+
+	private File copyClasses(MavenProject mavenProject) throws IOException {
+		File classesDirectory = tempFolder.newFolder("classes");
+		FileUtils.copyDirectory(new File(mavenProject.getBuildDirectory()), classesDirectory);
+
+		return classesDirectory;
+	}
+
+	private static Table<WrappedClass, Method, Set<AbstractError>> runScanner(MavenProject mavenProject, File classesDirectory, File stateFile) {
+		return runScanner(mavenProject, classesDirectory, stateFile, null, 10000);
+	}
+
+	private static Table<WrappedClass, Method, Set<AbstractError>> runScanner(MavenProject mavenProject, File classesDirectory, File stateFile, File library, int timeout) {
+		String applicationPath = classesDirectory.getAbsolutePath();
+		String sootClassPath = applicationPath + (mavenProject.getFullClassPath().isEmpty() ? "" : File.pathSeparator + mavenProject.getFullClassPath());
+		if (library != null) {
+			sootClassPath += File.pathSeparator + library.getAbsolutePath();
+		}
+
+		HeadlessCryptoScanner scanner = new HeadlessCryptoScanner(applicationPath, TestConstants.JCA_RULESET_PATH);
+		scanner.setSootClassPath(sootClassPath);
+		scanner.setIncrementalStateFile(stateFile.getAbsolutePath());
+		scanner.setTimeout(timeout);
+
+		scanner.run();
+		return scanner.getErrorCollection();
+	}
+
+	private static int countCachedErrors(Table<WrappedClass, Method, Set<AbstractError>> errors) {
+		int cachedErrors = 0;
+
+		for (Set<AbstractError> methodErrors : errors.values()) {
+			for (AbstractError error : methodErrors) {
+				if (error instanceof CachedError) {
+					cachedErrors++;
+				}
+			}
+		}
+		return cachedErrors;
+	}
+}
@@ -0,0 +1,158 @@
+package tests.headless;
+
+import crypto.HeadlessCryptoScanner;
+import crypto.analysis.errors.ConstraintError;
+import crypto.analysis.errors.IncompleteOperationError;
+import crypto.analysis.errors.RequiredPredicateError;
+import crypto.analysis.errors.TypestateError;
+import crypto.preanalysis.LibraryClassCache;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+public class LibraryClassCacheTest extends AbstractHeadlessTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void warmCacheReportsSameErrors() throws IOException {
+		String mavenProjectPath = new File("../CryptoAnalysisTargets/IgnorePackagesExample").getAbsolutePath();
+		MavenProject mavenProject = createAndCompile(mavenProjectPath);
+		File cacheDirectory = temporaryFolder.newFolder("libraries");
+
+		setErrorsCount("<example.ConstraintErrorExample: void main(java.lang.String[])>", ConstraintError.class, 1);
+		setErrorsCount("<example.ConstraintErrorExample: void main(java.lang.String[])>", IncompleteOperationError.class, 1);
+		setErrorsCount("<example.IncompleteOperationErrorExample: void main(java.lang.String[])>", IncompleteOperationError.class, 1);
+		setErrorsCount("<example.PredicateMissingExample: void main(java.lang.String[])>", ConstraintError.class, 2);
+		setErrorsCount("<example.PredicateMissingExample: void main(java.lang.String[])>", RequiredPredicateError.class, 2);
+		setErrorsCount("<example.TypestateErrorExample: void main(java.lang.String[])>", TypestateError.class, 1);
+
+		// The first scan writes the indexes, the second scan reads them
+		for (int i = 0; i < 2; i++) {
+			HeadlessCryptoScanner scanner = createScanner(mavenProject);
+			scanner.setLibraryCacheDirectory(cacheDirectory.getAbsolutePath());
+
+			scanner.run();
+			assertErrors(scanner.getErrorCollection());
+
+			File[] cacheFiles = cacheDirectory.listFiles((directory, name) -> name.endsWith(".classes"));
+			Assert.assertNotNull(cacheFiles);
+			Assert.assertTrue(cacheFiles.length > 0);
+		}
+	}
+
+	@Test
+	public void warmCacheWithPreloadedClasses() throws IOException {
+		String mavenProjectPath = new File("../CryptoAnalysisTargets/IgnorePackagesExample").getAbsolutePath();
+		MavenProject mavenProject = createAndCompile(mavenProjectPath);
+		File cacheDirectory = temporaryFolder.newFolder("libraries");
+
+		setErrorsCount("<example.ConstraintErrorExample: void main(java.lang.String[])>", ConstraintError.class, 1);
+		setErrorsCount("<example.ConstraintErrorExample: void main(java.lang.String[])>", IncompleteOperationError.class, 1);
+		setErrorsCount("<example.IncompleteOperationErrorExample: void main(java.lang.String[])>", IncompleteOperationError.class, 1);
+		setErrorsCount("<example.PredicateMissingExample: void main(java.lang.String[])>", ConstraintError.class, 2);
+		setErrorsCount("<example.PredicateMissingExample: void main(java.lang.String[])>", RequiredPredicateError.class, 2);
+		setErrorsCount("<example.TypestateErrorExample: void main(java.lang.String[])>", TypestateError.class, 1);
+
+		// The preloaded application classes take precedence over the cached libraries
+		for (int i = 0; i < 2; i++) {
+			HeadlessCryptoScanner scanner = createScanner(mavenProject);
+			scanner.setLibraryCacheDirectory(cacheDirectory.getAbsolutePath());
+			scanner.setPreloadClasses(true);
+
+			scanner.run();
+			assertErrors(scanner.getErrorCollection());
+		}
+	}
+
+	@Test
+	public void corruptIndexIsWrittenAgain() throws IOException {
+		File jar = createJar(temporaryFolder.newFile("library.jar"), "a/A.class", "a/B.class");
+		File cacheDirectory = temporaryFolder.newFolder("libraries");
+
+		try (LibraryClassCache cache = createCache(jar, cacheDirectory)) {
+			Assert.assertNotNull(cache.find("a.A"));
+		}
+
+		// The index claims more entries than it contains, e.g. because it was truncated
+		File indexFile = getIndexFiles(cacheDirectory)[0];
+		Files.write(indexFile.toPath(), Arrays.asList("entries\t2", "a.B"), StandardCharsets.UTF_8);
+
+		// The jar hashes are not readable either
+		Files.write(new File(cacheDirectory, "jars.index").toPath(), Arrays.asList("corrupt"), StandardCharsets.UTF_8);
+
+		try (LibraryClassCache cache = createCache(jar, cacheDirectory)) {
+			Assert.assertNotNull(cache.find("a.A"));
+			Assert.assertNotNull(cache.find("a.B"));
+			Assert.assertNull(cache.find("a.C"));
+		}
+
+		List<String> lines = Files.readAllLines(indexFile.toPath(), StandardCharsets.UTF_8);
+		Assert.assertEquals("entries\t2", lines.get(0));
+		Assert.assertTrue(lines.containsAll(Arrays.asList("a.A", "a.B")));
+	}
+
+	@Test
+	public void changedJarIsIndexedAgain() throws IOException {
+		File jar = createJar(temporaryFolder.newFile("library.jar"), "a/A.class");
+		File cacheDirectory = temporaryFolder.newFolder("libraries");
+
+		try (LibraryClassCache cache = createCache(jar, cacheDirectory)) {
+			Assert.assertNotNull(cache.find("a.A"));
+			Assert.assertNull(cache.find("b.B"));
+		}
+
+		// Replace the jar at the same path with a different version
+		long lastModified = jar.lastModified();
+		createJar(jar, "b/B.class", "b/C.class");
+		Assert.assertTrue(jar.setLastModified(lastModified + 2000));
+
+		try (LibraryClassCache cache = createCache(jar, cacheDirectory)) {
+			Assert.assertNull(cache.find("a.A"));
+			Assert.assertNotNull(cache.find("b.B"));
+		}
+
+		// Each version has its own index, but only the hash of the current version is kept
+		Assert.assertEquals(2, getIndexFiles(cacheDirectory).length);
+
+		List<String> jarHashes = Files.readAllLines(new File(cacheDirectory, "jars.index").toPath(), StandardCharsets.UTF_8);
+		Assert.assertEquals(Arrays.asList("entries\t1"), jarHashes.subList(0, 1));
+		Assert.assertEquals(2, jarHashes.size());
+	}
+
+	private LibraryClassCache createCache(File jar, File cacheDirectory) {
+		// The application path is not part of the classpath, i.e. the jar is cached
+		String applicationPath = temporaryFolder.getRoot().getAbsolutePath() + File.separator + "application";
+
+		return LibraryClassCache.create(jar.getAbsolutePath(), applicationPath, cacheDirectory.getAbsolutePath());
+	}
+
+	private File[] getIndexFiles(File cacheDirectory) {
+		File[] indexFiles = cacheDirectory.listFiles((directory, name) -> name.endsWith(".classes"));
+		Assert.assertNotNull(indexFiles);
+
+		return indexFiles;
+	}
+
+	private File createJar(File jar, String... classFiles) throws IOException {
+		try (JarOutputStream outputStream = new JarOutputStream(Files.newOutputStream(jar.toPath()))) {
+			for (String classFile : classFiles) {
+				outputStream.putNextEntry(new JarEntry(classFile));
+				outputStream.write(classFile.getBytes(StandardCharsets.UTF_8));
+				outputStream.closeEntry();
+			}
+		}
+		return jar;
+	}
+}
@@ -0,0 +1,55 @@
+package tests.headless;
+
+import crypto.HeadlessCryptoScanner;
+import crypto.analysis.errors.CallToError;
+import crypto.analysis.errors.ConstraintError;
+import crypto.analysis.errors.HardCodedError;
+import crypto.analysis.errors.IncompleteOperationError;
+import crypto.analysis.errors.RequiredPredicateError;
+import crypto.analysis.errors.TypestateError;
+import org.junit.Test;
+
+import java.io.File;
+
+public class ParallelSeedExecutionTest extends AbstractHeadlessTest {
+
+	@Test
+	public void parallelExecutionReportsSameErrors() {
+		String mavenProjectPath = new File("../CryptoAnalysisTargets/IgnorePackagesExample").getAbsolutePath();
+		MavenProject mavenProject = createAndCompile(mavenProjectPath);
+		HeadlessCryptoScanner scanner = createScanner(mavenProject);
+
+		scanner.setThreadCount(4);
+
+		// Same errors as in a sequential run (see IgnoreSectionsTest#ignoreNoPackages)
+		setErrorsCount("<example.ConstraintErrorExample: void main(java.lang.String[])>", ConstraintError.class, 1);
+		setErrorsCount("<example.ConstraintErrorExample: void main(java.lang.String[])>", IncompleteOperationError.class, 1);
+		setErrorsCount("<example.IncompleteOperationErrorExample: void main(java.lang.String[])>", IncompleteOperationError.class, 1);
+		setErrorsCount("<example.PredicateMissingExample: void main(java.lang.String[])>", ConstraintError.class, 2);
+		setErrorsCount("<example.PredicateMissingExample: void main(java.lang.String[])>", RequiredPredicateError.class, 2);
+		setErrorsCount("<example.TypestateErrorExample: void main(java.lang.String[])>", TypestateError.class, 1);
+
+		scanner.run();
+		assertErrors(scanner.getErrorCollection());
+	}
+
+	@Test
+	public void parallelSeedDiscoveryAcrossMethods() {
+		String mavenProjectPath = new File("../CryptoAnalysisTargets/FileEncryptor").getAbsolutePath();
+		MavenProject mavenProject = createAndCompile(mavenProjectPath);
+		HeadlessCryptoScanner scanner = createScanner(mavenProject);
+
+		// The seeds are spread over several methods, which are scanned by different threads
+		scanner.setThreadCount(4);
+
+		// Same errors as in a sequential run (see CogniCryptGeneratedCodeTest#fileEncryptor)
+		setErrorsCount("<Crypto.Enc: byte[] encrypt(byte[],javax.crypto.SecretKey)>", CallToError.class, 1);
+		setErrorsCount("<Crypto.KeyDeriv: javax.crypto.SecretKey getKey(char[])>", RequiredPredicateError.class, 3);
+		setErrorsCount("<Crypto.KeyDeriv: javax.crypto.SecretKey getKey(char[])>", HardCodedError.class, 1);
+		setErrorsCount("<Crypto.Enc: byte[] encrypt(byte[],javax.crypto.SecretKey)>", RequiredPredicateError.class, 1);
+		setErrorsCount("<Crypto.Enc: byte[] decrypt(byte[],javax.crypto.SecretKey)>", RequiredPredicateError.class, 2);
+
+		scanner.run();
+		assertErrors(scanner.getErrorCollection());
+	}
+}
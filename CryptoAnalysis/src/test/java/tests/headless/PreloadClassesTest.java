@@ -0,0 +1,135 @@
+package tests.headless;
+
+import crypto.HeadlessCryptoScanner;
+import crypto.analysis.errors.CallToError;
+import crypto.analysis.errors.ConstraintError;
+import crypto.analysis.errors.IncompleteOperationError;
+import crypto.analysis.errors.RequiredPredicateError;
+import crypto.analysis.errors.TypestateError;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import test.TestConstants;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class PreloadClassesTest extends AbstractHeadlessTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void preloadClassesFromDirectory() {
+		String mavenProjectPath = new File("../CryptoAnalysisTargets/IgnorePackagesExample").getAbsolutePath();
+		MavenProject mavenProject = createAndCompile(mavenProjectPath);
+		HeadlessCryptoScanner scanner = createScanner(mavenProject);
+
+		scanner.setPreloadClasses(true);
+
+		setErrorsCount("<example.ConstraintErrorExample: void main(java.lang.String[])>", ConstraintError.class, 1);
+		setErrorsCount("<example.ConstraintErrorExample: void main(java.lang.String[])>", IncompleteOperationError.class, 1);
+		setErrorsCount("<example.IncompleteOperationErrorExample: void main(java.lang.String[])>", IncompleteOperationError.class, 1);
+		setErrorsCount("<example.PredicateMissingExample: void main(java.lang.String[])>", ConstraintError.class, 2);
+		setErrorsCount("<example.PredicateMissingExample: void main(java.lang.String[])>", RequiredPredicateError.class, 2);
+		setErrorsCount("<example.TypestateErrorExample: void main(java.lang.String[])>", TypestateError.class, 1);
+
+		scanner.run();
+		assertErrors(scanner.getErrorCollection());
+	}
+
+	@Test
+	public void preloadClassesFromJar() throws IOException {
+		String mavenProjectPath = new File("../CryptoAnalysisTargets/IgnorePackagesExample").getAbsolutePath();
+		MavenProject mavenProject = createAndCompile(mavenProjectPath);
+		String jarPath = createJar(mavenProject.getBuildDirectory(), 0);
+
+		// The classes are only contained in the jar, not on the Soot classpath
+		HeadlessCryptoScanner scanner = new HeadlessCryptoScanner(jarPath, TestConstants.JCA_RULESET_PATH);
+		scanner.setSootClassPath(mavenProject.getFullClassPath());
+		scanner.setPreloadClasses(true);
+
+		setErrorsCount("<example.ConstraintErrorExample: void main(java.lang.String[])>", ConstraintError.class, 1);
+		setErrorsCount("<example.ConstraintErrorExample: void main(java.lang.String[])>", IncompleteOperationError.class, 1);
+		setErrorsCount("<example.IncompleteOperationErrorExample: void main(java.lang.String[])>", IncompleteOperationError.class, 1);
+		setErrorsCount("<example.PredicateMissingExample: void main(java.lang.String[])>", ConstraintError.class, 2);
+		setErrorsCount("<example.PredicateMissingExample: void main(java.lang.String[])>", RequiredPredicateError.class, 2);
+		setErrorsCount("<example.TypestateErrorExample: void main(java.lang.String[])>", TypestateError.class, 1);
+
+		scanner.run();
+		assertErrors(scanner.getErrorCollection());
+	}
+
+	@Test
+	public void preloadClassesFromZip64Jar() throws IOException {
+		String mavenProjectPath = new File("../CryptoAnalysisTargets/IgnorePackagesExample").getAbsolutePath();
+		MavenProject mavenProject = createAndCompile(mavenProjectPath);
+
+		// More than 65535 entries require a Zip64 archive, which is read with the ZipFile fallback
+		String jarPath = createJar(mavenProject.getBuildDirectory(), 0x10000);
+
+		HeadlessCryptoScanner scanner = new HeadlessCryptoScanner(jarPath, TestConstants.JCA_RULESET_PATH);
+		scanner.setSootClassPath(mavenProject.getFullClassPath());
+		scanner.setPreloadClasses(true);
+
+		setErrorsCount("<example.ConstraintErrorExample: void main(java.lang.String[])>", ConstraintError.class, 1);
+		setErrorsCount("<example.ConstraintErrorExample: void main(java.lang.String[])>", IncompleteOperationError.class, 1);
+		setErrorsCount("<example.IncompleteOperationErrorExample: void main(java.lang.String[])>", IncompleteOperationError.class, 1);
+		setErrorsCount("<example.PredicateMissingExample: void main(java.lang.String[])>", ConstraintError.class, 2);
+		setErrorsCount("<example.PredicateMissingExample: void main(java.lang.String[])>", RequiredPredicateError.class, 2);
+		setErrorsCount("<example.TypestateErrorExample: void main(java.lang.String[])>", TypestateError.class, 1);
+
+		scanner.run();
+		assertErrors(scanner.getErrorCollection());
+	}
+
+	@Test
+	public void preloadAndFilterClasses() {
+		String mavenProjectPath = new File("../CryptoAnalysisTargets/FileEncryptor").getAbsolutePath();
+		MavenProject mavenProject = createAndCompile(mavenProjectPath);
+		HeadlessCryptoScanner scanner = createScanner(mavenProject);
+
+		// The filter reads the references from the preloaded classes
+		scanner.setPreloadClasses(true);
+		scanner.setClassFilterRadius(0);
+
+		setErrorsCount("<Crypto.Enc: byte[] encrypt(byte[],javax.crypto.SecretKey)>", CallToError.class, 1);
+		setErrorsCount("<Crypto.Enc: byte[] decrypt(byte[],javax.crypto.SecretKey)>", RequiredPredicateError.class, 2);
+
+		scanner.run();
+		assertErrors(scanner.getErrorCollection());
+	}
+
+	private String createJar(String classesDirectory, int resourceCount) throws IOException {
+		File jar = temporaryFolder.newFile("application.jar");
+		Path root = new File(classesDirectory).toPath();
+
+		List<Path> classFiles;
+		try (Stream<Path> files = Files.walk(root)) {
+			classFiles = files.filter(file -> file.toString().endsWith(".class")).collect(Collectors.toList());
+		}
+
+		try (JarOutputStream outputStream = new JarOutputStream(Files.newOutputStream(jar.toPath()))) {
+			for (Path classFile : classFiles) {
+				String entryName = root.relativize(classFile).toString().replace(File.separatorChar, '/');
+
+				outputStream.putNextEntry(new JarEntry(entryName));
+				Files.copy(classFile, outputStream);
+				outputStream.closeEntry();
+			}
+
+			for (int i = 0; i < resourceCount; i++) {
+				outputStream.putNextEntry(new JarEntry("resources/" + i + ".txt"));
+				outputStream.closeEntry();
+			}
+		}
+		return jar.getAbsolutePath();
+	}
+}
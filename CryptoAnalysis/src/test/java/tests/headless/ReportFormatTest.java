@@ -1,8 +1,11 @@
 package tests.headless;
 
 import crypto.HeadlessCryptoScanner;
+import crypto.analysis.errors.AbstractError;
+import crypto.reporting.MetricsReporter;
 import crypto.reporting.Reporter;
 import org.apache.commons.io.FileUtils;
+import org.json.JSONObject;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -10,8 +13,11 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 public class ReportFormatTest extends AbstractHeadlessTest{
 
@@ -21,6 +27,9 @@ public class ReportFormatTest extends AbstractHeadlessTest{
 	private static final String csvReportPath = rootPath + "CryptoAnalysis-Report.csv";
 	private static final String csvSummaryReportPath = rootPath + "CryptoAnalysis-Report-Summary.csv";
 	private static final String sarifReportPath = rootPath + "CryptoAnalysis-Report.json";
+	private static final String jsonlReportPath = rootPath + "CryptoAnalysis-Report.jsonl";
+	private static final String metricsReportPath = rootPath + "CryptoAnalysis-Metrics.json";
+	private static final String seedMetricsReportPath = rootPath + "CryptoAnalysis-Seed-Metrics.csv";
 
 	@Before
 	public void setup() {
@@ -144,6 +153,80 @@ public class ReportFormatTest extends AbstractHeadlessTest{
 		Assert.assertTrue(sarifReport.exists());
 	}
 	
+	@Test
+	public void testStreamingReportCreation() throws IOException {
+		File csvReport = new File(csvReportPath);
+		File sarifReport = new File(sarifReportPath);
+		File jsonlReport = new File(jsonlReportPath);
+
+		String mavenProjectPath = new File("../CryptoAnalysisTargets/ReportFormatExample").getAbsolutePath();
+		MavenProject mavenProject = createAndCompile(mavenProjectPath);
+
+		HeadlessCryptoScanner scanner = createScanner(mavenProject);
+		scanner.setReportDirectory(outputDir.getAbsolutePath());
+		scanner.setReportFormats(Reporter.ReportFormat.CSV, Reporter.ReportFormat.SARIF, Reporter.ReportFormat.JSONL);
+		scanner.setStreamReports(true);
+		scanner.run();
+
+		// Only streaming formats are selected, so the scanner does not keep the errors
+		Assert.assertTrue(scanner.getErrorCollection().isEmpty());
+
+		// The streamed reports contain each error once, like the report that is written after the scan
+		HeadlessCryptoScanner collectingScanner = createScanner(mavenProject);
+		collectingScanner.setReportDirectory(outputDir.getAbsolutePath());
+		collectingScanner.setReportFormats(Reporter.ReportFormat.CMD);
+		collectingScanner.run();
+
+		int errors = 0;
+		for (Set<AbstractError> methodErrors : collectingScanner.getErrorCollection().values()) {
+			errors += methodErrors.size();
+		}
+		Assert.assertTrue(errors > 0);
+
+		Assert.assertEquals(errors + 1, FileUtils.readLines(csvReport, StandardCharsets.UTF_8).size());
+		Assert.assertEquals(errors, FileUtils.readLines(jsonlReport, StandardCharsets.UTF_8).size());
+
+		JSONObject sarif = new JSONObject(FileUtils.readFileToString(sarifReport, StandardCharsets.UTF_8));
+		Assert.assertEquals(errors, sarif.getJSONArray("runs").getJSONObject(0).getJSONArray("results").length());
+	}
+
+	@Test
+	public void testMetricsReportCreation() throws IOException {
+		File metricsReport = new File(metricsReportPath);
+		File seedMetricsReport = new File(seedMetricsReportPath);
+
+		String mavenProjectPath = new File("../CryptoAnalysisTargets/ReportFormatExample").getAbsolutePath();
+		MavenProject mavenProject = createAndCompile(mavenProjectPath);
+
+		HeadlessCryptoScanner scanner = createScanner(mavenProject);
+		scanner.setReportDirectory(outputDir.getAbsolutePath());
+		scanner.setCollectMetrics(true);
+		scanner.run();
+
+		Assert.assertTrue(metricsReport.exists());
+		Assert.assertTrue(seedMetricsReport.exists());
+
+		JSONObject metrics = new JSONObject(FileUtils.readFileToString(metricsReport, StandardCharsets.UTF_8));
+		for (MetricsReporter.Phase phase : MetricsReporter.Phase.values()) {
+			Assert.assertTrue(metrics.getJSONObject("phases").has(phase.name()));
+		}
+
+		// Header and one line per seed
+		int seeds = metrics.getJSONObject("summary").getInt("seeds");
+		Assert.assertTrue(seeds > 0);
+		List<String> lines = FileUtils.readLines(seedMetricsReport, StandardCharsets.UTF_8);
+		Assert.assertEquals(seeds + 1, lines.size());
+
+		// The seeds are ordered by the time of their typestate analysis and their checks
+		Assert.assertTrue(lines.get(0).contains("\"TypestateAnalysisTimeInMs\""));
+		Assert.assertTrue(metrics.getJSONArray("slowestSeeds").getJSONObject(0).has("typestateAnalysisTimeInMs"));
+
+		// Every field is quoted, such that signatures with the separator do not break the columns
+		for (String line : lines) {
+			Assert.assertTrue(line.startsWith("\"") && line.endsWith("\""));
+		}
+	}
+
 	@After
 	public void tearDown() {
 		try {
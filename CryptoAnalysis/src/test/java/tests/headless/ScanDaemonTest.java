@@ -0,0 +1,160 @@
+package tests.headless;
+
+import crypto.ScanDaemon;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import test.TestConstants;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+public class ScanDaemonTest extends AbstractHeadlessTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void daemonServesMultipleScans() throws IOException, InterruptedException {
+		String mavenProjectPath = new File("../CryptoAnalysisTargets/IgnorePackagesExample").getAbsolutePath();
+		MavenProject mavenProject = createAndCompile(mavenProjectPath);
+
+		Path tokenFile = temporaryFolder.getRoot().toPath().resolve("daemon.token");
+		ScanDaemon daemon = new ScanDaemon(0, tokenFile.toString());
+		daemon.start();
+		String token = readToken(tokenFile);
+
+		Thread daemonThread = new Thread(daemon::serve);
+		daemonThread.start();
+
+		try {
+			List<String> arguments = Arrays.asList(
+					"--appPath", mavenProject.getBuildDirectory(),
+					"--rulesDir", TestConstants.JCA_RULESET_PATH,
+					"--sootPath", mavenProject.getBuildDirectory() + File.pathSeparator + mavenProject.getFullClassPath());
+
+			// The second scan reuses the rules from the first scan
+			for (int i = 0; i < 2; i++) {
+				List<JSONObject> response = sendRequest(daemon.getPort(), token, arguments);
+				JSONObject status = response.get(response.size() - 1);
+
+				Assert.assertEquals("finished", status.getString("status"));
+				Assert.assertEquals(8, status.getInt("errors"));
+				Assert.assertEquals(0, status.getInt("exitCode"));
+
+				// All errors are streamed before the status
+				Assert.assertEquals(8, response.size() - 1);
+				for (JSONObject error : response.subList(0, response.size() - 1)) {
+					Assert.assertTrue(error.getString("class").startsWith("example."));
+				}
+			}
+
+			List<JSONObject> invalidResponse = sendRequest(daemon.getPort(), token, Arrays.asList("--appPath", mavenProject.getBuildDirectory()));
+			Assert.assertEquals("failed", invalidResponse.get(invalidResponse.size() - 1).getString("status"));
+		} finally {
+			List<JSONObject> shutdownResponse = sendRequest(daemon.getPort(), token, Arrays.asList("--shutdown"));
+			Assert.assertEquals("stopped", shutdownResponse.get(0).getString("status"));
+
+			daemonThread.join(10000);
+		}
+		Assert.assertFalse(daemonThread.isAlive());
+		Assert.assertFalse(Files.exists(tokenFile));
+	}
+
+	@Test
+	public void daemonRejectsInvalidRequests() throws IOException, InterruptedException {
+		Path tokenFile = temporaryFolder.getRoot().toPath().resolve("daemon.token");
+		ScanDaemon daemon = new ScanDaemon(0, tokenFile.toString());
+		daemon.setRequestTimeout(500);
+		daemon.start();
+		String token = readToken(tokenFile);
+
+		Thread daemonThread = new Thread(daemon::serve);
+		daemonThread.start();
+
+		try {
+			// The shutdown request without the token is rejected, i.e. the daemon keeps running
+			List<JSONObject> invalidTokenResponse = sendRequest(daemon.getPort(), "invalid", Arrays.asList("--shutdown"));
+			Assert.assertEquals(1, invalidTokenResponse.size());
+			Assert.assertEquals("failed", invalidTokenResponse.get(0).getString("status"));
+			Assert.assertTrue(daemonThread.isAlive());
+
+			// A client that does not finish its request is answered after the timeout
+			try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), daemon.getPort())) {
+				List<JSONObject> timeoutResponse = readResponse(socket);
+
+				Assert.assertEquals(1, timeoutResponse.size());
+				Assert.assertEquals("failed", timeoutResponse.get(0).getString("status"));
+			}
+		} finally {
+			sendRequest(daemon.getPort(), token, Arrays.asList("--shutdown"));
+			daemonThread.join(10000);
+		}
+		Assert.assertFalse(daemonThread.isAlive());
+	}
+
+	@Test
+	public void tokenFileIsOnlyReadableByOwner() throws IOException {
+		Assume.assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+
+		Path tokenFile = temporaryFolder.getRoot().toPath().resolve("daemon.token");
+		ScanDaemon daemon = new ScanDaemon(0, tokenFile.toString());
+		daemon.start();
+
+		try {
+			Assert.assertEquals(EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE), Files.getPosixFilePermissions(tokenFile));
+			Assert.assertFalse(readToken(tokenFile).isEmpty());
+		} finally {
+			daemon.stop();
+		}
+	}
+
+	private String readToken(Path tokenFile) throws IOException {
+		return new String(Files.readAllBytes(tokenFile), StandardCharsets.UTF_8);
+	}
+
+	private List<JSONObject> sendRequest(int port, String token, List<String> arguments) throws IOException {
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+			Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+			writer.write(token);
+			writer.write("\n");
+			for (String argument : arguments) {
+				writer.write(argument);
+				writer.write("\n");
+			}
+			writer.write("\n");
+			writer.flush();
+
+			return readResponse(socket);
+		}
+	}
+
+	private List<JSONObject> readResponse(Socket socket) throws IOException {
+		List<JSONObject> response = new ArrayList<>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+		String line;
+		while ((line = reader.readLine()) != null) {
+			response.add(new JSONObject(line));
+		}
+		return response;
+	}
+}